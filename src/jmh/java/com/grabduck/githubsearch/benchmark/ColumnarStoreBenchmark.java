@@ -0,0 +1,86 @@
+package com.grabduck.githubsearch.benchmark;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.grabduck.githubsearch.domain.model.Repository;
+import com.grabduck.githubsearch.domain.model.SearchRequest;
+import com.grabduck.githubsearch.domain.model.SearchResults;
+import com.grabduck.githubsearch.domain.model.SortDirection;
+import com.grabduck.githubsearch.domain.model.SortField;
+import com.grabduck.githubsearch.index.RepositoryColumns;
+
+/**
+ * A search of the local index answered by the columnar store, against filtering and sorting a list of repositories.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ColumnarStoreBenchmark {
+
+    private static final List<String> LANGUAGES =
+        List.of("Java", "Python", "Go", "Rust", "C", "C++", "TypeScript", "Kotlin", "Ruby", "PHP");
+    private static final Comparator<Repository> BY_STARS_DESC =
+        Comparator.comparing(Repository::stargazersCount).thenComparing(Repository::id).reversed();
+
+    @Param({"10000", "100000"})
+    private int repositoryCount;
+
+    private final SearchRequest searchRequest =
+        new SearchRequest("java", LocalDate.of(2024, 1, 1), SortField.STARS, SortDirection.DESC, 1, 100);
+
+    private List<Repository> repositories;
+    private RepositoryColumns columns;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        repositories = IntStream.range(0, repositoryCount)
+            .mapToObj(i -> new Repository((long) i, "repo" + i, "owner/repo" + i, "https://github.com/owner/repo" + i,
+                "Repository " + i,
+                Instant.parse("2020-01-01T00:00:00Z").plusSeconds(random.nextInt(180_000_000)),
+                Instant.parse("2025-07-01T00:00:00Z").plusSeconds(random.nextInt(1_000_000)),
+                LANGUAGES.get(random.nextInt(LANGUAGES.size())),
+                random.nextInt(100_000),
+                random.nextInt(10_000)))
+            .toList();
+        columns = RepositoryColumns.of(repositories);
+    }
+
+    @Benchmark
+    public SearchResults columnarSearch() {
+        return columns.search(searchRequest);
+    }
+
+    @Benchmark
+    public SearchResults listSearch() {
+        Instant createdSince = searchRequest.createdSince().atStartOfDay(ZoneOffset.UTC).toInstant();
+        List<Repository> matching = repositories.stream()
+            .filter(repository -> searchRequest.language().equalsIgnoreCase(repository.language()))
+            .filter(repository -> !repository.createdAt().isBefore(createdSince))
+            .toList();
+        return new SearchResults(matching.size(),
+            matching.stream().sorted(BY_STARS_DESC).limit(searchRequest.size()).toList());
+    }
+}
@@ -0,0 +1,60 @@
+package com.grabduck.githubsearch.benchmark;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.grabduck.githubsearch.client.GitHubSearchResponseDto;
+import com.grabduck.githubsearch.client.GitHubSearchResponseParser;
+
+/**
+ * Deserialization of a 100-item GitHub search response, with an ObjectMapper configured the way Spring configures
+ * the one WebClient used to decode it with, and with the streaming parser fed the response in network-sized chunks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DeserializationBenchmark {
+
+    // Reactor Netty hands the body over in chunks of about this size
+    private static final int CHUNK_SIZE = 8192;
+
+    private ObjectMapper objectMapper;
+    private byte[] searchResponse;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        searchResponse = GitHubSearchResponseFixture.searchResponse(100);
+    }
+
+    @Benchmark
+    public GitHubSearchResponseDto githubSearchResponse() throws IOException {
+        return objectMapper.readValue(searchResponse, GitHubSearchResponseDto.class);
+    }
+
+    @Benchmark
+    public GitHubSearchResponseDto githubSearchResponseStreaming() {
+        GitHubSearchResponseParser parser = new GitHubSearchResponseParser();
+        for (int from = 0; from < searchResponse.length; from += CHUNK_SIZE) {
+            parser.feed(ByteBuffer.wrap(searchResponse, from, Math.min(CHUNK_SIZE, searchResponse.length - from)));
+        }
+        return parser.finish();
+    }
+}
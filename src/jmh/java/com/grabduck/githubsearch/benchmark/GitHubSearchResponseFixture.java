@@ -0,0 +1,140 @@
+package com.grabduck.githubsearch.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * A GitHub search response as GitHub sends it: every item carries the owner, the license, topics
+ * and dozens of API URLs besides the ten fields we actually use.
+ */
+final class GitHubSearchResponseFixture {
+
+    private static final String ITEM = """
+        {
+          "id": %1$d,
+          "node_id": "MDEwOlJlcG9zaXRvcnk%1$d",
+          "name": "repo-%1$d",
+          "full_name": "owner-%1$d/repo-%1$d",
+          "private": false,
+          "owner": {
+            "login": "owner-%1$d",
+            "id": %2$d,
+            "node_id": "MDQ6VXNlcj%2$d",
+            "avatar_url": "https://avatars.githubusercontent.com/u/%2$d?v=4",
+            "gravatar_id": "",
+            "url": "https://api.github.com/users/owner-%1$d",
+            "html_url": "https://github.com/owner-%1$d",
+            "followers_url": "https://api.github.com/users/owner-%1$d/followers",
+            "following_url": "https://api.github.com/users/owner-%1$d/following{/other_user}",
+            "gists_url": "https://api.github.com/users/owner-%1$d/gists{/gist_id}",
+            "starred_url": "https://api.github.com/users/owner-%1$d/starred{/owner}{/repo}",
+            "subscriptions_url": "https://api.github.com/users/owner-%1$d/subscriptions",
+            "organizations_url": "https://api.github.com/users/owner-%1$d/orgs",
+            "repos_url": "https://api.github.com/users/owner-%1$d/repos",
+            "events_url": "https://api.github.com/users/owner-%1$d/events{/privacy}",
+            "received_events_url": "https://api.github.com/users/owner-%1$d/received_events",
+            "type": "Organization",
+            "user_view_type": "public",
+            "site_admin": false
+          },
+          "html_url": "https://github.com/owner-%1$d/repo-%1$d",
+          "description": "Repository number %1$d, with a description about as long as the real ones tend to be.",
+          "fork": false,
+          "url": "https://api.github.com/repos/owner-%1$d/repo-%1$d",
+          "forks_url": "https://api.github.com/repos/owner-%1$d/repo-%1$d/forks",
+          "keys_url": "https://api.github.com/repos/owner-%1$d/repo-%1$d/keys{/key_id}",
+          "collaborators_url": "https://api.github.com/repos/owner-%1$d/repo-%1$d/collaborators{/collaborator}",
+          "teams_url": "https://api.github.com/repos/owner-%1$d/repo-%1$d/teams",
+          "hooks_url": "https://api.github.com/repos/owner-%1$d/repo-%1$d/hooks",
+          "issue_events_url": "https://api.github.com/repos/owner-%1$d/repo-%1$d/issues/events{/number}",
+          "events_url": "https://api.github.com/repos/owner-%1$d/repo-%1$d/events",
+          "assignees_url": "https://api.github.com/repos/owner-%1$d/repo-%1$d/assignees{/user}",
+          "branches_url": "https://api.github.com/repos/owner-%1$d/repo-%1$d/branches{/branch}",
+          "tags_url": "https://api.github.com/repos/owner-%1$d/repo-%1$d/tags",
+          "blobs_url": "https://api.github.com/repos/owner-%1$d/repo-%1$d/git/blobs{/sha}",
+          "git_tags_url": "https://api.github.com/repos/owner-%1$d/repo-%1$d/git/tags{/sha}",
+          "git_refs_url": "https://api.github.com/repos/owner-%1$d/repo-%1$d/git/refs{/sha}",
+          "trees_url": "https://api.github.com/repos/owner-%1$d/repo-%1$d/git/trees{/sha}",
+          "statuses_url": "https://api.github.com/repos/owner-%1$d/repo-%1$d/statuses/{sha}",
+          "languages_url": "https://api.github.com/repos/owner-%1$d/repo-%1$d/languages",
+          "stargazers_url": "https://api.github.com/repos/owner-%1$d/repo-%1$d/stargazers",
+          "contributors_url": "https://api.github.com/repos/owner-%1$d/repo-%1$d/contributors",
+          "subscribers_url": "https://api.github.com/repos/owner-%1$d/repo-%1$d/subscribers",
+          "subscription_url": "https://api.github.com/repos/owner-%1$d/repo-%1$d/subscription",
+          "commits_url": "https://api.github.com/repos/owner-%1$d/repo-%1$d/commits{/sha}",
+          "git_commits_url": "https://api.github.com/repos/owner-%1$d/repo-%1$d/git/commits{/sha}",
+          "comments_url": "https://api.github.com/repos/owner-%1$d/repo-%1$d/comments{/number}",
+          "issue_comment_url": "https://api.github.com/repos/owner-%1$d/repo-%1$d/issues/comments{/number}",
+          "contents_url": "https://api.github.com/repos/owner-%1$d/repo-%1$d/contents/{+path}",
+          "compare_url": "https://api.github.com/repos/owner-%1$d/repo-%1$d/compare/{base}...{head}",
+          "merges_url": "https://api.github.com/repos/owner-%1$d/repo-%1$d/merges",
+          "archive_url": "https://api.github.com/repos/owner-%1$d/repo-%1$d/{archive_format}{/ref}",
+          "downloads_url": "https://api.github.com/repos/owner-%1$d/repo-%1$d/downloads",
+          "issues_url": "https://api.github.com/repos/owner-%1$d/repo-%1$d/issues{/number}",
+          "pulls_url": "https://api.github.com/repos/owner-%1$d/repo-%1$d/pulls{/number}",
+          "milestones_url": "https://api.github.com/repos/owner-%1$d/repo-%1$d/milestones{/number}",
+          "notifications_url": "https://api.github.com/repos/owner-%1$d/repo-%1$d/notifications{?since,all,participating}",
+          "labels_url": "https://api.github.com/repos/owner-%1$d/repo-%1$d/labels{/name}",
+          "releases_url": "https://api.github.com/repos/owner-%1$d/repo-%1$d/releases{/id}",
+          "deployments_url": "https://api.github.com/repos/owner-%1$d/repo-%1$d/deployments",
+          "created_at": "2014-12-24T17:49:19Z",
+          "updated_at": "2025-07-13T09:28:25Z",
+          "pushed_at": "2025-07-13T08:03:11Z",
+          "git_url": "git://github.com/owner-%1$d/repo-%1$d.git",
+          "ssh_url": "git@github.com:owner-%1$d/repo-%1$d.git",
+          "clone_url": "https://github.com/owner-%1$d/repo-%1$d.git",
+          "svn_url": "https://github.com/owner-%1$d/repo-%1$d",
+          "homepage": "https://owner-%1$d.dev",
+          "size": 493217,
+          "stargazers_count": %3$d,
+          "watchers_count": %3$d,
+          "language": "TypeScript",
+          "has_issues": true,
+          "has_projects": true,
+          "has_downloads": true,
+          "has_wiki": false,
+          "has_pages": false,
+          "has_discussions": false,
+          "forks_count": %4$d,
+          "mirror_url": null,
+          "archived": false,
+          "disabled": false,
+          "open_issues_count": 241,
+          "license": {
+            "key": "bsd-3-clause",
+            "name": "BSD 3-Clause \\"New\\" or \\"Revised\\" License",
+            "spdx_id": "BSD-3-Clause",
+            "url": "https://api.github.com/licenses/bsd-3-clause",
+            "node_id": "MDc6TGljZW5zZTU="
+          },
+          "allow_forking": true,
+          "is_template": false,
+          "web_commit_signoff_required": false,
+          "topics": ["careers", "certification", "community", "curriculum", "education", "javascript", "learn-to-code", "math", "nodejs", "react"],
+          "visibility": "public",
+          "forks": %4$d,
+          "open_issues": 241,
+          "watchers": %3$d,
+          "default_branch": "main",
+          "score": 1.0
+        }""";
+
+    private GitHubSearchResponseFixture() {
+    }
+
+    /**
+     * A search response with the given number of items, as raw bytes the way they come off the wire.
+     */
+    static byte[] searchResponse(int items) {
+        String json = IntStream.range(0, items)
+            .mapToObj(i -> ITEM.formatted(28457823L + i, 9892522L + i, 422771 - i * 97, 40730 - i * 13))
+            .collect(Collectors.joining(",\n", """
+                {
+                  "total_count": 1000,
+                  "incomplete_results": false,
+                  "items": [
+                """, "]\n}"));
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,95 @@
+package com.grabduck.githubsearch.benchmark;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.grabduck.githubsearch.api.SearchResponseDto;
+import com.grabduck.githubsearch.api.SearchResponseDtoMapper;
+import com.grabduck.githubsearch.client.GitHubRepositoryDto;
+import com.grabduck.githubsearch.client.GitHubRepositoryDtoMapper;
+import com.grabduck.githubsearch.client.GitHubSearchResponseDto;
+import com.grabduck.githubsearch.client.GitHubSearchResponseDtoMapper;
+import com.grabduck.githubsearch.domain.model.Repository;
+import com.grabduck.githubsearch.domain.model.SearchRequest;
+import com.grabduck.githubsearch.domain.model.SearchResults;
+import com.grabduck.githubsearch.domain.model.SortDirection;
+import com.grabduck.githubsearch.domain.model.SortField;
+import com.grabduck.githubsearch.domain.service.PopularityScorer;
+
+/**
+ * Mapping and scoring of a 100-item page, the work every request does on top of the GitHub call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MappingBenchmark {
+
+    private static final Instant NOW = Instant.parse("2025-07-15T12:00:00Z");
+
+    private final PopularityScorer popularityScorer = new PopularityScorer(Clock.fixed(NOW, ZoneOffset.UTC));
+    private final SearchRequest searchRequest =
+        new SearchRequest("java", LocalDate.of(2008, 4, 1), SortField.STARS, SortDirection.DESC, 1, 100);
+
+    private List<GitHubRepositoryDto> githubItems;
+    private GitHubRepositoryDto githubItem;
+    private Repository repository;
+    private SearchResults unscoredResults;
+    private SearchResults scoredResults;
+
+    @Setup
+    public void setUp() throws IOException {
+        GitHubSearchResponseDto response = Jackson2ObjectMapperBuilder.json().build()
+            .readValue(GitHubSearchResponseFixture.searchResponse(100), GitHubSearchResponseDto.class);
+
+        githubItems = response.items();
+        githubItem = githubItems.get(0);
+        unscoredResults = new SearchResults(response.totalCount(), GitHubSearchResponseDtoMapper.toModel(githubItems));
+        repository = unscoredResults.items().get(0);
+        scoredResults = popularityScorer.score(unscoredResults);
+    }
+
+    @Benchmark
+    public List<Repository> githubSearchResponseToModel() {
+        return GitHubSearchResponseDtoMapper.toModel(githubItems);
+    }
+
+    @Benchmark
+    public Repository githubRepositoryToModel() {
+        return GitHubRepositoryDtoMapper.toModel(githubItem);
+    }
+
+    @Benchmark
+    public int popularityScore() {
+        return PopularityScorer.score(repository, NOW);
+    }
+
+    @Benchmark
+    public SearchResults scoreResultSet() {
+        return popularityScorer.score(unscoredResults);
+    }
+
+    @Benchmark
+    public SearchResponseDto searchResponseToDto() {
+        return SearchResponseDtoMapper.toDto(searchRequest, scoredResults);
+    }
+}
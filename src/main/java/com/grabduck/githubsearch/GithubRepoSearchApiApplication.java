@@ -1,8 +1,11 @@
 package com.grabduck.githubsearch;
 
+import java.time.Clock;
+
 import org.springframework.boot.SpringApplication;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Bean;
 
 @EnableCaching
 @SpringBootApplication
@@ -12,4 +15,9 @@ public class GithubRepoSearchApiApplication {
 		SpringApplication.run(GithubRepoSearchApiApplication.class, args);
 	}
 
+	@Bean
+	public Clock clock() {
+		return Clock.systemUTC();
+	}
+
 }
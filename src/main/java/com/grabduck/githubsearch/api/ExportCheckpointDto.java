@@ -0,0 +1,13 @@
+package com.grabduck.githubsearch.api;
+
+import java.time.Instant;
+
+/**
+ * Line of a streamed export written after each completed slice: everything created up to resumeAfter
+ * has been written, so an interrupted export can be resumed from there.
+ */
+public record ExportCheckpointDto(
+    Instant resumeAfter,
+    long exported
+) {
+}
@@ -0,0 +1,34 @@
+package com.grabduck.githubsearch.api;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import com.grabduck.githubsearch.domain.model.ExportRequest;
+
+/**
+ * Query parameters of an export. It has no sort or paging, repositories are exported slice by slice of their
+ * creation dates. Left out, createdSince defaults to when GitHub launched, as for a search.
+ */
+public record ExportParameters(
+    String language,
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    LocalDate createdSince,
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    LocalDate createdUntil,
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    Instant resumeAfter
+) {
+
+    public ExportParameters {
+        createdSince = createdSince != null ? createdSince : SearchParameters.DEFAULT_CREATED_SINCE;
+    }
+
+    ExportRequest toExportRequest() {
+        return new ExportRequest(language, createdSince, createdUntil, resumeAfter);
+    }
+}
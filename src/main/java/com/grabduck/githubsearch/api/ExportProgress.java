@@ -0,0 +1,37 @@
+package com.grabduck.githubsearch.api;
+
+import java.time.Instant;
+
+import com.grabduck.githubsearch.domain.model.ExportSlice;
+
+/**
+ * Progress of a single streamed export, turned into its checkpoint and trailer lines.
+ * Slices are written one after another, so it is never updated concurrently.
+ */
+class ExportProgress {
+
+    private long exported;
+    private int truncatedSlices;
+    private Instant resumeAfter;
+
+    ExportCheckpointDto completed(ExportSlice slice) {
+        exported += slice.repositories().size();
+        if (slice.truncated()) {
+            truncatedSlices++;
+        }
+        resumeAfter = slice.range().to();
+        return new ExportCheckpointDto(resumeAfter, exported);
+    }
+
+    boolean hasStarted() {
+        return resumeAfter != null;
+    }
+
+    ExportTrailerDto finished() {
+        return new ExportTrailerDto(true, exported, truncatedSlices, resumeAfter, null);
+    }
+
+    ExportTrailerDto failed(Throwable error) {
+        return new ExportTrailerDto(false, exported, truncatedSlices, resumeAfter, error.getMessage());
+    }
+}
@@ -0,0 +1,21 @@
+package com.grabduck.githubsearch.api;
+
+import java.time.Instant;
+
+/**
+ * Last line of a streamed export.
+ *
+ * @param complete Whether all the repositories of the export have been written
+ * @param exported Number of repositories written
+ * @param truncatedSlices Number of slices GitHub matched more repositories within than it lets a search page through
+ * @param resumeAfter Checkpoint to resume an incomplete export from, null if nothing was completed
+ * @param error Why the export is incomplete
+ */
+public record ExportTrailerDto(
+    boolean complete,
+    long exported,
+    int truncatedSlices,
+    Instant resumeAfter,
+    String error
+) {
+}
@@ -1,14 +1,21 @@
 package com.grabduck.githubsearch.api;
 
+import java.util.stream.Collectors;
+
+import org.springframework.beans.TypeMismatchException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
+import org.springframework.validation.BindException;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.FieldError;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ServerWebInputException;
 
 import com.grabduck.githubsearch.domain.exceptions.RepositorySearchException;
 
-import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.ConstraintViolationException;
 
 import lombok.extern.slf4j.Slf4j;
@@ -21,7 +28,7 @@ public class GlobalExceptionHandler {
      * Handles validation errors from @Validated parameters from controller.
      */
     @ExceptionHandler(ConstraintViolationException.class)
-    public ProblemDetail handleConstraintViolation(ConstraintViolationException ex, HttpServletRequest request) {
+    public ProblemDetail handleConstraintViolation(ConstraintViolationException ex) {
         log.warn("Validation error: {}", ex.getMessage());
         
         ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, "Validation error: " + ex.getMessage());
@@ -30,12 +37,29 @@ public class GlobalExceptionHandler {
         return problemDetail;
     }
     
+    /**
+     * Handles errors of query parameters bound to a @Valid @ModelAttribute, that cannot be parsed or are invalid.
+     */
+    @ExceptionHandler(BindException.class)
+    public ProblemDetail handleBindException(BindException ex) {
+        return bindingProblem(ex.getBindingResult());
+    }
+
+    /**
+     * Same as handleBindException when running on the reactive stack.
+     * Declared on its own as it's more specific than ServerWebInputException.
+     */
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ProblemDetail handleWebExchangeBindException(WebExchangeBindException ex) {
+        return bindingProblem(ex.getBindingResult());
+    }
+
     /**
      * Handles errors when request parameters cannot be parsed to the correct type.
      * We might have this if there are any date format issues.
      */
     @ExceptionHandler(MethodArgumentTypeMismatchException.class)
-    public ProblemDetail handleTypeMismatch(MethodArgumentTypeMismatchException ex, HttpServletRequest request) {
+    public ProblemDetail handleTypeMismatch(MethodArgumentTypeMismatchException ex) {
         log.warn("Request parameter type mismatch: {}", ex.getMessage());
 
         ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, "Request parameter type mismatch");
@@ -44,13 +68,31 @@ public class GlobalExceptionHandler {
         return problemDetail;
     }
     
+    /**
+     * Handles errors when request parameters cannot be bound when running on the reactive stack.
+     * It's the WebFlux counterpart of MethodArgumentTypeMismatchException.
+     */
+    @ExceptionHandler(ServerWebInputException.class)
+    public ProblemDetail handleServerWebInput(ServerWebInputException ex) {
+        log.warn("Invalid request input: {}", ex.getMessage());
 
+        if (ex.getCause() instanceof TypeMismatchException) {
+            ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, "Request parameter type mismatch");
+            problemDetail.setTitle("Type Conversion Error");
+            return problemDetail;
+        }
+
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, ex.getReason());
+        problemDetail.setTitle("Invalid Request");
+
+        return problemDetail;
+    }
     
     /**
      * Handles repository search exceptions from the domain layer.
      */
     @ExceptionHandler(RepositorySearchException.class)
-    public ProblemDetail handleRepositorySearchException(RepositorySearchException ex, HttpServletRequest request) {
+    public ProblemDetail handleRepositorySearchException(RepositorySearchException ex) {
         log.error("Repository search failed: {}", ex.getMessage(), ex);
         
         ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage());
@@ -63,7 +105,7 @@ public class GlobalExceptionHandler {
      * Handles all other exceptions.
      */
     @ExceptionHandler(Exception.class)
-    public ProblemDetail handleAllExceptions(Exception ex, HttpServletRequest request) {
+    public ProblemDetail handleAllExceptions(Exception ex) {
         log.error("Unhandled exception", ex);
         
         ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.INTERNAL_SERVER_ERROR, "An unexpected error occurred");
@@ -71,4 +113,22 @@ public class GlobalExceptionHandler {
         
         return problemDetail;
     }
+
+    private static ProblemDetail bindingProblem(BindingResult result) {
+        log.warn("Invalid request parameters: {}", result.getFieldErrors());
+
+        if (result.getFieldErrors().stream().anyMatch(FieldError::isBindingFailure)) {
+            ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, "Request parameter type mismatch");
+            problemDetail.setTitle("Type Conversion Error");
+            return problemDetail;
+        }
+
+        String errors = result.getFieldErrors().stream()
+            .map(error -> error.getField() + ": " + error.getDefaultMessage())
+            .collect(Collectors.joining(", "));
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, "Validation error: " + errors);
+        problemDetail.setTitle("Validation Error");
+
+        return problemDetail;
+    }
 }
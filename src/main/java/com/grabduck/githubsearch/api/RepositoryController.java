@@ -1,26 +1,30 @@
 package com.grabduck.githubsearch.api;
 
-import java.time.LocalDate;
-
-import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.grabduck.githubsearch.domain.exceptions.RepositorySearchException;
+import com.grabduck.githubsearch.domain.model.ExportRequest;
 import com.grabduck.githubsearch.domain.model.SearchRequest;
-import com.grabduck.githubsearch.domain.model.SearchResults;
-import com.grabduck.githubsearch.domain.model.SortDirection;
-import com.grabduck.githubsearch.domain.model.SortField;
+import com.grabduck.githubsearch.domain.service.RepositoryExporter;
 import com.grabduck.githubsearch.domain.service.RepositoryService;
 
-import jakarta.validation.constraints.Max;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
-import jakarta.validation.constraints.Pattern;
 
 
 import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 @RestController
 @RequestMapping("/api/repositories")
@@ -29,47 +33,94 @@ import lombok.RequiredArgsConstructor;
 public class RepositoryController {
     
     private final RepositoryService repositoryService;
+    private final RepositoryExporter repositoryExporter;
+    private final RequestDeadlines requestDeadlines;
     
     /**
      * Search for repositories with optional filtering and sorting.
+     * The response is produced without blocking the request thread while GitHub is being called.
+     * Clients can bound how long they wait for it with the X-Request-Timeout header, in milliseconds.
+     *
+     * The response carries a strong ETag of the results, their fetch time as Last-Modified and a public max-age
+     * for as long as the cached results stay fresh, so that clients and CDNs can reuse it. A request whose
+     * If-None-Match matches the ETag is answered 304 Not Modified without mapping the results.
      */
     @GetMapping
-    public SearchResponseDto searchRepositories(
-        @RequestParam(required = false) 
-        String language,
+    public Mono<ResponseEntity<SearchResponseDto>> searchRepositories(
+        @Valid @ModelAttribute
+        SearchParameters parameters,
+
+        @RequestHeader(name = RequestDeadlines.TIMEOUT_HEADER, required = false)
+        @Min(value = 1, message = "Request timeout must be greater than or equal to 1")
+        Long timeout,
 
-        @RequestParam(required = false, defaultValue = "2008-04-01") 
-        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) 
-        LocalDate createdSince,
+        @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false)
+        String ifNoneMatch
+    ) {
+        SearchRequest searchRequest = parameters.toSearchRequest();
+        
+        return repositoryService.searchCachedRepositories(searchRequest)
+            .map(served -> {
+                String eTag = SearchResultsETags.of(served.results());
+                boolean notModified = SearchResultsETags.matches(ifNoneMatch, eTag);
+                ResponseEntity.BodyBuilder response = ResponseEntity.status(notModified ? HttpStatus.NOT_MODIFIED : HttpStatus.OK)
+                    .eTag(eTag)
+                    .lastModified(served.fetchedAt())
+                    .cacheControl(CacheControl.maxAge(repositoryService.freshFor(served)).cachePublic())
+                    // the same URL is served as NDJSON to clients asking for it
+                    .varyBy(HttpHeaders.ACCEPT);
+                return notModified
+                    ? response.<SearchResponseDto>build()
+                    : response.body(SearchResponseDtoMapper.toDto(searchRequest, served.results()));
+            })
+            .contextWrite(requestDeadlines.context(timeout));
+    }
 
-        @RequestParam(required = false, defaultValue = "stars") 
-        @Pattern(regexp = "stars|forks|updated", message = "Sort must be one of: stars, forks, updated") 
-        String sort,
+    /**
+     * Same search streamed as newline-delimited JSON, for clients asking for application/x-ndjson.
+     * Each repository is written and flushed on its own line as soon as it is mapped, so the response is never
+     * buffered as a whole. The last line is a SearchTrailerDto with the total and the request metadata.
+     * A failed search fails before anything is written, with the usual problem response.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Object> streamRepositories(
+        @Valid @ModelAttribute
+        SearchParameters parameters,
 
-        @RequestParam(required = false, defaultValue = "desc") 
-        @Pattern(regexp = "asc|desc", message = "Direction must be either asc or desc") 
-        String direction,
+        @RequestHeader(name = RequestDeadlines.TIMEOUT_HEADER, required = false)
+        @Min(value = 1, message = "Request timeout must be greater than or equal to 1")
+        Long timeout
+    ) {
+        SearchRequest searchRequest = parameters.toSearchRequest();
 
-        @RequestParam(required = true, defaultValue = "1") 
-        @Min(value = 1, message = "Page must be greater than or equal to 1") 
-        Integer page,
+        return repositoryService.searchRepositories(searchRequest)
+            .contextWrite(requestDeadlines.context(timeout))
+            .flatMapMany(results -> Flux.fromIterable(results.items())
+                .<Object>map(RepositoryDtoMapper::toDto)
+                .concatWith(Mono.fromSupplier(() -> SearchResponseDtoMapper.toTrailerDto(searchRequest, results))));
+    }
 
-        @RequestParam(required = true, defaultValue = "10") 
-        @Min(value = 1, message = "Size must be greater than or equal to 1")
-        @Max(value = 100, message = "Size must be less than or equal to 100") 
-        Integer size
+    /**
+     * Export all repositories matching the criteria as newline-delimited JSON, beyond GitHub's cap of 1000 results
+     * per search. Repositories are written slice by slice of their creation dates, each slice followed by an
+     * ExportCheckpointDto line; the last line is an ExportTrailerDto.
+     * An export that fails midway still ends with a trailer, pass its resumeAfter back to resume it.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Object> exportRepositories(
+        @Valid @ModelAttribute
+        ExportParameters parameters
     ) {
-        SearchRequest searchRequest = new SearchRequest(
-            language,
-            createdSince,
-            SortField.fromString(sort),
-            SortDirection.fromString(direction),
-            page,
-            size
-        );
-        
-        SearchResults results = repositoryService.searchRepositories(searchRequest);
+        ExportRequest exportRequest = parameters.toExportRequest();
+        ExportProgress progress = new ExportProgress();
 
-        return SearchResponseDtoMapper.toDto(searchRequest, results);
+        return repositoryExporter.export(exportRequest)
+            .concatMap(slice -> Flux.fromIterable(slice.repositories())
+                .<Object>map(RepositoryDtoMapper::toDto)
+                .concatWith(Mono.fromSupplier(() -> progress.completed(slice))))
+            .concatWith(Mono.fromSupplier(progress::finished))
+            // once lines have been written the status can no longer change, the trailer tells where to resume
+            .onErrorResume(RepositorySearchException.class,
+                e -> progress.hasStarted() ? Mono.just(progress.failed(e)) : Mono.error(e));
     }
 }
@@ -0,0 +1,40 @@
+package com.grabduck.githubsearch.api;
+
+import java.time.Clock;
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.grabduck.githubsearch.domain.model.Deadline;
+
+import reactor.util.context.Context;
+
+/**
+ * Sets the deadline of a search from the timeout the client asked for in the X-Request-Timeout header, in
+ * milliseconds, capped by search.max-request-timeout (which is also the deadline when the client asks for none).
+ * The deadline is propagated in the subscriber context down to the calls made to GitHub for the search.
+ */
+@Component
+public class RequestDeadlines {
+
+    public static final String TIMEOUT_HEADER = "X-Request-Timeout";
+
+    private final Duration maxTimeout;
+    private final Clock clock;
+
+    public RequestDeadlines(@Value("${search.max-request-timeout}") Duration maxTimeout, Clock clock) {
+        this.maxTimeout = maxTimeout;
+        this.clock = clock;
+    }
+
+    /**
+     * The subscriber context carrying the deadline of a request.
+     *
+     * @param timeoutMillis The timeout the client asked for, or null
+     */
+    public Context context(Long timeoutMillis) {
+        Duration timeout = timeoutMillis == null ? maxTimeout : Duration.ofMillis(timeoutMillis);
+        return Context.of(Deadline.class, Deadline.after(timeout.compareTo(maxTimeout) < 0 ? timeout : maxTimeout, clock));
+    }
+}
@@ -0,0 +1,62 @@
+package com.grabduck.githubsearch.api;
+
+import java.time.LocalDate;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import com.grabduck.githubsearch.domain.model.SearchRequest;
+import com.grabduck.githubsearch.domain.model.SortDirection;
+import com.grabduck.githubsearch.domain.model.SortField;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
+
+/**
+ * Query parameters of a search, shared by the JSON and the streamed responses. Parameters left out take their
+ * defaults: all repositories created since GitHub launched, most starred first, first page of 10.
+ */
+public record SearchParameters(
+    String language,
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    LocalDate createdSince,
+
+    @Pattern(regexp = "stars|forks|updated|popularity", message = "Sort must be one of: stars, forks, updated, popularity")
+    String sort,
+
+    @Pattern(regexp = "asc|desc", message = "Direction must be either asc or desc")
+    String direction,
+
+    @Min(value = 1, message = "Page must be greater than or equal to 1")
+    Integer page,
+
+    @Min(value = 1, message = "Size must be greater than or equal to 1")
+    @Max(value = SearchRequest.MAX_SIZE, message = "Size must be less than or equal to 100")
+    Integer size
+) {
+
+    static final LocalDate DEFAULT_CREATED_SINCE = LocalDate.of(2008, 4, 1);
+
+    public SearchParameters {
+        createdSince = createdSince != null ? createdSince : DEFAULT_CREATED_SINCE;
+        sort = sort != null ? sort : SortField.STARS.getValue();
+        direction = direction != null ? direction : SortDirection.DESC.getValue();
+        page = page != null ? page : 1;
+        size = size != null ? size : 10;
+    }
+
+    /**
+     * The search these parameters ask for, once they have been validated.
+     */
+    SearchRequest toSearchRequest() {
+        return new SearchRequest(
+            language,
+            createdSince,
+            SortField.fromString(sort),
+            SortDirection.fromString(direction),
+            page,
+            size
+        );
+    }
+}
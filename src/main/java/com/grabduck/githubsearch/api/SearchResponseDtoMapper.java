@@ -19,4 +19,12 @@ public class SearchResponseDtoMapper {
             MetadataDtoMapper.toDto(searchRequest)
         );
     }
+
+    public static SearchTrailerDto toTrailerDto(@NonNull SearchRequest searchRequest, @NonNull SearchResults results) {
+        return new SearchTrailerDto(
+            results.total(),
+            results.items().size(),
+            MetadataDtoMapper.toDto(searchRequest)
+        );
+    }
 }
@@ -0,0 +1,69 @@
+package com.grabduck.githubsearch.api;
+
+import java.time.Instant;
+import java.util.Objects;
+
+import com.grabduck.githubsearch.domain.model.Repository;
+import com.grabduck.githubsearch.domain.model.SearchResults;
+
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Strong ETags of search results, computed from the results themselves rather than from the serialized response,
+ * so that a conditional request can be answered 304 before any mapping or serialization is done.
+ *
+ * The hash only relies on hash codes specified by the JDK (String, Long, Integer, Instant), so every node of a
+ * deployment computes the same ETag for the same results and a CDN can revalidate against any of them.
+ */
+@UtilityClass
+public class SearchResultsETags {
+
+    // 64-bit FNV-1a prime, mixes in every field so that results differing in any of them get different ETags
+    private static final long PRIME = 0x100000001b3L;
+
+    public static String of(@NonNull SearchResults results) {
+        long hash = 0xcbf29ce484222325L;
+        hash = mix(hash, results.total());
+        for (Repository repository : results.items()) {
+            hash = mix(hash, Objects.hashCode(repository.id()));
+            hash = mix(hash, Objects.hashCode(repository.name()));
+            hash = mix(hash, Objects.hashCode(repository.fullName()));
+            hash = mix(hash, Objects.hashCode(repository.url()));
+            hash = mix(hash, Objects.hashCode(repository.description()));
+            hash = mix(hash, hashCode(repository.createdAt()));
+            hash = mix(hash, hashCode(repository.updatedAt()));
+            hash = mix(hash, Objects.hashCode(repository.language()));
+            hash = mix(hash, Objects.hashCode(repository.stargazersCount()));
+            hash = mix(hash, Objects.hashCode(repository.forksCount()));
+            hash = mix(hash, repository.popularityScore());
+        }
+        return "\"" + Long.toHexString(hash) + "\"";
+    }
+
+    /**
+     * Whether an If-None-Match header matches the given ETag, compared the weak way as RFC 9110 requires for it.
+     *
+     * @param ifNoneMatch The header, or null if the request has none
+     */
+    public static boolean matches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.equals("*") || (trimmed.startsWith("W/") ? trimmed.substring(2) : trimmed).equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int hashCode(Instant instant) {
+        return instant == null ? 0 : Long.hashCode(instant.getEpochSecond()) * 31 + instant.getNano();
+    }
+
+    private static long mix(long hash, int value) {
+        return (hash ^ value) * PRIME;
+    }
+}
@@ -0,0 +1,11 @@
+package com.grabduck.githubsearch.api;
+
+/**
+ * Last line of a streamed search response, sent once all its items have been written.
+ */
+public record SearchTrailerDto(
+    int total,
+    int count,
+    MetadataDto metadata
+) {
+}
@@ -0,0 +1,207 @@
+package com.grabduck.githubsearch.cache;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.grabduck.githubsearch.domain.model.CachedSearchResults;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Backs the Spring Cache abstraction with Caffeine instead of the default unbounded ConcurrentMapCache.
+ *
+ * Caffeine gives us a bounded cache with W-TinyLFU admission (a burst of one-off queries such as deep pages
+ * cannot push out the hot ones) and expiration after write. Statistics are recorded so that actuator publishes
+ * hits, misses and evictions as cache metrics.
+ *
+ * With cache.repositories.disk.enabled=true the Caffeine cache gets an on-disk second tier (see TwoTierCache), with
+ * cache.repositories.shared.enabled=true a tier in Redis shared by all the nodes (see SharedTierCache).
+ */
+@Configuration
+public class CacheConfiguration {
+
+    public static final String REPOSITORIES_CACHE = "repositories";
+
+    /**
+     * Cache manager for search results.
+     *
+     * Freshness is decided by RepositoryService (stale-while-revalidate), the cache only has to keep entries
+     * long enough to serve them: up to the hard TTL, and for max-stale longer in case GitHub cannot be reached.
+     * The cache key is the SearchRequest itself.
+     */
+    @Bean
+    @ConditionalOnExpression("!${cache.repositories.disk.enabled:false} && !${cache.repositories.shared.enabled:false}")
+    public CacheManager cacheManager(
+            @Value("${cache.repositories.maximum-size}") long maximumSize,
+            @Value("${cache.repositories.maximum-weight}") long maximumWeight,
+            @Value("${cache.repositories.hard-ttl}") Duration hardTtl,
+            @Value("${cache.repositories.max-stale}") Duration maxStale
+    ) {
+        return caffeineCacheManager(maximumSize, maximumWeight, hardTtl.plus(maxStale));
+    }
+
+    /**
+     * Cache manager for search results with more tiers behind the on-heap one: on disk
+     * (cache.repositories.disk.enabled=true), so that cached results survive restarts, and in Redis
+     * (cache.repositories.shared.enabled=true), so that results fetched by one node are served by all.
+     * See TwoTierCache and SharedTierCache.
+     */
+    @Bean
+    @ConditionalOnExpression("${cache.repositories.disk.enabled:false} || ${cache.repositories.shared.enabled:false}")
+    public CacheManager tieredCacheManager(
+            @Value("${cache.repositories.maximum-size}") long maximumSize,
+            @Value("${cache.repositories.maximum-weight}") long maximumWeight,
+            @Value("${cache.repositories.hard-ttl}") Duration hardTtl,
+            @Value("${cache.repositories.max-stale}") Duration maxStale,
+            ObjectProvider<DiskCacheStore> diskCacheStore,
+            ObjectProvider<SharedCacheStore> sharedCacheStore
+    ) {
+        Cache cache = caffeineCacheManager(maximumSize, maximumWeight, hardTtl.plus(maxStale))
+                .getCache(REPOSITORIES_CACHE);
+
+        DiskCacheStore disk = diskCacheStore.getIfAvailable();
+        if (disk != null) {
+            cache = new TwoTierCache((CaffeineCache) cache, disk);
+        }
+        SharedCacheStore shared = sharedCacheStore.getIfAvailable();
+        if (shared != null) {
+            cache = new SharedTierCache(cache, shared);
+        }
+
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(List.of(cache));
+        return cacheManager;
+    }
+
+    /**
+     * The on-disk tier of the search results cache, keeping results as long as the on-heap one.
+     * Publishes "cache.disk.entries" and "cache.disk.size" gauges and "cache.disk.gets" counter tagged with result.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "cache.repositories.disk.enabled", havingValue = "true")
+    public DiskCacheStore diskCacheStore(
+            @Value("${cache.repositories.disk.directory}") Path directory,
+            @Value("${cache.repositories.disk.compaction-threshold}") double compactionThreshold,
+            @Value("${cache.repositories.disk.compaction-interval}") Duration compactionInterval,
+            @Value("${cache.repositories.hard-ttl}") Duration hardTtl,
+            @Value("${cache.repositories.max-stale}") Duration maxStale,
+            Clock clock,
+            MeterRegistry meterRegistry
+    ) {
+        DiskCacheStore store = DiskCacheStore.open(directory, clock, hardTtl.plus(maxStale), compactionThreshold,
+                compactionInterval);
+
+        Gauge.builder("cache.disk.entries", store, DiskCacheStore::size)
+                .description("Number of search results held in the on-disk tier of the cache")
+                .register(meterRegistry);
+        Gauge.builder("cache.disk.size", store, DiskCacheStore::fileSize)
+                .description("Size of the file of the on-disk tier of the cache")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.disk.gets", store, DiskCacheStore::hitCount)
+                .description("Lookups in the on-disk tier of the cache, made when the on-heap tier misses")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.disk.gets", store, DiskCacheStore::missCount)
+                .description("Lookups in the on-disk tier of the cache, made when the on-heap tier misses")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        return store;
+    }
+
+    /**
+     * The tier of the search results cache in Redis, shared by all the nodes and keeping results as long as the
+     * on-heap one, connected in the background so that the node starts when Redis is down. Publishes
+     * "cache.shared.gets" counter tagged with result, errors, timeouts and lookups made before the store connected
+     * counted as misses of the cache, and "cache.shared.invalidations" counter of near copies dropped for other
+     * nodes' writes.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "cache.repositories.shared.enabled", havingValue = "true")
+    public SharedCacheStore sharedCacheStore(
+            @Value("${cache.repositories.shared.uri}") String uri,
+            @Value("${cache.repositories.shared.key-prefix}") String keyPrefix,
+            @Value("${cache.repositories.shared.timeout}") Duration timeout,
+            @Value("${cache.repositories.hard-ttl}") Duration hardTtl,
+            @Value("${cache.repositories.max-stale}") Duration maxStale,
+            Clock clock,
+            MeterRegistry meterRegistry
+    ) {
+        SharedCacheStore store = SharedCacheStore.connect(uri, keyPrefix, clock, hardTtl.plus(maxStale), timeout);
+
+        FunctionCounter.builder("cache.shared.gets", store, SharedCacheStore::hitCount)
+                .description("Lookups in the shared tier of the cache, made when the near cache misses")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.shared.gets", store, SharedCacheStore::missCount)
+                .description("Lookups in the shared tier of the cache, made when the near cache misses")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.shared.gets", store, SharedCacheStore::errorCount)
+                .description("Lookups in the shared tier of the cache, made when the near cache misses")
+                .tag("result", "error")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.shared.invalidations", store, SharedCacheStore::invalidationCount)
+                .description("Near cache entries dropped because another node wrote or evicted them")
+                .register(meterRegistry);
+        return store;
+    }
+
+    /**
+     * Publishes the usual cache metrics of the on-heap tier of a TwoTierCache or SharedTierCache.
+     */
+    @Bean
+    @ConditionalOnExpression("${cache.repositories.disk.enabled:false} || ${cache.repositories.shared.enabled:false}")
+    public CacheMeterBinderProvider<TieredCache> tieredCacheMeterBinderProvider() {
+        return (cache, tags) -> new CaffeineCacheMetrics<>(cache.heap().getNativeCache(), cache.getName(), tags);
+    }
+
+    private static CacheManager caffeineCacheManager(long maximumSize, long maximumWeight, Duration expireAfterWrite) {
+        Caffeine<Object, Object> caffeine = Caffeine.newBuilder()
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats();
+
+        // Caffeine allows only one of the two bounds, weight wins when it is configured
+        if (maximumWeight > 0) {
+            caffeine.maximumWeight(maximumWeight).weigher((key, value) -> weigh(value));
+        } else {
+            caffeine.maximumSize(maximumSize);
+        }
+
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCaffeine(caffeine);
+        cacheManager.setAllowNullValues(false);
+        // static set of caches, so they exist at startup and get bound to the meter registry
+        cacheManager.setCacheNames(List.of(REPOSITORIES_CACHE));
+        return cacheManager;
+    }
+
+    /**
+     * An entry weighs as many units as repositories it holds, so a 100-item page costs 100 times more than a 1-item one.
+     */
+    static int weigh(Object value) {
+        if (value instanceof CachedSearchResults cached && cached.results().items() != null) {
+            return Math.max(1, cached.results().items().size());
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,165 @@
+package com.grabduck.githubsearch.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.grabduck.githubsearch.domain.model.CachedSearchResults;
+import com.grabduck.githubsearch.domain.model.CreatedRange;
+import com.grabduck.githubsearch.domain.model.Repository;
+import com.grabduck.githubsearch.domain.model.SearchRequest;
+import com.grabduck.githubsearch.domain.model.SearchResults;
+import com.grabduck.githubsearch.domain.model.SortDirection;
+import com.grabduck.githubsearch.domain.model.SortField;
+
+/**
+ * Compact binary form of the keys and values of the repositories cache, as stored on disk by DiskCacheStore
+ * and in Redis by SharedCacheStore, in place of Java serialization.
+ *
+ * Fields are written in a fixed order without names: numbers as they are, strings in modified UTF-8, enums
+ * by name so that reordering their constants doesn't break stored entries. Every nullable field starts with
+ * a presence flag.
+ */
+final class CacheEntryCodec {
+
+    private CacheEntryCodec() {
+    }
+
+    static byte[] keyBytes(SearchRequest request) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try {
+            writeKey(new DataOutputStream(bytes), request);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot encode cache key", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static byte[] valueBytes(CachedSearchResults cached) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(8192);
+        try {
+            writeValue(new DataOutputStream(bytes), cached);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot encode cached search results", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static SearchRequest readKey(byte[] bytes, int offset, int length) {
+        try {
+            return readKey(new DataInputStream(new ByteArrayInputStream(bytes, offset, length)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot decode cache key", e);
+        }
+    }
+
+    static CachedSearchResults readValue(byte[] bytes, int offset, int length) {
+        try {
+            return readValue(new DataInputStream(new ByteArrayInputStream(bytes, offset, length)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot decode cached search results", e);
+        }
+    }
+
+    private static void writeKey(DataOutput out, SearchRequest request) throws IOException {
+        writeString(out, request.language());
+        out.writeBoolean(request.createdSince() != null);
+        if (request.createdSince() != null) {
+            out.writeLong(request.createdSince().toEpochDay());
+        }
+        out.writeUTF(request.sort().name());
+        out.writeUTF(request.direction().name());
+        out.writeInt(request.page());
+        out.writeInt(request.size());
+        out.writeBoolean(request.createdWithin() != null);
+        if (request.createdWithin() != null) {
+            writeInstant(out, request.createdWithin().from());
+            writeInstant(out, request.createdWithin().to());
+        }
+    }
+
+    private static SearchRequest readKey(DataInput in) throws IOException {
+        String language = readString(in);
+        LocalDate createdSince = in.readBoolean() ? LocalDate.ofEpochDay(in.readLong()) : null;
+        SortField sort = SortField.valueOf(in.readUTF());
+        SortDirection direction = SortDirection.valueOf(in.readUTF());
+        int page = in.readInt();
+        int size = in.readInt();
+        CreatedRange createdWithin = in.readBoolean() ? new CreatedRange(readInstant(in), readInstant(in)) : null;
+        return new SearchRequest(language, createdSince, sort, direction, page, size, createdWithin);
+    }
+
+    private static void writeValue(DataOutput out, CachedSearchResults cached) throws IOException {
+        writeInstant(out, cached.fetchedAt());
+        out.writeInt(cached.results().total());
+        out.writeInt(cached.results().items().size());
+        for (Repository repository : cached.results().items()) {
+            out.writeLong(repository.id());
+            writeString(out, repository.name());
+            writeString(out, repository.fullName());
+            writeString(out, repository.url());
+            writeString(out, repository.description());
+            writeInstant(out, repository.createdAt());
+            writeInstant(out, repository.updatedAt());
+            writeString(out, repository.language());
+            writeCount(out, repository.stargazersCount());
+            writeCount(out, repository.forksCount());
+            out.writeInt(repository.popularityScore());
+        }
+    }
+
+    private static CachedSearchResults readValue(DataInput in) throws IOException {
+        Instant fetchedAt = readInstant(in);
+        int total = in.readInt();
+        int count = in.readInt();
+        List<Repository> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(new Repository(in.readLong(), readString(in), readString(in), readString(in), readString(in),
+                readInstant(in), readInstant(in), readString(in), readCount(in), readCount(in), in.readInt()));
+        }
+        return new CachedSearchResults(new SearchResults(total, items), fetchedAt);
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeInstant(DataOutput out, Instant value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.getEpochSecond());
+            out.writeInt(value.getNano());
+        }
+    }
+
+    private static Instant readInstant(DataInput in) throws IOException {
+        return in.readBoolean() ? Instant.ofEpochSecond(in.readLong(), in.readInt()) : null;
+    }
+
+    private static void writeCount(DataOutput out, Integer value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeInt(value);
+        }
+    }
+
+    private static Integer readCount(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readInt() : null;
+    }
+}
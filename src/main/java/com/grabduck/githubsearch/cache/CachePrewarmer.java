@@ -0,0 +1,191 @@
+package com.grabduck.githubsearch.cache;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.grabduck.githubsearch.client.GitHubTokenPool;
+import com.grabduck.githubsearch.domain.model.SearchRequest;
+import com.grabduck.githubsearch.domain.service.HotSearches;
+import com.grabduck.githubsearch.domain.service.RepositoryService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Keeps the most frequent searches in the repositories cache, so that they never wait for GitHub, not even
+ * right after a restart.
+ *
+ * The top-n searches counted by HotSearches are saved to a file after every round and on shutdown, and restored
+ * on startup. Every interval they are replayed one after another: a search whose cached results would expire
+ * before the next round is fetched again. Prewarming only uses spare rate limit budget: a round stops as soon as
+ * fewer than reserved-permits calls are left in the client-side token bucket, which are kept for regular searches.
+ * Search counts are halved every hour, so searches that are no longer made drop out of the top.
+ *
+ * Publishes "cache.prewarm.searches" counter tagged with outcome "fetched", "fresh", "deferred" or "failed".
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "cache.prewarm.enabled", havingValue = "true")
+public class CachePrewarmer {
+
+    private static final Duration COUNT_HALF_LIFE = Duration.ofHours(1);
+
+    private static final TypeReference<List<SearchRequest>> HOT_SEARCHES_TYPE = new TypeReference<>() {};
+
+    private final RepositoryService repositoryService;
+    private final HotSearches hotSearches;
+    private final GitHubTokenPool tokenPool;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+    private final Path file;
+    private final Duration interval;
+    private final int reservedPermits;
+
+    private final Counter fetchedSearches;
+    private final Counter freshSearches;
+    private final Counter deferredSearches;
+    private final Counter failedSearches;
+
+    private Disposable rounds;
+    private Instant decayedAt;
+
+    public CachePrewarmer(
+            RepositoryService repositoryService,
+            HotSearches hotSearches,
+            GitHubTokenPool tokenPool,
+            ObjectMapper objectMapper,
+            Clock clock,
+            MeterRegistry meterRegistry,
+            @Value("${cache.prewarm.file}") Path file,
+            @Value("${cache.prewarm.interval}") Duration interval,
+            @Value("${cache.prewarm.reserved-permits}") int reservedPermits
+    ) {
+        this.repositoryService = repositoryService;
+        this.hotSearches = hotSearches;
+        this.tokenPool = tokenPool;
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+        this.decayedAt = clock.instant();
+        this.file = file;
+        this.interval = interval;
+        this.reservedPermits = reservedPermits;
+
+        fetchedSearches = searchesCounter("fetched", meterRegistry);
+        freshSearches = searchesCounter("fresh", meterRegistry);
+        deferredSearches = searchesCounter("deferred", meterRegistry);
+        failedSearches = searchesCounter("failed", meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        restore();
+        rounds = Flux.interval(Duration.ZERO, interval)
+            .onBackpressureDrop()
+            .concatMap(tick -> prewarm(), 1)
+            .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (rounds != null) {
+            rounds.dispose();
+        }
+        save(hotSearches.top());
+    }
+
+    /**
+     * Replays the hot searches whose cached results would expire before the next round, the most frequent first.
+     * Never fails, a search that cannot be fetched is tried again next round.
+     */
+    Mono<Void> prewarm() {
+        return Mono.defer(() -> {
+            List<SearchRequest> top = hotSearches.top();
+            if (!clock.instant().isBefore(decayedAt.plus(COUNT_HALF_LIFE))) {
+                hotSearches.decay();
+                decayedAt = clock.instant();
+            }
+
+            return Flux.fromIterable(top)
+                .concatMap(cacheKey -> {
+                    if (!hasSpareBudget()) {
+                        deferredSearches.increment();
+                        return Mono.empty();
+                    }
+                    return repositoryService.prewarm(cacheKey, interval)
+                        .doOnNext(fetched -> (fetched ? fetchedSearches : freshSearches).increment())
+                        .onErrorResume(e -> {
+                            failedSearches.increment();
+                            log.debug("Prewarming search {} failed: {}", cacheKey, e.getMessage());
+                            return Mono.empty();
+                        });
+                })
+                .then(Mono.fromRunnable(() -> save(top)).subscribeOn(Schedulers.boundedElastic()))
+                .then();
+        });
+    }
+
+    private boolean hasSpareBudget() {
+        return !tokenPool.isExhausted() && tokenPool.leastUsed().budget().availableTokens() >= reservedPermits + 1;
+    }
+
+    /**
+     * Restores the hot searches saved by the previous run, if there are any.
+     */
+    void restore() {
+        if (!Files.exists(file)) {
+            return;
+        }
+        try {
+            List<SearchRequest> saved = objectMapper.readValue(file.toFile(), HOT_SEARCHES_TYPE);
+            // kept in their order, as if each had been made once more than the next one
+            for (int i = 0; i < saved.size(); i++) {
+                hotSearches.record(saved.get(i), saved.size() - i);
+            }
+            log.info("Restored {} hot searches to prewarm from {}", saved.size(), file);
+        } catch (IOException e) {
+            log.warn("Cannot restore hot searches from {}, starting without them: {}", file, e.getMessage());
+        }
+    }
+
+    private void save(List<SearchRequest> top) {
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Path directory = file.toAbsolutePath().getParent();
+            if (directory != null) {
+                Files.createDirectories(directory);
+            }
+            objectMapper.writeValue(tempFile.toFile(), top);
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Cannot save hot searches to {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static Counter searchesCounter(String outcome, MeterRegistry meterRegistry) {
+        return Counter.builder("cache.prewarm.searches")
+            .description("Hot searches replayed by the cache prewarmer grouped by whether they were fetched, "
+                + "still fresh, deferred for lack of rate limit budget or failed")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+}
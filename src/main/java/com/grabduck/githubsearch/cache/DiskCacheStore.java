@@ -0,0 +1,421 @@
+package com.grabduck.githubsearch.cache;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.grabduck.githubsearch.domain.model.CachedSearchResults;
+import com.grabduck.githubsearch.domain.model.SearchRequest;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Second-level store of the repositories cache, on disk, so that cached search results survive restarts.
+ *
+ * Entries are appended to a single log file, each of them a length prefix, the time it expires at (fetchedAt
+ * plus retention), its key and its value in the compact form of CacheEntryCodec; a later entry of the same key
+ * supersedes the earlier one. Only the locations of the entries are held in memory: they are read back from the
+ * keys in the file on startup, and an entry is decoded from the file when it is looked up.
+ *
+ * All changes to the file are made by a single writer thread, in the background, so that caching results never
+ * waits for the disk. Once superseded and expired entries take more than compaction-threshold of the file, the
+ * writer compacts it into a new file holding only the live entries, which replaces the old one atomically.
+ * A torn entry at the end of the file (e.g. after a crash) is dropped on startup, and so is an entry that cannot
+ * be decoded, on startup or when it is looked up, it is only a cache after all.
+ */
+@Slf4j
+public class DiskCacheStore implements AutoCloseable {
+
+    private static final int MAGIC = 0x47524343; // "GRCC"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 2 * Integer.BYTES;
+    // length prefix, expiry time and key length
+    private static final int ENTRY_HEADER_SIZE = Integer.BYTES + Long.BYTES + Integer.BYTES;
+    // compacting smaller files isn't worth it
+    private static final long MIN_COMPACTION_SIZE = 1 << 20;
+
+    private static final String FILE_NAME = "repositories.cache";
+
+    private final Path file;
+    private final Clock clock;
+    private final Duration retention;
+    private final double compactionThreshold;
+
+    private final Scheduler writer = Schedulers.newSingle("disk-cache-writer");
+    private final Disposable compactions;
+
+    // the channel and the locations of the entries in it are swapped together by compaction
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private volatile FileChannel channel;
+    private volatile Map<SearchRequest, Location> locations = new ConcurrentHashMap<>();
+    // written by the writer thread only
+    private volatile long fileSize;
+    private volatile long liveBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private DiskCacheStore(Path file, Clock clock, Duration retention, double compactionThreshold,
+                           Duration compactionInterval) {
+        this.file = file;
+        this.clock = clock;
+        this.retention = retention;
+        this.compactionThreshold = compactionThreshold;
+        load();
+        this.compactions = writer.schedulePeriodically(this::compactIfNeeded,
+            compactionInterval.toMillis(), compactionInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Opens the store in the directory, creating an empty one if there is none.
+     *
+     * @param retention How long after they were fetched search results are kept
+     * @param compactionThreshold Share of the file taken by superseded and expired entries above which it is compacted
+     * @param compactionInterval How often the file is checked for compaction
+     */
+    public static DiskCacheStore open(Path directory, Clock clock, Duration retention, double compactionThreshold,
+                                      Duration compactionInterval) {
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create cache directory " + directory, e);
+        }
+        return new DiskCacheStore(directory.resolve(FILE_NAME), clock, retention, compactionThreshold, compactionInterval);
+    }
+
+    /**
+     * The cached results of the search, or null if there are none or they have expired.
+     */
+    public CachedSearchResults get(SearchRequest key) {
+        Location location;
+        ByteBuffer entry;
+        swapLock.readLock().lock();
+        try {
+            location = locations.get(key);
+            if (location == null || location.expiresAt() <= clock.millis()) {
+                misses.increment();
+                return null;
+            }
+            entry = ByteBuffer.allocate(location.length());
+            readFully(channel, entry, location.offset());
+        } catch (IOException e) {
+            log.warn("Cannot read cached search results from {}: {}", file, e.getMessage());
+            misses.increment();
+            return null;
+        } finally {
+            swapLock.readLock().unlock();
+        }
+
+        try {
+            int valueOffset = ENTRY_HEADER_SIZE + entry.getInt(ENTRY_HEADER_SIZE - Integer.BYTES);
+            CachedSearchResults value =
+                CacheEntryCodec.readValue(entry.array(), valueOffset, entry.capacity() - valueOffset);
+            hits.increment();
+            return value;
+        } catch (RuntimeException e) {
+            log.warn("Dropping cached search results that cannot be decoded from {}: {}", file, e.getMessage());
+            misses.increment();
+            inBackground(() -> {
+                // unless the entry has been superseded or moved by a compaction meanwhile
+                if (locations.remove(key, location)) {
+                    liveBytes -= location.length();
+                }
+            });
+            return null;
+        }
+    }
+
+    /**
+     * Stores the results of the search, in the background.
+     */
+    public void put(SearchRequest key, CachedSearchResults value) {
+        inBackground(() -> {
+            try {
+                append(key, value);
+            } catch (IOException e) {
+                log.warn("Cannot write cached search results to {}: {}", file, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Removes the results of the search, in the background.
+     */
+    public void evict(SearchRequest key) {
+        inBackground(() -> {
+            Location removed = locations.remove(key);
+            if (removed != null) {
+                liveBytes -= removed.length();
+            }
+        });
+    }
+
+    /**
+     * Removes all entries, in the background. The file is emptied by the next compaction.
+     */
+    public void clear() {
+        inBackground(() -> {
+            locations.clear();
+            liveBytes = 0;
+        });
+    }
+
+    /**
+     * Waits for all the changes made so far to be written.
+     */
+    public void flush() {
+        Mono.fromRunnable(() -> {}).subscribeOn(writer).block();
+    }
+
+    /**
+     * Number of entries in the store, including the expired ones not compacted yet.
+     */
+    public int size() {
+        return locations.size();
+    }
+
+    /**
+     * Size of the file in bytes.
+     */
+    public long fileSize() {
+        return fileSize;
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Writes pending changes and closes the file.
+     */
+    @Override
+    public void close() {
+        compactions.dispose();
+        flush();
+        writer.dispose();
+        swapLock.writeLock().lock();
+        try {
+            channel.force(false);
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Cannot close cache file {}: {}", file, e.getMessage());
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Compacts the file when enough of it is taken by superseded and expired entries. Runs on the writer thread.
+     */
+    void compactIfNeeded() {
+        long now = clock.millis();
+        locations.entrySet().removeIf(entry -> {
+            boolean expired = entry.getValue().expiresAt() <= now;
+            if (expired) {
+                liveBytes -= entry.getValue().length();
+            }
+            return expired;
+        });
+
+        long deadBytes = fileSize - HEADER_SIZE - liveBytes;
+        if (fileSize >= MIN_COMPACTION_SIZE && deadBytes > compactionThreshold * fileSize) {
+            try {
+                compact();
+            } catch (IOException e) {
+                log.warn("Cannot compact cache file {}: {}", file, e.getMessage());
+            }
+        }
+    }
+
+    void compact() throws IOException {
+        long before = fileSize;
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        Map<SearchRequest, Location> compacted = new ConcurrentHashMap<>();
+        long offset = HEADER_SIZE;
+
+        // the writer thread is busy compacting, so entries can be copied without holding off readers
+        try (FileChannel target = FileChannel.open(tempFile,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(target, header(), 0);
+            for (Map.Entry<SearchRequest, Location> entry : locations.entrySet()) {
+                Location location = entry.getValue();
+                ByteBuffer buffer = ByteBuffer.allocate(location.length());
+                readFully(channel, buffer, location.offset());
+                writeFully(target, buffer.flip(), offset);
+                compacted.put(entry.getKey(), new Location(offset, location.length(), location.expiresAt()));
+                offset += location.length();
+            }
+            target.force(false);
+        }
+
+        swapLock.writeLock().lock();
+        try {
+            channel.close();
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            channel = openChannel();
+            locations = compacted;
+            fileSize = offset;
+            liveBytes = offset - HEADER_SIZE;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+        log.info("Compacted cache file {} from {} to {} bytes holding {} entries", file, before, offset, compacted.size());
+    }
+
+    private void inBackground(Runnable change) {
+        try {
+            writer.schedule(change);
+        } catch (RejectedExecutionException e) {
+            // closed on shutdown, changes of searches still running then are dropped
+            log.debug("Cache file {} is closed, change is dropped", file);
+        }
+    }
+
+    private void append(SearchRequest key, CachedSearchResults value) throws IOException {
+        ByteBuffer entry = encode(key, value);
+        writeFully(channel, entry, fileSize);
+        Location location = new Location(fileSize, entry.capacity(), expiresAt(value));
+        fileSize += location.length();
+
+        Location superseded = locations.put(key, location);
+        liveBytes += location.length() - (superseded != null ? superseded.length() : 0);
+    }
+
+    private ByteBuffer encode(SearchRequest key, CachedSearchResults value) {
+        byte[] keyBytes = CacheEntryCodec.keyBytes(key);
+        byte[] valueBytes = CacheEntryCodec.valueBytes(value);
+
+        int length = ENTRY_HEADER_SIZE + keyBytes.length + valueBytes.length;
+        return ByteBuffer.allocate(length)
+            .putInt(length - Integer.BYTES)
+            .putLong(expiresAt(value))
+            .putInt(keyBytes.length)
+            .put(keyBytes)
+            .put(valueBytes)
+            .flip();
+    }
+
+    private long expiresAt(CachedSearchResults value) {
+        return value.fetchedAt().plus(retention).toEpochMilli();
+    }
+
+    private void load() {
+        try {
+            channel = openChannel();
+            long size = channel.size();
+            if (size < HEADER_SIZE || !hasHeader()) {
+                if (size > 0) {
+                    log.warn("Discarding cache file {} written in an unknown format", file);
+                }
+                channel.truncate(0);
+                writeFully(channel, header(), 0);
+                fileSize = HEADER_SIZE;
+                return;
+            }
+
+            long now = clock.millis();
+            long offset = HEADER_SIZE;
+            int undecodable = 0;
+            ByteBuffer entryHeader = ByteBuffer.allocate(ENTRY_HEADER_SIZE);
+            while (offset + ENTRY_HEADER_SIZE <= size) {
+                readFully(channel, entryHeader.clear(), offset);
+                int length = Integer.BYTES + entryHeader.getInt(0);
+                long expiresAt = entryHeader.getLong(Integer.BYTES);
+                int keyLength = entryHeader.getInt(Integer.BYTES + Long.BYTES);
+                if (length < ENTRY_HEADER_SIZE + keyLength || keyLength < 0 || offset + length > size) {
+                    break;
+                }
+
+                ByteBuffer keyBytes = ByteBuffer.allocate(keyLength);
+                readFully(channel, keyBytes, offset + ENTRY_HEADER_SIZE);
+                SearchRequest key;
+                try {
+                    key = CacheEntryCodec.readKey(keyBytes.array(), 0, keyLength);
+                } catch (RuntimeException e) {
+                    // left in the file as a dead entry, the next compaction drops it
+                    undecodable++;
+                    offset += length;
+                    continue;
+                }
+
+                Location superseded = expiresAt > now
+                    ? locations.put(key, new Location(offset, length, expiresAt))
+                    : locations.remove(key);
+                liveBytes += (expiresAt > now ? length : 0) - (superseded != null ? superseded.length() : 0);
+                offset += length;
+            }
+
+            if (offset < size) {
+                log.warn("Dropping torn entry at the end of cache file {}", file);
+                channel.truncate(offset);
+            }
+            if (undecodable > 0) {
+                log.warn("Skipped {} entries of cache file {} that cannot be decoded", undecodable, file);
+            }
+            fileSize = offset;
+            log.info("Loaded {} cached search results from {}", locations.size(), file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load cache file " + file, e);
+        }
+    }
+
+    private boolean hasHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        readFully(channel, header, 0);
+        return header.getInt(0) == MAGIC && header.getInt(Integer.BYTES) == VERSION;
+    }
+
+    private FileChannel openChannel() throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private static ByteBuffer header() {
+        return ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).flip();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("Unexpected end of cache file at " + (position + buffer.position()));
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+
+    /**
+     * Where an entry is in the file.
+     *
+     * @param length Size of the entry in bytes, including its length prefix
+     * @param expiresAt When the entry expires, in epoch milliseconds
+     */
+    private record Location(long offset, int length, long expiresAt) {
+    }
+}
@@ -0,0 +1,152 @@
+package com.grabduck.githubsearch.cache;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.grabduck.githubsearch.client.GitHubTokenPool;
+import com.grabduck.githubsearch.domain.model.SearchRequest;
+import com.grabduck.githubsearch.domain.model.ServedPage;
+import com.grabduck.githubsearch.domain.service.RepositoryService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Fetches the block of results the next page of a search needs into the repositories cache as soon as a page has
+ * been served, so that a client paging through the results gets the next page without waiting for GitHub.
+ * Small pages are mostly cut out of blocks already cached, a block is only prefetched when the next page runs into it.
+ *
+ * Prefetching only uses spare rate limit budget: a block is not prefetched when fewer than reserved-permits calls
+ * are left in the client-side token bucket, which are kept for regular searches. At most concurrency blocks are
+ * prefetched at the same time, the blocks needed by pages served meanwhile are dropped. A block that is cached and
+ * still servable is not fetched again.
+ *
+ * Publishes "cache.prefetch.pages" counter tagged with outcome "fetched", "cached", "deferred", "dropped" or
+ * "failed", and "cache.prefetch.hits" counter tagged with result "hit" for prefetched blocks a page was later cut
+ * out of and "unused" for those that dropped out unrequested. Hits over fetched blocks is the prefetch hit ratio.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "cache.prefetch.enabled", havingValue = "true")
+public class NextPagePrefetcher {
+
+    // prefetched blocks remembered until they are asked for, beyond that the oldest are counted as unused
+    private static final long MAX_TRACKED_BLOCKS = 10_000;
+
+    private final RepositoryService repositoryService;
+    private final GitHubTokenPool tokenPool;
+    private final int reservedPermits;
+    private final Semaphore inFlight;
+    private final Cache<SearchRequest, Boolean> prefetched;
+
+    private final Counter fetchedPages;
+    private final Counter cachedPages;
+    private final Counter deferredPages;
+    private final Counter droppedPages;
+    private final Counter failedPages;
+    private final Counter hits;
+    private final Counter unused;
+
+    public NextPagePrefetcher(
+            RepositoryService repositoryService,
+            GitHubTokenPool tokenPool,
+            MeterRegistry meterRegistry,
+            @Value("${cache.prefetch.concurrency}") int concurrency,
+            @Value("${cache.prefetch.reserved-permits}") int reservedPermits,
+            @Value("${cache.repositories.hard-ttl}") Duration hardTtl
+    ) {
+        this.repositoryService = repositoryService;
+        this.tokenPool = tokenPool;
+        this.reservedPermits = reservedPermits;
+        this.inFlight = new Semaphore(concurrency);
+
+        fetchedPages = pagesCounter("fetched", meterRegistry);
+        cachedPages = pagesCounter("cached", meterRegistry);
+        deferredPages = pagesCounter("deferred", meterRegistry);
+        droppedPages = pagesCounter("dropped", meterRegistry);
+        failedPages = pagesCounter("failed", meterRegistry);
+        hits = hitsCounter("hit", meterRegistry);
+        unused = hitsCounter("unused", meterRegistry);
+
+        // a prefetched block not asked for before it has to be fetched again was prefetched in vain
+        this.prefetched = Caffeine.newBuilder()
+            .maximumSize(MAX_TRACKED_BLOCKS)
+            .expireAfterWrite(hardTtl)
+            .<SearchRequest, Boolean>removalListener((block, value, cause) -> {
+                if (cause.wasEvicted()) {
+                    unused.increment();
+                }
+            })
+            .build();
+
+        repositoryService.onPageServed(this::prefetchNext);
+    }
+
+    /**
+     * Counts the blocks of the page that were prefetched as hits, and starts prefetching the block the next page
+     * needs. Never blocks nor fails, it runs on the thread serving the page.
+     */
+    void prefetchNext(ServedPage page) {
+        for (SearchRequest block : page.blocks()) {
+            if (prefetched.asMap().remove(block) != null) {
+                hits.increment();
+            }
+        }
+
+        SearchRequest nextBlock = page.nextBlock();
+        if (nextBlock == null) {
+            return;
+        }
+        if (!hasSpareBudget()) {
+            deferredPages.increment();
+            return;
+        }
+        if (!inFlight.tryAcquire()) {
+            droppedPages.increment();
+            return;
+        }
+
+        repositoryService.prewarm(nextBlock, Duration.ZERO)
+            .doFinally(signal -> inFlight.release())
+            .subscribe(
+                fetched -> {
+                    if (fetched) {
+                        prefetched.put(nextBlock, Boolean.TRUE);
+                        fetchedPages.increment();
+                    } else {
+                        cachedPages.increment();
+                    }
+                },
+                e -> {
+                    failedPages.increment();
+                    log.debug("Prefetching block {} failed: {}", nextBlock, e.getMessage());
+                }
+            );
+    }
+
+    private boolean hasSpareBudget() {
+        return !tokenPool.isExhausted() && tokenPool.leastUsed().budget().availableTokens() >= reservedPermits + 1;
+    }
+
+    private static Counter pagesCounter(String outcome, MeterRegistry meterRegistry) {
+        return Counter.builder("cache.prefetch.pages")
+            .description("Blocks of next pages prefetched after a page was served grouped by whether they were fetched, "
+                + "already cached, deferred for lack of rate limit budget, dropped over the concurrency limit or failed")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+
+    private static Counter hitsCounter(String result, MeterRegistry meterRegistry) {
+        return Counter.builder("cache.prefetch.hits")
+            .description("Prefetched blocks grouped by whether a page was cut out of them or they went unused")
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,280 @@
+package com.grabduck.githubsearch.cache;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import com.grabduck.githubsearch.domain.model.CachedSearchResults;
+import com.grabduck.githubsearch.domain.model.SearchRequest;
+
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.api.StatefulConnection;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.protocol.ProtocolVersion;
+import io.lettuce.core.pubsub.RedisPubSubAdapter;
+import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * Cache tier shared by all the nodes of a deployment, in Redis, so that a search fetched by one node is served
+ * by all of them.
+ *
+ * Entries are stored under the key prefix followed by the search in the compact form of CacheEntryCodec, with
+ * the same form of CachedSearchResults as value, and expire in Redis when they would expire from the cache.
+ * Writes are sent without waiting for Redis. A lookup waits for at most the configured timeout and is taken as
+ * a miss if Redis is slower or cannot be reached, so that the cache never fails a search.
+ *
+ * The store connects to Redis in the background, so that a node starts when Redis is down, and tries again with
+ * growing delays until it gets through. Until then the tier is missing: lookups are taken as misses and writes
+ * are dropped. Once connected, the Redis client reconnects on its own and subscribes to the channel again.
+ *
+ * Every entry a node writes or evicts is announced on the invalidations channel, and the other nodes drop their
+ * own copy of it (see SharedTierCache), so a node doesn't keep serving results older than the shared ones.
+ */
+@Slf4j
+public class SharedCacheStore implements AutoCloseable {
+
+    private static final int NODE_ID_SIZE = 2 * Long.BYTES;
+    private static final Duration MAX_CONNECT_DELAY = Duration.ofSeconds(30);
+
+    private final RedisClient client;
+    private final RedisURI uri;
+    private final byte[] keyPrefix;
+    private final byte[] invalidationsChannel;
+    private final byte[] nodeId = nodeId();
+    private final Clock clock;
+    private final Duration retention;
+    private final Duration timeout;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder receivedInvalidations = new LongAdder();
+
+    private volatile Consumer<SearchRequest> invalidationListener = key -> {};
+    // null until connected
+    private volatile StatefulRedisConnection<byte[], byte[]> connection;
+    private volatile StatefulRedisPubSubConnection<byte[], byte[]> invalidations;
+    private volatile boolean closed;
+
+    private SharedCacheStore(RedisClient client, RedisURI uri, String keyPrefix, Clock clock, Duration retention,
+                             Duration timeout) {
+        this.client = client;
+        this.uri = uri;
+        this.keyPrefix = keyPrefix.getBytes(StandardCharsets.UTF_8);
+        this.invalidationsChannel = (keyPrefix + "invalidations").getBytes(StandardCharsets.UTF_8);
+        this.clock = clock;
+        this.retention = retention;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Connects to Redis in the background, the store takes lookups as misses until it is connected.
+     *
+     * @param uri Redis to connect to, e.g. redis://localhost:6379
+     * @param keyPrefix Prefix of the keys of the entries and of the invalidations channel
+     * @param retention How long after they were fetched search results are kept
+     * @param timeout The longest a lookup waits for Redis
+     */
+    public static SharedCacheStore connect(String uri, String keyPrefix, Clock clock, Duration retention,
+                                           Duration timeout) {
+        RedisURI redisUri = RedisURI.create(uri);
+        RedisClient client = RedisClient.create(redisUri);
+        // plain RESP2 is all that is needed, pub/sub runs on a connection of its own
+        client.setOptions(ClientOptions.builder().protocolVersion(ProtocolVersion.RESP2).build());
+        SharedCacheStore store = new SharedCacheStore(client, redisUri, keyPrefix, clock, retention, timeout);
+        store.connectInBackground("shared cache", () -> client.connectAsync(ByteArrayCodec.INSTANCE, redisUri),
+            connected -> {
+                connected.setTimeout(timeout);
+                store.connection = connected;
+            }, timeout);
+        store.connectInBackground("shared cache invalidations",
+            () -> client.connectPubSubAsync(ByteArrayCodec.INSTANCE, redisUri), connected -> {
+                connected.addListener(new RedisPubSubAdapter<>() {
+                    @Override
+                    public void message(byte[] channel, byte[] message) {
+                        store.onInvalidation(message);
+                    }
+                });
+                connected.async().subscribe(store.invalidationsChannel)
+                    .whenComplete((subscribed, e) -> store.invalidations = connected);
+            }, timeout);
+        return store;
+    }
+
+    /**
+     * Registers what to do when another node has written or evicted an entry.
+     */
+    public void onInvalidation(Consumer<SearchRequest> listener) {
+        this.invalidationListener = listener;
+    }
+
+    /**
+     * The shared results of the search, empty if there are none, Redis didn't answer in time or the store is not
+     * connected yet. Doesn't block,
+     * the results are emitted on a thread of the Redis client.
+     */
+    public Mono<CachedSearchResults> get(SearchRequest key) {
+        StatefulRedisConnection<byte[], byte[]> connection = this.connection;
+        if (connection == null) {
+            errors.increment();
+            return Mono.empty();
+        }
+        return connection.reactive().get(redisKey(key))
+            .timeout(timeout)
+            .doOnNext(value -> hits.increment())
+            .map(value -> CacheEntryCodec.readValue(value, 0, value.length))
+            .switchIfEmpty(Mono.fromRunnable(misses::increment))
+            .onErrorResume(e -> {
+                errors.increment();
+                log.debug("Shared cache lookup failed, taken as a miss: {}", e.getMessage());
+                return Mono.empty();
+            });
+    }
+
+    /**
+     * Shares the results of the search, without waiting for Redis.
+     */
+    public void put(SearchRequest key, CachedSearchResults value) {
+        long ttl = Duration.between(clock.instant(), value.fetchedAt().plus(retention)).toMillis();
+        StatefulRedisConnection<byte[], byte[]> connection = this.connection;
+        if (ttl <= 0 || connection == null) {
+            return;
+        }
+        byte[] encodedKey = CacheEntryCodec.keyBytes(key);
+        connection.async().set(redisKey(encodedKey), CacheEntryCodec.valueBytes(value), SetArgs.Builder.px(ttl))
+            .exceptionally(e -> {
+                log.debug("Cannot write shared search results: {}", e.getMessage());
+                return null;
+            });
+        announce(connection, encodedKey);
+    }
+
+    /**
+     * Removes the shared results of the search, without waiting for Redis.
+     */
+    public void evict(SearchRequest key) {
+        StatefulRedisConnection<byte[], byte[]> connection = this.connection;
+        if (connection == null) {
+            return;
+        }
+        byte[] encodedKey = CacheEntryCodec.keyBytes(key);
+        connection.async().del(redisKey(encodedKey))
+            .exceptionally(e -> {
+                log.debug("Cannot evict shared search results: {}", e.getMessage());
+                return null;
+            });
+        announce(connection, encodedKey);
+    }
+
+    /**
+     * Whether the store has got through to Redis, it keeps trying in the background until it has.
+     */
+    public boolean isConnected() {
+        return connection != null && invalidations != null;
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long errorCount() {
+        return errors.sum();
+    }
+
+    public long invalidationCount() {
+        return receivedInvalidations.sum();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        close(invalidations);
+        close(connection);
+        client.shutdown();
+    }
+
+    private <C extends StatefulConnection<byte[], byte[]>> void connectInBackground(
+            String name, Supplier<CompletionStage<C>> connect, Consumer<C> onConnected, Duration delay) {
+        connect.get().whenComplete((connected, e) -> {
+            if (e == null) {
+                onConnected.accept(connected);
+                log.info("Connected {} to Redis at {}", name, uri);
+                // a connection made while the store was closing would be left open
+                if (closed) {
+                    close(connected);
+                }
+                return;
+            }
+            if (closed) {
+                return;
+            }
+            log.warn("Cannot connect {} to Redis at {}, trying again in {}: {}", name, uri, delay, e.getMessage());
+            Duration nextDelay = delay.multipliedBy(2).compareTo(MAX_CONNECT_DELAY) < 0
+                ? delay.multipliedBy(2) : MAX_CONNECT_DELAY;
+            client.getResources().eventExecutorGroup().schedule(
+                () -> connectInBackground(name, connect, onConnected, nextDelay), delay.toMillis(),
+                TimeUnit.MILLISECONDS);
+        });
+    }
+
+    private static void close(StatefulConnection<?, ?> connection) {
+        if (connection != null) {
+            connection.closeAsync();
+        }
+    }
+
+    private void announce(StatefulRedisConnection<byte[], byte[]> connection, byte[] encodedKey) {
+        byte[] message = ByteBuffer.allocate(NODE_ID_SIZE + encodedKey.length).put(nodeId).put(encodedKey).array();
+        connection.async().publish(invalidationsChannel, message)
+            .exceptionally(e -> {
+                log.debug("Cannot announce change of shared search results: {}", e.getMessage());
+                return null;
+            });
+    }
+
+    private void onInvalidation(byte[] message) {
+        // a node doesn't drop what it has just written itself
+        if (message.length < NODE_ID_SIZE || Arrays.equals(message, 0, NODE_ID_SIZE, nodeId, 0, NODE_ID_SIZE)) {
+            return;
+        }
+        try {
+            SearchRequest key = CacheEntryCodec.readKey(message, NODE_ID_SIZE, message.length - NODE_ID_SIZE);
+            invalidationListener.accept(key);
+            receivedInvalidations.increment();
+        } catch (RuntimeException e) {
+            log.warn("Ignoring malformed shared cache invalidation: {}", e.getMessage());
+        }
+    }
+
+    private byte[] redisKey(SearchRequest key) {
+        return redisKey(CacheEntryCodec.keyBytes(key));
+    }
+
+    private byte[] redisKey(byte[] encodedKey) {
+        return ByteBuffer.allocate(keyPrefix.length + encodedKey.length).put(keyPrefix).put(encodedKey).array();
+    }
+
+    private static byte[] nodeId() {
+        UUID id = UUID.randomUUID();
+        return ByteBuffer.allocate(NODE_ID_SIZE).putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits())
+            .array();
+    }
+}
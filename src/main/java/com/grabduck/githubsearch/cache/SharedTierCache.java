@@ -0,0 +1,83 @@
+package com.grabduck.githubsearch.cache;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import com.grabduck.githubsearch.domain.model.CachedSearchResults;
+import com.grabduck.githubsearch.domain.model.SearchRequest;
+
+/**
+ * Repositories cache shared by all the nodes of a deployment: the node's own cache (on heap, or on heap and on
+ * disk) as near cache in front of the SharedCacheStore in Redis.
+ *
+ * Results are written to the near cache and shared in the background. A lookup that misses the near cache is
+ * answered from Redis, waiting for at most the shared store timeout (without blocking the calling thread when
+ * made with retrieve), and the results found there are kept in the near cache. When another node writes or
+ * evicts an entry, the near copy of it is dropped so that the next lookup reads the newer results from Redis.
+ * Clearing the cache clears the near cache of this node only.
+ */
+public class SharedTierCache extends TieredCache {
+
+    private final Cache near;
+    private final SharedCacheStore shared;
+
+    /**
+     * @param near The on-heap CaffeineCache, or a TieredCache of the node
+     */
+    public SharedTierCache(Cache near, SharedCacheStore shared) {
+        if (!(near instanceof CaffeineCache || near instanceof TieredCache)) {
+            throw new IllegalArgumentException("Near cache must be on heap: " + near.getClass().getName());
+        }
+        this.near = near;
+        this.shared = shared;
+        shared.onInvalidation(near::evict);
+    }
+
+    @Override
+    public CaffeineCache heap() {
+        return near instanceof TieredCache tiered ? tiered.heap() : (CaffeineCache) near;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        Object value = retrieve(key).join();
+        return value != null ? new SimpleValueWrapper(value) : null;
+    }
+
+    @Override
+    public CompletableFuture<?> retrieve(Object key) {
+        return retrieve(near, key).thenCompose(cached -> {
+            if (cached != null || !(key instanceof SearchRequest request)) {
+                return CompletableFuture.<Object>completedFuture(cached);
+            }
+            return shared.get(request)
+                .doOnNext(stored -> near.put(key, stored))
+                .cast(Object.class)
+                .toFuture();
+        });
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        near.put(key, value);
+        if (key instanceof SearchRequest request && value instanceof CachedSearchResults results) {
+            shared.put(request, results);
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        near.evict(key);
+        if (key instanceof SearchRequest request) {
+            shared.evict(request);
+        }
+    }
+
+    @Override
+    public void clear() {
+        near.clear();
+    }
+}
@@ -0,0 +1,76 @@
+package com.grabduck.githubsearch.cache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+/**
+ * A cache made of tiers in front of each other, the first of them always the on-heap Caffeine cache.
+ *
+ * Lookups and writes of the typed and loading variants go through get(key) and put(key, value), so that
+ * the tiers are consulted and written in one place.
+ *
+ * retrieve(key) looks the tiers up without blocking the calling thread, for callers on a non-blocking request
+ * path. Its future completes with the cached value itself, or with null on a miss.
+ */
+public abstract class TieredCache implements Cache {
+
+    /**
+     * The on-heap tier, whose statistics are published as the cache metrics.
+     */
+    public abstract CaffeineCache heap();
+
+    @Override
+    public String getName() {
+        return heap().getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return heap().getNativeCache();
+    }
+
+    @Override
+    public abstract CompletableFuture<?> retrieve(Object key);
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper cached = get(key);
+        Object value = cached != null ? cached.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper cached = get(key);
+        if (cached != null) {
+            return (T) cached.get();
+        }
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        put(key, value);
+        return value;
+    }
+
+    /**
+     * Looks a tier up without blocking when it is a TieredCache itself, in place when it is on heap.
+     */
+    static CompletableFuture<?> retrieve(Cache tier, Object key) {
+        if (tier instanceof TieredCache tiered) {
+            return tiered.retrieve(key);
+        }
+        ValueWrapper cached = tier.get(key);
+        return CompletableFuture.completedFuture(cached != null ? cached.get() : null);
+    }
+}
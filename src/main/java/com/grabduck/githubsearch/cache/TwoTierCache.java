@@ -0,0 +1,95 @@
+package com.grabduck.githubsearch.cache;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import com.grabduck.githubsearch.domain.model.CachedSearchResults;
+import com.grabduck.githubsearch.domain.model.SearchRequest;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Repositories cache in two tiers: the on-heap Caffeine cache in front of the on-disk DiskCacheStore.
+ *
+ * Results are written to both tiers, to disk in the background. A lookup that misses the heap is answered from
+ * disk (on a boundedElastic thread when made with retrieve, reading the file blocks), and the results found there
+ * are loaded back onto the heap, so after a restart the cache warms up from disk as searches come in rather than
+ * from GitHub. Eviction and expiry on the heap don't touch the disk, which keeps results until they expire there
+ * as well.
+ */
+public class TwoTierCache extends TieredCache {
+
+    private final CaffeineCache heap;
+    private final DiskCacheStore disk;
+
+    public TwoTierCache(CaffeineCache heap, DiskCacheStore disk) {
+        this.heap = heap;
+        this.disk = disk;
+    }
+
+    @Override
+    public CaffeineCache heap() {
+        return heap;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper cached = heap.get(key);
+        if (cached != null || !(key instanceof SearchRequest request)) {
+            return cached;
+        }
+
+        CachedSearchResults stored = load(request);
+        return stored != null ? new SimpleValueWrapper(stored) : null;
+    }
+
+    @Override
+    public CompletableFuture<?> retrieve(Object key) {
+        ValueWrapper cached = heap.get(key);
+        if (cached != null || !(key instanceof SearchRequest request)) {
+            return CompletableFuture.completedFuture(cached != null ? cached.get() : null);
+        }
+
+        // reading the file blocks, so it is done off the calling thread
+        return Mono.fromCallable(() -> load(request))
+            .subscribeOn(Schedulers.boundedElastic())
+            .toFuture();
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        heap.put(key, value);
+        store(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        heap.evict(key);
+        if (key instanceof SearchRequest request) {
+            disk.evict(request);
+        }
+    }
+
+    @Override
+    public void clear() {
+        heap.clear();
+        disk.clear();
+    }
+
+    private CachedSearchResults load(SearchRequest request) {
+        CachedSearchResults stored = disk.get(request);
+        if (stored != null) {
+            heap.put(request, stored);
+        }
+        return stored;
+    }
+
+    private void store(Object key, Object value) {
+        if (key instanceof SearchRequest request && value instanceof CachedSearchResults results) {
+            disk.put(request, results);
+        }
+    }
+}
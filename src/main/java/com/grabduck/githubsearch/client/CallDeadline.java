@@ -0,0 +1,54 @@
+package com.grabduck.githubsearch.client;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.grabduck.githubsearch.domain.model.Deadline;
+
+import reactor.util.context.ContextView;
+
+/**
+ * The deadline a call to GitHub runs under. A call made for a single caller runs under the caller's own
+ * {@link Deadline}. A call shared by identical searches (see {@link SingleFlight}) runs under the latest deadline
+ * of the callers waiting for it, pushed back as callers with later deadlines join it, and under none once a caller
+ * without a deadline joins it. It travels in the subscriber context of the shared call, keyed by this class.
+ */
+final class CallDeadline {
+
+    private final AtomicReference<Optional<Deadline>> latest;
+
+    private CallDeadline(Optional<Deadline> deadline) {
+        this.latest = new AtomicReference<>(deadline);
+    }
+
+    /**
+     * The deadline of a call made for a caller with the given deadline, pushed back by the callers joining it.
+     */
+    static CallDeadline of(Optional<Deadline> deadline) {
+        return new CallDeadline(deadline);
+    }
+
+    /**
+     * The deadline a call subscribed with the given context runs under.
+     */
+    static CallDeadline from(ContextView context) {
+        return context.<CallDeadline>getOrEmpty(CallDeadline.class)
+                .orElseGet(() -> of(context.getOrEmpty(Deadline.class)));
+    }
+
+    /**
+     * Pushes the deadline back to that of a caller joining the call, if it is later.
+     */
+    void extend(Optional<Deadline> deadline) {
+        latest.accumulateAndGet(deadline, (current, joining) ->
+                current.isEmpty() || joining.isEmpty() ? Optional.empty()
+                        : joining.get().at().isAfter(current.get().at()) ? joining : current);
+    }
+
+    /**
+     * The deadline as it is now, empty if the call is not bounded.
+     */
+    Optional<Deadline> get() {
+        return latest.get();
+    }
+}
@@ -0,0 +1,89 @@
+package com.grabduck.githubsearch.client;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+
+import com.grabduck.githubsearch.client.exceptions.GitHubApiUnavailableException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Bounds the number of calls to GitHub under way at the same time, waiting for a rate limit permit, for GitHub's
+ * response or still reading its body, so that a slow GitHub cannot pile up an unbounded number of pending calls
+ * (and the memory and connections they hold). A call holds its permit until the body of the response has been
+ * read or released. A call over the limit is rejected right away with {@link GitHubApiUnavailableException}
+ * without being sent.
+ *
+ * Publishes "github.bulkhead.calls" gauge of the calls under way and "github.bulkhead.rejected" counter.
+ */
+@Component
+public class GitHubBulkhead implements ExchangeFilterFunction {
+
+    private final int maxConcurrentCalls;
+    private final Semaphore permits;
+    private final Counter rejectedCalls;
+
+    public GitHubBulkhead(
+            @Value("${github.api.bulkhead.max-concurrent-calls}") int maxConcurrentCalls,
+            MeterRegistry meterRegistry
+    ) {
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.permits = new Semaphore(Math.max(maxConcurrentCalls, 0));
+
+        Gauge.builder("github.bulkhead.calls", this, GitHubBulkhead::callsUnderWay)
+                .description("Calls to GitHub under way, waiting for a rate limit permit, for the response or reading it")
+                .register(meterRegistry);
+        rejectedCalls = Counter.builder("github.bulkhead.rejected")
+                .description("Calls to GitHub rejected because too many were already under way")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        // -1 means no limit
+        if (maxConcurrentCalls < 0) {
+            return next.exchange(request);
+        }
+
+        return Mono.defer(() -> {
+            if (!permits.tryAcquire()) {
+                rejectedCalls.increment();
+                return Mono.error(new GitHubApiUnavailableException(
+                        maxConcurrentCalls + " calls to GitHub are already under way, call was not sent."));
+            }
+            AtomicBoolean released = new AtomicBoolean();
+            Runnable release = () -> {
+                if (released.compareAndSet(false, true)) {
+                    permits.release();
+                }
+            };
+            AtomicBoolean responded = new AtomicBoolean();
+            // the call is under way until GitHub's body has been read (or dropped), not only its headers
+            return next.exchange(request)
+                    .map(response -> {
+                        responded.set(true);
+                        return response.mutate().body(body -> body.doFinally(signal -> release.run())).build();
+                    })
+                    .doFinally(signal -> {
+                        if (!responded.get()) {
+                            release.run();
+                        }
+                    });
+        });
+    }
+
+    int callsUnderWay() {
+        return maxConcurrentCalls < 0 ? 0 : maxConcurrentCalls - permits.availablePermits();
+    }
+}
@@ -0,0 +1,264 @@
+package com.grabduck.githubsearch.client;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+
+import com.grabduck.githubsearch.client.exceptions.GitHubApiRateLimitException;
+import com.grabduck.githubsearch.client.exceptions.GitHubApiUnavailableException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Stops calling GitHub while it keeps failing, so that callers fail fast (and are served cached results where
+ * there are any) instead of each of them waiting for a series of retries that only add load on GitHub.
+ *
+ * Closed, calls go through and their outcomes are kept for the last sliding-window-size calls. Once at least
+ * minimum-calls are kept and failure-rate-threshold of them failed, the circuit opens: every call, retries
+ * included, is rejected with {@link GitHubApiUnavailableException} without being sent. After open-duration the
+ * circuit is half-open and lets half-open-calls probe calls through: if they all succeed it closes, the first
+ * one that fails opens it again. Server errors, timeouts and connection failures count as failures; rejections
+ * for the rate limit don't, they say nothing about GitHub's health.
+ *
+ * Publishes "github.circuitbreaker.state" gauge tagged with state (1 for the current one),
+ * "github.circuitbreaker.transitions" counter tagged with the state entered and "github.circuitbreaker.calls"
+ * counter tagged with outcome "success", "failure" or "rejected". The state is also shown in actuator's health,
+ * see {@link GitHubCircuitBreakerHealthIndicator}.
+ */
+@Slf4j
+@Component
+public class GitHubCircuitBreaker implements ExchangeFilterFunction {
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final Lock lock = new ReentrantLock();
+    private final boolean enabled;
+    private final Clock clock;
+    private final double failureRateThreshold;
+    private final int minimumCalls;
+    private final Duration openDuration;
+    private final int halfOpenCalls;
+
+    // outcomes of the last calls while closed, true for failures, as a ring
+    private final boolean[] window;
+    private int windowPosition;
+    private int windowCalls;
+    private int windowFailures;
+
+    private State state = State.CLOSED;
+    // changes with every transition, so that calls started before it don't count after it
+    private long generation;
+    private Instant openedAt = Instant.EPOCH;
+    private int probesStarted;
+    private int probesSucceeded;
+
+    private final Counter successfulCalls;
+    private final Counter failedCalls;
+    private final Counter rejectedCalls;
+    private final Map<State, Counter> transitions = new EnumMap<>(State.class);
+
+    public GitHubCircuitBreaker(
+            @Value("${github.api.circuit-breaker.enabled}") boolean enabled,
+            @Value("${github.api.circuit-breaker.failure-rate-threshold}") double failureRateThreshold,
+            @Value("${github.api.circuit-breaker.sliding-window-size}") int slidingWindowSize,
+            @Value("${github.api.circuit-breaker.minimum-calls}") int minimumCalls,
+            @Value("${github.api.circuit-breaker.open-duration}") Duration openDuration,
+            @Value("${github.api.circuit-breaker.half-open-calls}") int halfOpenCalls,
+            Clock clock,
+            MeterRegistry meterRegistry
+    ) {
+        this.enabled = enabled;
+        this.clock = clock;
+        this.failureRateThreshold = failureRateThreshold;
+        this.window = new boolean[slidingWindowSize];
+        this.minimumCalls = Math.min(minimumCalls, slidingWindowSize);
+        this.openDuration = openDuration;
+        this.halfOpenCalls = halfOpenCalls;
+
+        successfulCalls = callsCounter("success", meterRegistry);
+        failedCalls = callsCounter("failure", meterRegistry);
+        rejectedCalls = callsCounter("rejected", meterRegistry);
+        for (State gaugedState : State.values()) {
+            Gauge.builder("github.circuitbreaker.state", this, breaker -> breaker.state() == gaugedState ? 1 : 0)
+                    .description("State of the circuit breaker in front of GitHub, 1 for the current state")
+                    .tag("state", tagValue(gaugedState))
+                    .register(meterRegistry);
+            transitions.put(gaugedState, Counter.builder("github.circuitbreaker.transitions")
+                    .description("Transitions of the circuit breaker in front of GitHub grouped by the state entered")
+                    .tag("state", tagValue(gaugedState))
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        if (!enabled) {
+            return next.exchange(request);
+        }
+
+        return Mono.defer(() -> {
+            long permitted = tryAcquirePermission();
+            if (permitted < 0) {
+                rejectedCalls.increment();
+                return Mono.error(new GitHubApiUnavailableException("GitHub keeps failing, call was not sent."));
+            }
+
+            AtomicBoolean recorded = new AtomicBoolean();
+            return next.exchange(request)
+                    .doOnNext(response -> {
+                        if (recorded.compareAndSet(false, true)) {
+                            record(permitted, !response.statusCode().is5xxServerError());
+                        }
+                    })
+                    .doOnError(e -> {
+                        if (recorded.compareAndSet(false, true)) {
+                            if (e instanceof GitHubApiRateLimitException || e instanceof GitHubApiUnavailableException) {
+                                release(permitted);
+                            } else {
+                                record(permitted, false);
+                            }
+                        }
+                    })
+                    .doOnCancel(() -> {
+                        if (recorded.compareAndSet(false, true)) {
+                            release(permitted);
+                        }
+                    });
+        });
+    }
+
+    State state() {
+        lock.lock();
+        try {
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Lets a call through unless the circuit is open.
+     *
+     * @return The generation the call counts in, or -1 if it must not be sent
+     */
+    private long tryAcquirePermission() {
+        lock.lock();
+        try {
+            if (state == State.OPEN && !clock.instant().isBefore(openedAt.plus(openDuration))) {
+                transitionTo(State.HALF_OPEN);
+            }
+            return switch (state) {
+                case CLOSED -> generation;
+                case OPEN -> -1;
+                case HALF_OPEN -> probesStarted < halfOpenCalls ? countProbe() : -1;
+            };
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long countProbe() {
+        probesStarted++;
+        return generation;
+    }
+
+    private void record(long permitted, boolean success) {
+        (success ? successfulCalls : failedCalls).increment();
+        lock.lock();
+        try {
+            if (permitted != generation) {
+                return;
+            }
+            switch (state) {
+                case CLOSED -> {
+                    addToWindow(!success);
+                    if (windowCalls >= minimumCalls && windowFailures >= failureRateThreshold * windowCalls) {
+                        log.warn("{} of the last {} calls to GitHub failed, failing calls fast for {}",
+                                windowFailures, windowCalls, openDuration);
+                        transitionTo(State.OPEN);
+                    }
+                }
+                case HALF_OPEN -> {
+                    if (!success) {
+                        log.warn("Probe call to GitHub failed, failing calls fast for another {}", openDuration);
+                        transitionTo(State.OPEN);
+                    } else if (++probesSucceeded >= halfOpenCalls) {
+                        log.info("Probe calls to GitHub succeeded, calls go through again");
+                        transitionTo(State.CLOSED);
+                    }
+                }
+                case OPEN -> {
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gives back the permission of a call whose outcome says nothing about GitHub's health.
+     */
+    private void release(long permitted) {
+        lock.lock();
+        try {
+            if (permitted == generation && state == State.HALF_OPEN) {
+                probesStarted--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void addToWindow(boolean failure) {
+        if (windowCalls == window.length) {
+            windowFailures -= window[windowPosition] ? 1 : 0;
+        } else {
+            windowCalls++;
+        }
+        window[windowPosition] = failure;
+        windowFailures += failure ? 1 : 0;
+        windowPosition = (windowPosition + 1) % window.length;
+    }
+
+    private void transitionTo(State newState) {
+        state = newState;
+        generation++;
+        openedAt = clock.instant();
+        probesStarted = 0;
+        probesSucceeded = 0;
+        windowPosition = 0;
+        windowCalls = 0;
+        windowFailures = 0;
+        transitions.get(newState).increment();
+    }
+
+    static String tagValue(State state) {
+        return state.name().toLowerCase(Locale.ROOT);
+    }
+
+    private static Counter callsCounter(String outcome, MeterRegistry meterRegistry) {
+        return Counter.builder("github.circuitbreaker.calls")
+                .description("Calls to GitHub through the circuit breaker grouped by whether they succeeded, "
+                        + "failed or were rejected without being sent")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,36 @@
+package com.grabduck.githubsearch.client;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.stereotype.Component;
+
+/**
+ * Shows the state of the {@link GitHubCircuitBreaker} in front of GitHub as the "gitHubCircuitBreaker" component
+ * of actuator's health: UP while closed, CIRCUIT_OPEN or CIRCUIT_HALF_OPEN otherwise. The last two are left out of
+ * the aggregate health, a failing GitHub doesn't make the node unhealthy, it still serves cached results.
+ */
+@Component
+public class GitHubCircuitBreakerHealthIndicator implements HealthIndicator {
+
+    static final Status CIRCUIT_OPEN = new Status("CIRCUIT_OPEN", "GitHub keeps failing, calls are failed fast");
+    static final Status CIRCUIT_HALF_OPEN =
+            new Status("CIRCUIT_HALF_OPEN", "GitHub failed, probe calls check whether it has recovered");
+
+    private final GitHubCircuitBreaker circuitBreaker;
+
+    public GitHubCircuitBreakerHealthIndicator(GitHubCircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    @Override
+    public Health health() {
+        GitHubCircuitBreaker.State state = circuitBreaker.state();
+        Status status = switch (state) {
+            case CLOSED -> Status.UP;
+            case OPEN -> CIRCUIT_OPEN;
+            case HALF_OPEN -> CIRCUIT_HALF_OPEN;
+        };
+        return Health.status(status).withDetail("state", GitHubCircuitBreaker.tagValue(state)).build();
+    }
+}
@@ -1,9 +1,13 @@
 package com.grabduck.githubsearch.client;
 
+import java.time.Instant;
 import java.time.LocalDate;
 
+import reactor.core.publisher.Mono;
+
 /**
  * Client interface for interacting with GitHub API to search repositories.
+ * The client is non-blocking, nothing is sent to GitHub until the returned Mono is subscribed.
  */
 public interface GitHubClient {
     
@@ -11,15 +15,19 @@ public interface GitHubClient {
      * Search for GitHub repositories.
      * 
      * @param createdSince Optional filter for repositories created on or after this date
+     * @param createdFrom Optional filter for repositories created at or after this time, takes precedence over createdSince
+     * @param createdTo Optional filter for repositories created at or before this time
      * @param language Optional filter for repository language
      * @param sort How to sort the results ("stars", "forks", or "updated")
      * @param direction Direction to sort ("asc" or "desc")
      * @param page Page number for pagination (zero based)
      * @param size Number of results per page
-     * @return GitHub search response containing repositories that match criteria
+     * @return Mono emitting GitHub search response containing repositories that match criteria
      */
-    GitHubSearchResponseDto searchRepositories(
+    Mono<GitHubSearchResponseDto> searchRepositories(
         LocalDate createdSince, 
+        Instant createdFrom,
+        Instant createdTo,
         String language,
         String sort,
         String direction,
@@ -0,0 +1,111 @@
+package com.grabduck.githubsearch.client;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Keeps the ETag and the parsed body of the latest response to each search sent to GitHub, so that the next time
+ * the search is sent (typically to refresh a stale cached result) it is revalidated with If-None-Match. When the
+ * results have not changed GitHub answers 304 Not Modified without a body, which does not count against the
+ * rate limit, and the kept body is used again.
+ *
+ * Bounded by the total number of repositories held in the kept bodies (maximum-weight), entries not used for
+ * expire-after-access are dropped.
+ *
+ * Publishes "github.etag.calls" counter tagged with outcome "unconditional" for searches sent without an ETag,
+ * "revalidated" for those answered 304 and "changed" for those answered with new results, and "github.etag.entries"
+ * gauge.
+ */
+@Component
+public class GitHubETagCache {
+
+    /**
+     * The latest response to a search.
+     *
+     * @param etag The ETag GitHub sent with it
+     * @param response Its parsed body
+     */
+    public record Entry(String etag, GitHubSearchResponseDto response) {
+    }
+
+    private final boolean enabled;
+    private final Cache<String, Entry> entries;
+
+    private final Counter unconditionalCalls;
+    private final Counter revalidatedCalls;
+    private final Counter changedCalls;
+
+    public GitHubETagCache(
+            @Value("${github.api.etag.enabled}") boolean enabled,
+            @Value("${github.api.etag.maximum-weight}") long maximumWeight,
+            @Value("${github.api.etag.expire-after-access}") Duration expireAfterAccess,
+            MeterRegistry meterRegistry
+    ) {
+        this.enabled = enabled;
+        this.entries = Caffeine.newBuilder()
+                .maximumWeight(maximumWeight)
+                .<String, Entry>weigher((key, entry) -> entry.response().items().size() + 1)
+                .expireAfterAccess(expireAfterAccess)
+                .build();
+
+        unconditionalCalls = callsCounter("unconditional", meterRegistry);
+        revalidatedCalls = callsCounter("revalidated", meterRegistry);
+        changedCalls = callsCounter("changed", meterRegistry);
+        Gauge.builder("github.etag.entries", entries, Cache::estimatedSize)
+                .description("Searches whose latest response is kept to be revalidated")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The latest response to a search, to revalidate it with.
+     */
+    public Optional<Entry> lookup(String key) {
+        return enabled ? Optional.ofNullable(entries.getIfPresent(key)) : Optional.empty();
+    }
+
+    /**
+     * Takes a 304 Not Modified answer to a search revalidated with the given entry.
+     *
+     * @return The kept body of the response
+     */
+    public GitHubSearchResponseDto notModified(Entry entry) {
+        revalidatedCalls.increment();
+        return entry.response();
+    }
+
+    /**
+     * Keeps a new response to a search.
+     *
+     * @param revalidated Whether the search was sent with an ETag
+     * @param etag The ETag of the response, or null if GitHub sent none
+     */
+    public void modified(String key, boolean revalidated, String etag, GitHubSearchResponseDto response) {
+        (revalidated ? changedCalls : unconditionalCalls).increment();
+        if (!enabled) {
+            return;
+        }
+        if (etag == null) {
+            entries.invalidate(key);
+        } else {
+            entries.put(key, new Entry(etag, response));
+        }
+    }
+
+    private static Counter callsCounter(String outcome, MeterRegistry meterRegistry) {
+        return Counter.builder("github.etag.calls")
+                .description("Searches sent to GitHub grouped by whether they went without an ETag, were answered "
+                        + "304 Not Modified or with new results")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,155 @@
+package com.grabduck.githubsearch.client;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Cuts the tail latency of calls to GitHub by hedging them: a call that has not been answered after the
+ * latency-percentile of the latest calls' latencies (but no sooner than min-delay) is sent a second time, the
+ * first response of the two is used and the other call is cancelled.
+ *
+ * A hedged call is only sent when a rate limit permit is available right away and the {@link GitHubRetryBudget}
+ * grants it, so hedging never takes more than a share of the calls on top of them. A hedged call that fails is
+ * ignored, the original call still answers. No call is hedged until enough latencies have been seen.
+ *
+ * Publishes "github.hedging.calls" counter tagged with outcome "hedged" for hedged calls sent, "won" for those
+ * answered before the original call and "denied" for those not sent for lack of budget.
+ */
+@Component
+public class GitHubHedging implements ExchangeFilterFunction {
+
+    // latencies of the latest calls the percentile is taken over
+    private static final int LATENCY_SAMPLES = 200;
+    // no call is hedged until this many latencies have been seen
+    private static final int MIN_LATENCY_SAMPLES = 20;
+
+    private final boolean enabled;
+    private final double latencyPercentile;
+    private final Duration minDelay;
+    private final GitHubTokenPool tokenPool;
+    private final GitHubRetryBudget retryBudget;
+
+    private final Lock lock = new ReentrantLock();
+    private final long[] latencies = new long[LATENCY_SAMPLES];
+    private int latencyPosition;
+    private int latencyCount;
+
+    private final Counter hedgedCalls;
+    private final Counter wonCalls;
+    private final Counter deniedCalls;
+
+    public GitHubHedging(
+            @Value("${github.api.hedging.enabled}") boolean enabled,
+            @Value("${github.api.hedging.latency-percentile}") double latencyPercentile,
+            @Value("${github.api.hedging.min-delay}") Duration minDelay,
+            GitHubTokenPool tokenPool,
+            GitHubRetryBudget retryBudget,
+            MeterRegistry meterRegistry
+    ) {
+        this.enabled = enabled;
+        this.latencyPercentile = latencyPercentile;
+        this.minDelay = minDelay;
+        this.tokenPool = tokenPool;
+        this.retryBudget = retryBudget;
+
+        hedgedCalls = callsCounter("hedged", meterRegistry);
+        wonCalls = callsCounter("won", meterRegistry);
+        deniedCalls = callsCounter("denied", meterRegistry);
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        if (!enabled) {
+            return next.exchange(request);
+        }
+
+        return Mono.defer(() -> {
+            Optional<Duration> delay = hedgeDelay();
+            if (delay.isEmpty()) {
+                return timedExchange(request, next);
+            }
+
+            Mono<ClientResponse> hedge = Mono.delay(delay.get())
+                    .filter(tick -> mayHedge())
+                    .flatMap(tick -> {
+                        hedgedCalls.increment();
+                        return timedExchange(request, next).doOnNext(response -> wonCalls.increment());
+                    })
+                    // a hedged call that fails or is not sent stays silent, the original call answers
+                    .onErrorResume(e -> Mono.never())
+                    .switchIfEmpty(Mono.never());
+
+            // the call that answers first wins, the other one is cancelled
+            return Mono.firstWithSignal(timedExchange(request, next), hedge);
+        });
+    }
+
+    /**
+     * How long a call waits for its response before it is hedged, or empty while too few latencies have been seen.
+     */
+    Optional<Duration> hedgeDelay() {
+        long[] sorted;
+        lock.lock();
+        try {
+            if (latencyCount < MIN_LATENCY_SAMPLES) {
+                return Optional.empty();
+            }
+            sorted = Arrays.copyOf(latencies, latencyCount);
+        } finally {
+            lock.unlock();
+        }
+
+        Arrays.sort(sorted);
+        int index = Math.max((int) Math.ceil(latencyPercentile * sorted.length) - 1, 0);
+        Duration percentile = Duration.ofNanos(sorted[index]);
+        return Optional.of(percentile.compareTo(minDelay) < 0 ? minDelay : percentile);
+    }
+
+    private Mono<ClientResponse> timedExchange(ClientRequest request, ExchangeFunction next) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return next.exchange(request).doOnNext(response -> recordLatency(System.nanoTime() - start));
+        });
+    }
+
+    private boolean mayHedge() {
+        if (tokenPool.leastUsed().budget().availableTokens() < 1 || !retryBudget.tryWithdraw()) {
+            deniedCalls.increment();
+            return false;
+        }
+        return true;
+    }
+
+    private void recordLatency(long nanos) {
+        lock.lock();
+        try {
+            latencies[latencyPosition] = nanos;
+            latencyPosition = (latencyPosition + 1) % latencies.length;
+            latencyCount = Math.min(latencyCount + 1, latencies.length);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static Counter callsCounter(String outcome, MeterRegistry meterRegistry) {
+        return Counter.builder("github.hedging.calls")
+                .description("Hedged calls to GitHub grouped by whether they were sent, answered first or denied")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
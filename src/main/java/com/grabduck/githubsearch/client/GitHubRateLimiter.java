@@ -0,0 +1,115 @@
+package com.grabduck.githubsearch.client;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+
+import com.grabduck.githubsearch.client.GitHubTokenPool.PooledToken;
+import com.grabduck.githubsearch.client.GitHubTokenPool.Reservation;
+import com.grabduck.githubsearch.client.exceptions.GitHubApiRateLimitException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Governs calls to the GitHub API so that they stay within the rate limit instead of discovering it
+ * from rejected calls.
+ *
+ * Every call has to reserve a permit from the {@link GitHubTokenPool} first: it goes right away when there is one,
+ * waits (without holding a thread) when one frees up within the configured maximum wait, and is rejected with
+ * {@link GitHubApiRateLimitException} without ever reaching GitHub otherwise. A call cancelled while it waits gives
+ * its permit back. The call is authenticated with the token the permit was reserved for, whose budget is then
+ * updated from the rate limit headers of the response. A call answered with 304 Not Modified (a revalidation with
+ * the ETag of the results already held) gives its permit back too, GitHub doesn't count it.
+ *
+ * Publishes "github.ratelimit.calls" counter tagged with outcome "immediate", "delayed" or "rejected".
+ */
+@Slf4j
+@Component
+public class GitHubRateLimiter implements ExchangeFilterFunction {
+
+    private final boolean enabled;
+    private final Duration maxWait;
+    private final GitHubTokenPool tokenPool;
+    private final Counter immediateCalls;
+    private final Counter delayedCalls;
+    private final Counter rejectedCalls;
+
+    public GitHubRateLimiter(
+            @Value("${github.api.rate-limit.enabled}") boolean enabled,
+            @Value("${github.api.rate-limit.max-wait}") Duration maxWait,
+            GitHubTokenPool tokenPool,
+            MeterRegistry meterRegistry
+    ) {
+        this.enabled = enabled;
+        this.maxWait = maxWait;
+        this.tokenPool = tokenPool;
+
+        immediateCalls = callsCounter("immediate", meterRegistry);
+        delayedCalls = callsCounter("delayed", meterRegistry);
+        rejectedCalls = callsCounter("rejected", meterRegistry);
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        if (!enabled) {
+            return Mono.defer(() -> exchange(tokenPool.leastUsed(), request, next));
+        }
+
+        return Mono.defer(() -> {
+            Optional<Reservation> reservation = tokenPool.reserve(maxWait);
+
+            if (reservation.isEmpty()) {
+                rejectedCalls.increment();
+                log.warn("GitHub rate limit budget exhausted ({}), rejecting call",
+                        tokenPool.isExhausted() ? "all tokens wait for their reset" : "calls are queued beyond max wait");
+                return Mono.error(new GitHubApiRateLimitException("Rate limit budget exhausted, call was not sent."));
+            }
+
+            Mono<ClientResponse> exchange = exchange(reservation.get().token(), request, next);
+            Duration wait = reservation.get().delay();
+            if (wait.isZero()) {
+                immediateCalls.increment();
+                return exchange;
+            }
+
+            delayedCalls.increment();
+            return Mono.delay(wait)
+                    // a call cancelled while it waits (e.g. its deadline passed) leaves its permit to the next ones
+                    .doOnCancel(reservation.get()::release)
+                    .then(exchange);
+        });
+    }
+
+    private static Mono<ClientResponse> exchange(PooledToken token, ClientRequest request, ExchangeFunction next) {
+        ClientRequest authenticated = token.isAnonymous()
+                ? request
+                : ClientRequest.from(request).headers(headers -> headers.setBearerAuth(token.value())).build();
+
+        return next.exchange(authenticated)
+                .doOnNext(response -> {
+                    // GitHub doesn't count a revalidation answered with 304 Not Modified against the rate limit
+                    if (response.statusCode().value() == HttpStatus.NOT_MODIFIED.value()) {
+                        token.budget().release();
+                    }
+                    token.budget().update(response.headers().asHttpHeaders());
+                });
+    }
+
+    private static Counter callsCounter(String outcome, MeterRegistry meterRegistry) {
+        return Counter.builder("github.ratelimit.calls")
+                .description("Calls to GitHub grouped by whether they went right away, waited for a permit or were rejected")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
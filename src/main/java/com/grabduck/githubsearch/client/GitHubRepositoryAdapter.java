@@ -1,14 +1,20 @@
 package com.grabduck.githubsearch.client;
 
 import com.grabduck.githubsearch.domain.exceptions.RepositorySearchException;
+import com.grabduck.githubsearch.domain.model.Deadline;
 import com.grabduck.githubsearch.domain.model.SearchRequest;
 import com.grabduck.githubsearch.domain.model.SearchResults;
 import com.grabduck.githubsearch.domain.service.RepositoryProvider;
 import com.grabduck.githubsearch.client.exceptions.*;
 
+import java.time.Clock;
+import java.util.Optional;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
 import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
 
 import org.springframework.stereotype.Component;
 
@@ -20,28 +26,60 @@ import org.springframework.stereotype.Component;
  * (maybe - because we use Spring WebClient in GitHubClient and that has built-in retrying out of the box already), 
  * hiding low-level technical details such as githib specific exceptions from the domain layer etc, while 
  * low-level GitHubClient is concentrating more on direct communication with github API and handling low-level details.
+ * 
+ * Identical searches running at the same time (e.g. a popular query that just missed the cache) are coalesced,
+ * so they share a single GitHub call instead of each of them spending the rate limit. Each caller waits for the
+ * shared call until its own {@link Deadline} and then gives up alone. The shared call runs under the latest deadline
+ * of the callers still waiting for it, and is cancelled, retries and all, once they have all given up.
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class GitHubRepositoryAdapter implements RepositoryProvider {
     private final GitHubClient githubClient;
+    private final SingleFlight<SearchRequest, SearchResults> inFlightSearches;
+    private final Clock clock;
+
+    public GitHubRepositoryAdapter(GitHubClient githubClient, MeterRegistry meterRegistry, Clock clock) {
+        this.githubClient = githubClient;
+        this.inFlightSearches = new SingleFlight<>("github.search", meterRegistry);
+        this.clock = clock;
+    }
 
     @Override
-    public SearchResults findRepositories(@NonNull SearchRequest request) {
-        try {
-            GitHubSearchResponseDto response = githubClient.searchRepositories(
+    public Mono<SearchResults> findRepositories(@NonNull SearchRequest request) {
+        return Mono.deferContextual(context -> {
+            Optional<Deadline> deadline = context.getOrEmpty(Deadline.class);
+            if (deadline.isPresent() && deadline.get().hasPassed(clock)) {
+                return Mono.error(translateException(
+                    new GitHubApiTimeoutException("Deadline of the request passed, call was not sent.")));
+            }
+
+            Mono<SearchResults> joined = inFlightSearches.execute(request, () -> fetchRepositories(request));
+            // giving up cancels only this caller's wait, the shared call goes on for the others if there are any
+            return deadline
+                .map(d -> joined.timeout(d.remaining(clock), Mono.error(() -> translateException(
+                    new GitHubApiTimeoutException("Deadline of the request passed, call was abandoned.")))))
+                .orElse(joined);
+        });
+    }
+
+    private Mono<SearchResults> fetchRepositories(SearchRequest request) {
+        return Mono.defer(() -> githubClient.searchRepositories(
                 request.createdSince(),
+                request.createdWithin() != null ? request.createdWithin().from() : null,
+                request.createdWithin() != null ? request.createdWithin().to() : null,
                 request.language(),
                 request.sort().getValue(),
                 request.direction().getValue(),
                 request.page() - 1,
                 request.size()
-            );
-            
-            return new SearchResults(response.totalCount(), GitHubSearchResponseDtoMapper.toModel(response.items()));
+            ))
+            .map(response -> new SearchResults(response.totalCount(), GitHubSearchResponseDtoMapper.toModel(response.items())))
+            .onErrorMap(e -> !(e instanceof RepositorySearchException), this::translateException);
+    }
 
-        } catch (GitHubApiException e) {
+    private RepositorySearchException translateException(Throwable e) {
+        if (e instanceof GitHubApiException) {
             // Translate all low level GitHub API exceptions to a generic domain exception with an appropriate message
             StringBuilder messageBuilder = new StringBuilder("Repository search failed: ");
             
@@ -53,6 +91,14 @@ public class GitHubRepositoryAdapter implements RepositoryProvider {
                 messageBuilder.append("Invalid search criteria.");
                 log.warn("GitHub API client error: {}", e.getMessage(), e);
 
+            } else if (e instanceof GitHubApiUnavailableException) {
+                messageBuilder.append("External service temporarily unavailable.");
+                log.warn("GitHub API call not sent: {}", e.getMessage());
+
+            } else if (e instanceof GitHubApiTimeoutException) {
+                messageBuilder.append("External service did not answer in time.");
+                log.warn("GitHub API call abandoned: {}", e.getMessage());
+
             } else if (e instanceof GitHubApiServerException) {
                 messageBuilder.append("External service temporarily unavailable.");
                 log.error("GitHub API server error", e);
@@ -62,11 +108,10 @@ public class GitHubRepositoryAdapter implements RepositoryProvider {
                 log.error("Unexpected GitHub API error", e);
             }
             
-            throw new RepositorySearchException(messageBuilder.toString(), e);
-
-        } catch (Exception e) {
-            log.error("Unexpected error during repository search", e);
-            throw new RepositorySearchException("An unexpected error occurred during repository search", e);
+            return new RepositorySearchException(messageBuilder.toString(), e);
         }
+
+        log.error("Unexpected error during repository search", e);
+        return new RepositorySearchException("An unexpected error occurred during repository search", e);
     }
 }
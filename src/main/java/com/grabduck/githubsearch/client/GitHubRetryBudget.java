@@ -0,0 +1,101 @@
+package com.grabduck.githubsearch.client;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Caps the extra calls made to GitHub on top of the calls asked for, retries and hedged calls alike, to a share
+ * of the calls asked for, so that a failing or slow GitHub does not get several times the usual load.
+ *
+ * Every call asked for deposits ratio of a token, every extra call withdraws a whole one and is not made when
+ * there is none left. Up to burst tokens are kept, so that a few extra calls can be made right after a quiet
+ * period; beyond that, at most ratio extra calls are made per call asked for.
+ *
+ * Publishes "github.retrybudget.tokens" gauge and "github.retrybudget.withdrawals" counter tagged with result
+ * "granted" or "denied".
+ */
+@Component
+public class GitHubRetryBudget {
+
+    // tokens are counted in thousandths, so that deposits of a fraction of a token add up exactly
+    private static final long TOKEN = 1000;
+
+    private final Lock lock = new ReentrantLock();
+    private final long deposit;
+    private final long burst;
+    private long tokens;
+
+    private final Counter grantedWithdrawals;
+    private final Counter deniedWithdrawals;
+
+    public GitHubRetryBudget(
+            @Value("${github.api.retry.budget-ratio}") double ratio,
+            @Value("${github.api.retry.budget-burst}") int burst,
+            MeterRegistry meterRegistry
+    ) {
+        this.deposit = Math.round(ratio * TOKEN);
+        this.burst = burst * TOKEN;
+        this.tokens = this.burst;
+
+        Gauge.builder("github.retrybudget.tokens", this, GitHubRetryBudget::tokens)
+                .description("Retries and hedged calls to GitHub that can be made right now")
+                .register(meterRegistry);
+        grantedWithdrawals = withdrawalsCounter("granted", meterRegistry);
+        deniedWithdrawals = withdrawalsCounter("denied", meterRegistry);
+    }
+
+    /**
+     * Counts a call asked for.
+     */
+    public void deposit() {
+        lock.lock();
+        try {
+            tokens = Math.min(burst, tokens + deposit);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes a token for an extra call.
+     *
+     * @return Whether the extra call can be made
+     */
+    public boolean tryWithdraw() {
+        lock.lock();
+        try {
+            if (tokens < TOKEN) {
+                deniedWithdrawals.increment();
+                return false;
+            }
+            tokens -= TOKEN;
+            grantedWithdrawals.increment();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    double tokens() {
+        lock.lock();
+        try {
+            return (double) tokens / TOKEN;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static Counter withdrawalsCounter(String result, MeterRegistry meterRegistry) {
+        return Counter.builder("github.retrybudget.withdrawals")
+                .description("Retries and hedged calls to GitHub grouped by whether the budget let them be made")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,202 @@
+package com.grabduck.githubsearch.client;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteBufferFeeder;
+
+/**
+ * Incremental parser of a GitHub search response.
+ *
+ * The response is tokenized chunk by chunk as it arrives, so it is never held in memory as a whole
+ * (a 100-item page is several hundred KB, almost all of it owner and license objects, topics and API URLs).
+ * Only the fields of GitHubRepositoryDto are materialized, every other value is skipped token by token.
+ *
+ * Not thread-safe, a parser instance serves a single response, fed chunks in order.
+ */
+public class GitHubSearchResponseParser {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    // nesting levels of the values we are interested in: the response object and the objects in its items array
+    private static final int RESPONSE_DEPTH = 1;
+    private static final int ITEMS_DEPTH = 2;
+    private static final int ITEM_DEPTH = 3;
+
+    private final JsonParser parser;
+    private final ByteBufferFeeder feeder;
+
+    private int depth;
+    private String fieldName;
+    private boolean inItems;
+
+    private int totalCount;
+    private boolean incompleteResults;
+    private final List<GitHubRepositoryDto> items = new ArrayList<>();
+
+    private ItemFields item;
+
+    public GitHubSearchResponseParser() {
+        try {
+            parser = JSON_FACTORY.createNonBlockingByteBufferParser();
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot create JSON parser", e);
+        }
+        feeder = (ByteBufferFeeder) parser.getNonBlockingInputFeeder();
+    }
+
+    /**
+     * Parses the next chunk of the response and releases it.
+     */
+    public void feed(DataBuffer chunk) {
+        try (DataBuffer.ByteBufferIterator buffers = chunk.readableByteBuffers()) {
+            while (buffers.hasNext()) {
+                feed(buffers.next());
+            }
+        } finally {
+            DataBufferUtils.release(chunk);
+        }
+    }
+
+    /**
+     * Parses the next chunk of the response.
+     */
+    public void feed(ByteBuffer chunk) {
+        try {
+            feeder.feedInput(chunk);
+            parseAvailableTokens();
+        } catch (IOException e) {
+            throw new DecodingException("Invalid GitHub search response: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Completes parsing once the whole response has been fed.
+     */
+    public GitHubSearchResponseDto finish() {
+        try {
+            feeder.endOfInput();
+            parseAvailableTokens();
+            parser.close();
+        } catch (IOException e) {
+            throw new DecodingException("Invalid GitHub search response: " + e.getMessage(), e);
+        }
+
+        if (depth != 0) {
+            throw new DecodingException("Invalid GitHub search response: unexpected end of input");
+        }
+        return new GitHubSearchResponseDto(totalCount, incompleteResults, items);
+    }
+
+    private void parseAvailableTokens() throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            switch (token) {
+                case START_OBJECT, START_ARRAY -> startStructure(token);
+                case END_OBJECT, END_ARRAY -> endStructure(token);
+                case FIELD_NAME -> {
+                    if (depth == RESPONSE_DEPTH || (inItems && depth == ITEM_DEPTH)) {
+                        fieldName = parser.currentName();
+                    }
+                }
+                default -> {
+                    if (depth == RESPONSE_DEPTH) {
+                        responseValue(token);
+                    } else if (inItems && depth == ITEM_DEPTH) {
+                        itemValue(token);
+                    }
+                    // anything deeper (owner, license, topics, ...) is skipped
+                }
+            }
+        }
+    }
+
+    private void startStructure(JsonToken token) {
+        depth++;
+        if (depth == ITEMS_DEPTH && token == JsonToken.START_ARRAY && "items".equals(fieldName)) {
+            inItems = true;
+        } else if (inItems && depth == ITEM_DEPTH && token == JsonToken.START_OBJECT) {
+            item = new ItemFields();
+        }
+    }
+
+    private void endStructure(JsonToken token) {
+        if (inItems && depth == ITEM_DEPTH && token == JsonToken.END_OBJECT) {
+            items.add(item.toDto());
+            item = null;
+        } else if (inItems && depth == ITEMS_DEPTH) {
+            inItems = false;
+        }
+        depth--;
+    }
+
+    private void responseValue(JsonToken token) throws IOException {
+        if (fieldName == null) {
+            return;
+        }
+        switch (fieldName) {
+            case "total_count" -> totalCount = token == JsonToken.VALUE_NUMBER_INT ? parser.getIntValue() : 0;
+            case "incomplete_results" -> incompleteResults = token == JsonToken.VALUE_TRUE;
+            default -> { }
+        }
+    }
+
+    private void itemValue(JsonToken token) throws IOException {
+        if (item == null || fieldName == null || token == JsonToken.VALUE_NULL) {
+            return;
+        }
+        switch (fieldName) {
+            case "id" -> item.id = parser.getLongValue();
+            case "name" -> item.name = parser.getText();
+            case "full_name" -> item.fullName = parser.getText();
+            case "html_url" -> item.htmlUrl = parser.getText();
+            case "description" -> item.description = parser.getText();
+            case "language" -> item.language = parser.getText();
+            case "stargazers_count" -> item.stargazersCount = parser.getIntValue();
+            case "forks_count" -> item.forksCount = parser.getIntValue();
+            case "created_at" -> item.createdAt = parseDateTime(parser.getText());
+            case "updated_at" -> item.updatedAt = parseDateTime(parser.getText());
+            default -> { }
+        }
+    }
+
+    private static LocalDateTime parseDateTime(String value) {
+        try {
+            // GitHub sends UTC timestamps like 2014-12-24T17:49:19Z
+            return LocalDateTime.ofInstant(Instant.parse(value), ZoneOffset.UTC);
+        } catch (DateTimeParseException e) {
+            throw new DecodingException("Invalid GitHub search response: cannot parse date " + value, e);
+        }
+    }
+
+    private static class ItemFields {
+        Long id;
+        String name;
+        String fullName;
+        String htmlUrl;
+        String description;
+        String language;
+        int stargazersCount;
+        int forksCount;
+        LocalDateTime createdAt;
+        LocalDateTime updatedAt;
+
+        GitHubRepositoryDto toDto() {
+            return new GitHubRepositoryDto(id, name, fullName, htmlUrl, description, language,
+                stargazersCount, forksCount, createdAt, updatedAt);
+        }
+    }
+}
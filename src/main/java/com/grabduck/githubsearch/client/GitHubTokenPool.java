@@ -0,0 +1,167 @@
+package com.grabduck.githubsearch.client;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Pool of GitHub credentials, each with its own rate limit budget, so that the search quota grows with
+ * the number of configured tokens.
+ *
+ * Every call goes with the token that can make it soonest and, among those, the one with the most budget
+ * left in its current window. An exhausted token can only make calls after its window resets, so it is
+ * in effect quarantined until then while any other token still has budget.
+ * Without any token configured, calls go unauthenticated with a single budget.
+ *
+ * Publishes "github.ratelimit.remaining", "github.ratelimit.tokens" and "github.ratelimit.utilization" gauges
+ * tagged with the token number (never the token itself).
+ */
+@Slf4j
+@Component
+public class GitHubTokenPool {
+
+    private final Lock lock = new ReentrantLock();
+    private final List<PooledToken> tokens;
+
+    @Autowired
+    public GitHubTokenPool(
+            @Value("${github.api.tokens:}") List<String> tokens,
+            @Value("${github.api.token:}") String legacyToken,
+            @Value("${github.api.rate-limit.requests-per-minute}") int requestsPerMinute,
+            Clock clock,
+            MeterRegistry meterRegistry
+    ) {
+        this(tokens.stream().anyMatch(StringUtils::hasText) ? tokens : List.of(legacyToken),
+                requestsPerMinute, clock, meterRegistry);
+    }
+
+    GitHubTokenPool(List<String> tokens, int requestsPerMinute, Clock clock, MeterRegistry meterRegistry) {
+        List<String> configuredTokens = tokens.stream().filter(StringUtils::hasText).map(String::trim).toList();
+        List<String> credentials = configuredTokens.isEmpty() ? List.of("") : configuredTokens;
+
+        this.tokens = IntStream.range(0, credentials.size())
+                .mapToObj(i -> new PooledToken(
+                        "token-" + (i + 1), credentials.get(i), new RateLimitBudget(requestsPerMinute, clock)))
+                .toList();
+        this.tokens.forEach(token -> registerGauges(token, meterRegistry));
+
+        if (configuredTokens.isEmpty()) {
+            log.warn("No GitHub API token configured, calls go unauthenticated with a much lower rate limit");
+        }
+    }
+
+    /**
+     * Reserves a permit for one call with the token that can make it soonest.
+     *
+     * @param maxWait The longest the caller is willing to wait for the permit
+     * @return The token with the time the caller has to wait before making the call with it, or empty if
+     *         no token has a permit within maxWait
+     */
+    public Optional<Reservation> reserve(Duration maxWait) {
+        lock.lock();
+        try {
+            PooledToken token = preferredToken();
+            return token.budget().reserve(maxWait).map(wait -> new Reservation(token, wait));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The token with the most budget left, without reserving a permit.
+     */
+    public PooledToken leastUsed() {
+        lock.lock();
+        try {
+            return preferredToken();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Whether every token is exhausted until its window resets.
+     */
+    public boolean isExhausted() {
+        return tokens.stream().allMatch(token -> token.budget().isExhausted());
+    }
+
+    List<PooledToken> tokens() {
+        return tokens;
+    }
+
+    private PooledToken preferredToken() {
+        return tokens.stream()
+                .min(Comparator.comparing((PooledToken token) -> token.budget().waitTime())
+                        .thenComparing(token -> remainingOrMax(token.budget()), Comparator.reverseOrder())
+                        .thenComparing(token -> token.budget().availableTokens(), Comparator.reverseOrder()))
+                .orElseThrow();
+    }
+
+    private static int remainingOrMax(RateLimitBudget budget) {
+        // a token GitHub hasn't reported on yet hasn't been used in this window
+        int remaining = budget.remaining();
+        return remaining < 0 ? Integer.MAX_VALUE : remaining;
+    }
+
+    private static void registerGauges(PooledToken token, MeterRegistry meterRegistry) {
+        Gauge.builder("github.ratelimit.remaining", token.budget(), RateLimitBudget::remaining)
+                .description("Calls GitHub would still accept in the current rate limit window, -1 if not known yet")
+                .tag("token", token.id())
+                .register(meterRegistry);
+        Gauge.builder("github.ratelimit.tokens", token.budget(), RateLimitBudget::availableTokens)
+                .description("Permits available in the client-side token bucket, negative when calls are queued")
+                .tag("token", token.id())
+                .register(meterRegistry);
+        Gauge.builder("github.ratelimit.utilization", token.budget(), RateLimitBudget::utilization)
+                .description("Share of GitHub's rate limit used in the current window")
+                .tag("token", token.id())
+                .register(meterRegistry);
+    }
+
+    /**
+     * A GitHub credential with its rate limit budget.
+     *
+     * @param id Name of the token safe to show in logs and metrics
+     * @param value The token itself, empty for unauthenticated calls
+     * @param budget Rate limit budget of the token
+     */
+    public record PooledToken(String id, String value, RateLimitBudget budget) {
+
+        public boolean isAnonymous() {
+            return value.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            return id;
+        }
+    }
+
+    /**
+     * A permit to make one call with the given token once the delay is over.
+     */
+    public record Reservation(PooledToken token, Duration delay) {
+
+        /**
+         * Gives the permit back, when the call is not made after all.
+         */
+        public void release() {
+            token.budget().release();
+        }
+    }
+}
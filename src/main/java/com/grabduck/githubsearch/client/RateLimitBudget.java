@@ -0,0 +1,257 @@
+package com.grabduck.githubsearch.client;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.http.HttpHeaders;
+
+/**
+ * Live rate limit budget of a single GitHub credential.
+ *
+ * It combines two views of the budget:
+ * - what GitHub told us on the last response (X-RateLimit-Limit, X-RateLimit-Remaining, X-RateLimit-Reset
+ *   and Retry-After headers), counted down locally for every call sent since then;
+ * - a client-side token bucket refilled at the configured rate (the search API allows 30 requests per minute),
+ *   which paces the calls so we don't burn the whole budget in a burst and then wait for the reset.
+ *
+ * Permits are reserved ahead of time: a caller that cannot go right away is told how long to wait, and the next
+ * caller queues behind it. Guarded by a lock rather than synchronized, so that virtual threads are never pinned.
+ */
+public class RateLimitBudget {
+
+    static final String LIMIT_HEADER = "X-RateLimit-Limit";
+    static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    static final String RESET_HEADER = "X-RateLimit-Reset";
+    static final String RETRY_AFTER_HEADER = "Retry-After";
+
+    private static final int UNKNOWN = -1;
+
+    private final Lock lock = new ReentrantLock();
+    private final Clock clock;
+    private final double capacity;
+    private final double tokensPerMilli;
+
+    private double tokens;
+    private long refilledAt;
+
+    private int limit = UNKNOWN;
+    private int remaining = UNKNOWN;
+    private Instant resetAt = Instant.EPOCH;
+    private Instant retryAfter = Instant.EPOCH;
+
+    public RateLimitBudget(int requestsPerMinute, Clock clock) {
+        this.clock = clock;
+        this.capacity = requestsPerMinute;
+        this.tokensPerMilli = requestsPerMinute / (double) Duration.ofMinutes(1).toMillis();
+        this.tokens = capacity;
+        this.refilledAt = clock.millis();
+    }
+
+    /**
+     * Reserves a permit for one call.
+     *
+     * @param maxWait The longest the caller is willing to wait for the permit
+     * @return How long the caller has to wait before making the call, or empty if that's longer than maxWait,
+     *         in which case nothing is reserved
+     */
+    public Optional<Duration> reserve(Duration maxWait) {
+        lock.lock();
+        try {
+            Instant now = clock.instant();
+            refill(now);
+
+            Duration wait = waitTime(now);
+            if (wait.compareTo(maxWait) > 0) {
+                return Optional.empty();
+            }
+
+            tokens--;
+            if (remaining > 0) {
+                remaining--;
+            }
+            return Optional.of(wait);
+
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gives back a permit reserved but not used, e.g. because the caller gave up waiting for it, so that the calls
+     * queued behind it don't wait for it.
+     */
+    public void release() {
+        lock.lock();
+        try {
+            refill(clock.instant());
+            tokens = Math.min(capacity, tokens + 1);
+            if (remaining != UNKNOWN && remaining < limit) {
+                remaining++;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * How long a call would have to wait for a permit if it reserved one now.
+     */
+    public Duration waitTime() {
+        lock.lock();
+        try {
+            Instant now = clock.instant();
+            refill(now);
+            return waitTime(now);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Updates the budget with the rate limit headers of a GitHub response, whatever its status is.
+     */
+    public void update(HttpHeaders headers) {
+        int headerLimit = parseInt(headers.getFirst(LIMIT_HEADER));
+        int headerRemaining = parseInt(headers.getFirst(REMAINING_HEADER));
+        int headerReset = parseInt(headers.getFirst(RESET_HEADER));
+        int headerRetryAfter = parseInt(headers.getFirst(RETRY_AFTER_HEADER));
+
+        lock.lock();
+        try {
+            Instant now = clock.instant();
+
+            if (headerLimit != UNKNOWN) {
+                limit = headerLimit;
+            }
+            if (headerRemaining != UNKNOWN && headerReset != UNKNOWN) {
+                Instant headerResetAt = Instant.ofEpochSecond(headerReset);
+                // responses of the same window may arrive out of order, the lowest count is the most recent one
+                remaining = headerResetAt.equals(resetAt) && remaining != UNKNOWN
+                    ? Math.min(remaining, headerRemaining)
+                    : headerRemaining;
+                resetAt = headerResetAt;
+            }
+            if (headerRetryAfter != UNKNOWN) {
+                retryAfter = now.plusSeconds(headerRetryAfter);
+            }
+
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Calls GitHub would still accept in the current window, or -1 if GitHub hasn't told us yet.
+     */
+    public int remaining() {
+        lock.lock();
+        try {
+            refill(clock.instant());
+            return remaining;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * When the current GitHub rate limit window resets.
+     */
+    public Instant resetAt() {
+        lock.lock();
+        try {
+            return resetAt;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Permits currently available in the client-side token bucket, negative when callers are queued.
+     */
+    public double availableTokens() {
+        lock.lock();
+        try {
+            refill(clock.instant());
+            return tokens;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Whether GitHub won't accept calls until the rate limit window resets or the Retry-After time passes.
+     */
+    public boolean isExhausted() {
+        lock.lock();
+        try {
+            Instant now = clock.instant();
+            refill(now);
+            return retryAfter.isAfter(now) || (remaining == 0 && resetAt.isAfter(now));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Share of GitHub's limit used in the current window, 0 if GitHub hasn't told us the budget yet.
+     */
+    public double utilization() {
+        lock.lock();
+        try {
+            refill(clock.instant());
+            return limit > 0 && remaining != UNKNOWN ? (limit - remaining) / (double) limit : 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Duration waitTime(Instant now) {
+        Instant availableAt = now;
+        if (retryAfter.isAfter(availableAt)) {
+            availableAt = retryAfter;
+        }
+        if (remaining == 0 && resetAt.isAfter(availableAt)) {
+            availableAt = resetAt;
+        }
+
+        // the bucket may go into debt, the debt is paid back by waiting
+        double tokensLeft = tokens - 1;
+        if (tokensLeft < 0) {
+            Instant refilledBy = now.plusMillis((long) Math.ceil(-tokensLeft / tokensPerMilli));
+            if (refilledBy.isAfter(availableAt)) {
+                availableAt = refilledBy;
+            }
+        }
+
+        return Duration.between(now, availableAt);
+    }
+
+    private void refill(Instant now) {
+        long nowMillis = now.toEpochMilli();
+        if (nowMillis > refilledAt) {
+            tokens = Math.min(capacity, tokens + (nowMillis - refilledAt) * tokensPerMilli);
+            refilledAt = nowMillis;
+        }
+
+        // a new window started, GitHub gives us the full limit again
+        if (remaining != UNKNOWN && !now.isBefore(resetAt)) {
+            remaining = limit;
+        }
+    }
+
+    private static int parseInt(String value) {
+        if (value == null) {
+            return UNKNOWN;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            // e.g. Retry-After given as an HTTP date, which GitHub doesn't do
+            return UNKNOWN;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.grabduck.githubsearch.client;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import com.grabduck.githubsearch.domain.model.Deadline;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+/**
+ * Deduplicates concurrent calls for the same key (a.k.a. single-flight).
+ *
+ * The first subscriber for a key starts the call, everybody who subscribes for the same key while that call
+ * is still in flight gets the very same result or error. Nothing is remembered once the call completes,
+ * caching is a separate concern. The call is not tied to any single subscriber: it goes on as long as any of
+ * them is still waiting for it, and is cancelled once they have all gone away (e.g. their deadlines passed).
+ * It runs without the subscriber context of any of them, but under a {@link CallDeadline}, the latest
+ * {@link Deadline} of the subscribers waiting for it. A subscriber bounds its own wait (e.g. with a timeout on the
+ * Mono it gets), a deadline of the one who started the call does not cut it short for the others.
+ *
+ * Publishes "singleflight.calls" counter tagged with outcome "executed" or "coalesced" and
+ * "singleflight.inflight" gauge, all tagged with the given name.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, Flight> inFlight = new ConcurrentHashMap<>();
+    private final Counter executedCalls;
+    private final Counter coalescedCalls;
+
+    public SingleFlight(String name, MeterRegistry meterRegistry) {
+        executedCalls = Counter.builder("singleflight.calls")
+                .description("Calls grouped by whether they were executed or joined an identical call in flight")
+                .tags("name", name, "outcome", "executed")
+                .register(meterRegistry);
+        coalescedCalls = Counter.builder("singleflight.calls")
+                .description("Calls grouped by whether they were executed or joined an identical call in flight")
+                .tags("name", name, "outcome", "coalesced")
+                .register(meterRegistry);
+        Gauge.builder("singleflight.inflight", inFlight, ConcurrentMap::size)
+                .description("Number of distinct calls currently in flight")
+                .tag("name", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts the call on subscription unless an identical one is already in flight, in which case joins it.
+     */
+    public Mono<V> execute(K key, Supplier<Mono<V>> call) {
+        return Mono.deferContextual(context -> {
+            Optional<Deadline> deadline = context.getOrEmpty(Deadline.class);
+            Flight ownFlight = new Flight(key, deadline);
+            // a flight all subscribers left is being cancelled, a new one takes its place
+            Flight flight = inFlight.compute(key,
+                    (k, existing) -> existing != null && existing.join(deadline) ? existing : ownFlight);
+
+            if (flight != ownFlight) {
+                coalescedCalls.increment();
+                return flight.await();
+            }
+
+            executedCalls.increment();
+            ownFlight.result.whenComplete((result, error) -> inFlight.remove(key, ownFlight));
+            ownFlight.start(Mono.defer(call).contextWrite(Context.of(CallDeadline.class, ownFlight.deadline)));
+            return ownFlight.await();
+        });
+    }
+
+    private class Flight {
+
+        private final K key;
+        private final CompletableFuture<V> result = new CompletableFuture<>();
+        private final CallDeadline deadline;
+        private final ReentrantLock lock = new ReentrantLock();
+        // guarded by lock
+        private int waiters = 1;
+        private boolean abandoned;
+        private Disposable running;
+
+        Flight(K key, Optional<Deadline> deadline) {
+            this.key = key;
+            this.deadline = CallDeadline.of(deadline);
+        }
+
+        void start(Mono<V> call) {
+            Disposable subscribed = call.subscribe(
+                    result::complete, result::completeExceptionally, () -> result.complete(null));
+            lock.lock();
+            try {
+                running = subscribed;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Counts one more subscriber waiting for the call, unless they all left and it is being cancelled.
+         */
+        boolean join(Optional<Deadline> joining) {
+            lock.lock();
+            try {
+                if (abandoned) {
+                    return false;
+                }
+                waiters++;
+                deadline.extend(joining);
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        Mono<V> await() {
+            return Mono.fromFuture(result, true).doOnCancel(this::leave);
+        }
+
+        private void leave() {
+            Disposable cancelled = null;
+            lock.lock();
+            try {
+                if (--waiters == 0 && !result.isDone()) {
+                    abandoned = true;
+                    cancelled = running;
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            // outside the lock, as a subscriber joining the flight holds the lock of its entry in inFlight
+            if (cancelled != null) {
+                cancelled.dispose();
+                inFlight.remove(key, this);
+            }
+        }
+    }
+}
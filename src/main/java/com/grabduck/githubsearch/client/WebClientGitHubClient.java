@@ -1,98 +1,279 @@
 package com.grabduck.githubsearch.client;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.WebClient;
 
 import com.grabduck.githubsearch.client.exceptions.GitHubApiClientException;
 import com.grabduck.githubsearch.client.exceptions.GitHubApiRateLimitException;
 import com.grabduck.githubsearch.client.exceptions.GitHubApiServerException;
+import com.grabduck.githubsearch.client.exceptions.GitHubApiTimeoutException;
+import com.grabduck.githubsearch.domain.model.Deadline;
 
+import java.time.Clock;
+
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import org.springframework.util.StringUtils;
 
+import io.netty.channel.ChannelOption;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.util.retry.Retry;
+
 /**
  * Implementation of GitHubClient using WebClient for making API calls to GitHub.
+ * 
+ * Calls use a dedicated connection pool. Reactor Netty's default pool is sized for a couple of dozen
+ * concurrent calls and fails fast once 2x that many are waiting for a connection, which is far below
+ * the number of concurrent slow GitHub calls a non-blocking request path can hold. Connections idle for longer
+ * than max-idle-time are closed in the background before GitHub or a proxy on the way drops them, so a call
+ * never goes out on a dead connection, and connections are renewed after max-life-time to follow DNS changes.
+ * Over HTTPS, calls go over HTTP/2 when GitHub agrees to it, multiplexed on a few connections.
+ * The pool publishes "reactor.netty.connection.provider.*" metrics tagged with name "github": total, active,
+ * idle and pending connections, and the time calls wait for a connection.
+ *
+ * Responses are parsed as they stream in by {@link GitHubSearchResponseParser}, rather than buffered as a whole
+ * and bound by Jackson, which also keeps 100-item pages clear of WebClient's in-memory buffer limit.
+ *
+ * A search GitHub answered before is sent with the ETag of that answer kept in {@link GitHubETagCache}, so that
+ * GitHub answers 304 Not Modified when its results have not changed and the kept results are used again.
+ *
+ * Server errors and connection failures are retried up to max-retries times with exponential backoff, as long as
+ * the {@link GitHubRetryBudget} grants it, so that retries stay a share of the calls made. A {@link Deadline} found
+ * in the subscriber context, or the {@link CallDeadline} of a call shared by identical searches, bounds the call,
+ * retries included: nothing is sent once it has passed, a retry is not attempted when the deadline would pass
+ * during its backoff, and the call is abandoned with {@link GitHubApiTimeoutException} when the deadline passes
+ * while it is under way.
+ *
+ * Calls go through {@link GitHubHedging}, which sends a slow call a second time, then through
+ * {@link GitHubCircuitBreaker}, which fails them fast while GitHub keeps failing, then through
+ * {@link GitHubBulkhead}, which bounds how many are under way, and last through {@link GitHubRateLimiter}, which
+ * keeps them within GitHub's rate limit and authenticates each of them with one of the configured tokens.
+ * Each retry of a call goes through them again.
  */
 @Component
 public class WebClientGitHubClient implements GitHubClient {
     
     private final WebClient webClient;
+    private final int maxRetries;
+    private final Duration retryBackoff;
+    private final GitHubRetryBudget retryBudget;
+    private final GitHubETagCache eTagCache;
+    private final Clock clock;
     
     public WebClientGitHubClient(
             WebClient.Builder webClientBuilder, 
             @Value("${github.api.baseUrl}") String baseUrl,
-            @Value("${github.api.token}") String token,
-            @Value("${github.api.version}") String apiVersion
+            @Value("${github.api.version}") String apiVersion,
+            @Value("${github.api.connection-pool.max-connections}") int maxConnections,
+            @Value("${github.api.connection-pool.pending-acquire-max-count}") int pendingAcquireMaxCount,
+            @Value("${github.api.connection-pool.pending-acquire-timeout}") Duration pendingAcquireTimeout,
+            @Value("${github.api.connection-pool.max-idle-time}") Duration maxIdleTime,
+            @Value("${github.api.connection-pool.max-life-time}") Duration maxLifeTime,
+            @Value("${github.api.connection-pool.eviction-interval}") Duration evictionInterval,
+            @Value("${github.api.connect-timeout}") Duration connectTimeout,
+            @Value("${github.api.response-timeout}") Duration responseTimeout,
+            @Value("${github.api.http2}") boolean http2,
+            @Value("${github.api.retry.max-retries}") int maxRetries,
+            @Value("${github.api.retry.backoff}") Duration retryBackoff,
+            GitHubRetryBudget retryBudget,
+            GitHubETagCache eTagCache,
+            GitHubHedging hedging,
+            GitHubCircuitBreaker circuitBreaker,
+            GitHubBulkhead bulkhead,
+            GitHubRateLimiter rateLimiter,
+            Clock clock
     ) {
+        this.maxRetries = maxRetries;
+        this.retryBackoff = retryBackoff;
+        this.retryBudget = retryBudget;
+        this.eTagCache = eTagCache;
+        this.clock = clock;
+
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("github")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .maxIdleTime(maxIdleTime)
+                .maxLifeTime(maxLifeTime)
+                .evictInBackground(evictionInterval)
+                .metrics(true)
+                .build();
+
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, Math.toIntExact(connectTimeout.toMillis()))
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .responseTimeout(responseTimeout);
+        // HTTP/2 is negotiated during the TLS handshake, plain HTTP (e.g. a local stub of GitHub) stays on HTTP/1.1
+        if (http2 && baseUrl.startsWith("https:")) {
+            httpClient = httpClient.protocol(HttpProtocol.H2, HttpProtocol.HTTP11);
+        }
+
         webClient = webClientBuilder
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
                 .baseUrl(baseUrl)                
                 .defaultHeader("Accept", "application/vnd.github+json")
-                .defaultHeader("Authorization", "Bearer " + token)
                 .defaultHeader("X-GitHub-Api-Version", apiVersion)
+                .filter(hedging)
+                .filter(circuitBreaker)
+                .filter(bulkhead)
+                .filter(rateLimiter)
                 .build();
     }
     
     @Override
-    public GitHubSearchResponseDto searchRepositories(
+    public Mono<GitHubSearchResponseDto> searchRepositories(
             LocalDate createdSince,
+            Instant createdFrom,
+            Instant createdTo,
             String language,
             String sort,
             String direction,
             int page,
             int size
     ) {        
-        return webClient.get()
-                .uri(uriBuilder -> uriBuilder
-                        .path("/search/repositories")
-                        .queryParamIfPresent("q", buildQueryString(createdSince, language))
-
-                        .queryParamIfPresent("sort", Optional.ofNullable(sort))
-                        .queryParamIfPresent("order", Optional.ofNullable(direction))
-
-                        .queryParam("page", page + 1)
-                        .queryParam("per_page", size)
-                        .build())
-                .retrieve()
-                .onStatus(
-                    // we do not have a real limitation for rate limiting here.
-                    // for that we would need to parse response headers and see if we met the limit.
-                    // instead here for simplicity we just pretend that every 403 response means we hit the limit.
-                    status -> status.value() == 403,
-                    response -> response.bodyToMono(String.class).map(GitHubApiRateLimitException::new)
-                )
-                .onStatus(
-                    status -> status.is4xxClientError(),
-                    response -> response.bodyToMono(String.class).map(GitHubApiClientException::new)
-                )
-                .onStatus(
-                    status -> status.is5xxServerError(),
-                    response -> response.bodyToMono(String.class).map(GitHubApiServerException::new)
-                )
-                .bodyToMono(GitHubSearchResponseDto.class)
-                .retryWhen(reactor.util.retry.Retry.backoff(3, Duration.ofSeconds(1))
-                    .filter(throwable -> {
-                        // Retry on server errors but not on client errors
-                        return throwable instanceof GitHubApiServerException ||
-                               // Also retry on connection errors
-                               throwable instanceof java.io.IOException;
-                    })
-                    .onRetryExhaustedThrow((retryBackoffSpec, retrySignal) -> {
-                        return new GitHubApiServerException("Failed after " + retrySignal.totalRetries() + 
-                                                         " retries: " + retrySignal.failure().getMessage());
-                    })
-                )
-                .block();
+        Optional<String> query = buildQueryString(createdSince, createdFrom, createdTo, language);
+        String key = String.join("|", query.orElse(""), String.valueOf(sort), String.valueOf(direction),
+                String.valueOf(page), String.valueOf(size));
+
+        // looked up again for every retry, an earlier attempt may have brought a newer ETag
+        Mono<GitHubSearchResponseDto> call = Mono.defer(() -> {
+            Optional<GitHubETagCache.Entry> kept = eTagCache.lookup(key);
+            AtomicBoolean notModified = new AtomicBoolean();
+            AtomicReference<String> eTag = new AtomicReference<>();
+
+            return webClient.get()
+                    .uri(uriBuilder -> uriBuilder
+                            .path("/search/repositories")
+                            .queryParamIfPresent("q", query)
+
+                            .queryParamIfPresent("sort", Optional.ofNullable(sort))
+                            .queryParamIfPresent("order", Optional.ofNullable(direction))
+
+                            .queryParam("page", page + 1)
+                            .queryParam("per_page", size)
+                            .build())
+                    .headers(headers -> kept.ifPresent(entry -> headers.setIfNoneMatch(entry.etag())))
+                    .retrieve()
+                    .onStatus(
+                        // not an error: only notes the ETag, or that the kept body is still valid, and lets the
+                        // body stream on as usual (empty for 304)
+                        status -> status.is2xxSuccessful() || (kept.isPresent() && status.value() == HttpStatus.NOT_MODIFIED.value()),
+                        response -> {
+                            notModified.set(response.statusCode().value() == HttpStatus.NOT_MODIFIED.value());
+                            eTag.set(response.headers().asHttpHeaders().getETag());
+                            return Mono.empty();
+                        }
+                    )
+                    .onStatus(
+                        // GitHub answers 403 also for missing permissions, only some of them mean we hit the limit
+                        status -> status.value() == HttpStatus.FORBIDDEN.value() || status.value() == HttpStatus.TOO_MANY_REQUESTS.value(),
+                        response -> response.bodyToMono(String.class)
+                            .defaultIfEmpty("")
+                            .map(body -> isRateLimited(response, body)
+                                ? new GitHubApiRateLimitException(body)
+                                : new GitHubApiClientException(body))
+                    )
+                    .onStatus(
+                        status -> status.is4xxClientError(),
+                        response -> response.bodyToMono(String.class).map(GitHubApiClientException::new)
+                    )
+                    .onStatus(
+                        status -> status.is5xxServerError(),
+                        response -> response.bodyToMono(String.class).map(GitHubApiServerException::new)
+                    )
+                    .bodyToFlux(DataBuffer.class)
+                    .collect(GitHubSearchResponseParser::new, GitHubSearchResponseParser::feed)
+                    .map(parser -> {
+                        if (notModified.get()) {
+                            return eTagCache.notModified(kept.get());
+                        }
+                        GitHubSearchResponseDto response = parser.finish();
+                        eTagCache.modified(key, kept.isPresent(), eTag.get(), response);
+                        return response;
+                    });
+        });
+
+        return Mono.deferContextual(context -> {
+            CallDeadline deadline = CallDeadline.from(context);
+            if (deadline.get().filter(d -> d.hasPassed(clock)).isPresent()) {
+                return Mono.error(new GitHubApiTimeoutException("Deadline of the request passed, call was not sent."));
+            }
+            retryBudget.deposit();
+
+            Mono<GitHubSearchResponseDto> retried = call.retryWhen(retry(deadline));
+            // a call without a deadline never gets one, callers joining it can only push a deadline back
+            return deadline.get().isEmpty() ? retried : retried.timeout(deadlinePassed(deadline), Mono.error(() ->
+                new GitHubApiTimeoutException("Deadline of the request passed, call was abandoned.")));
+        });
+    }
+
+    // the deadline of a shared call may be pushed back while it waits for it
+    private Mono<Long> deadlinePassed(CallDeadline deadline) {
+        return Mono.defer(() -> deadline.get()
+            .map(d -> d.hasPassed(clock) ? Mono.just(0L) : Mono.delay(d.remaining(clock)).then(deadlinePassed(deadline)))
+            .orElse(Mono.never()));
+    }
+
+    private Retry retry(CallDeadline deadline) {
+        return Retry.from(signals -> signals.concatMap(signal -> {
+            Throwable failure = signal.failure();
+            // Retry on server errors and connection errors but not on client errors
+            if (!(failure instanceof GitHubApiServerException || failure instanceof java.io.IOException)) {
+                return Mono.error(failure);
+            }
+
+            Duration backoff = backoff(signal.totalRetries());
+            boolean retried = signal.totalRetries() < maxRetries
+                && deadline.get().map(d -> d.remaining(clock).compareTo(backoff) > 0).orElse(true)
+                && retryBudget.tryWithdraw();
+            if (!retried) {
+                return Mono.error(new GitHubApiServerException("Failed after " + signal.totalRetries() +
+                                                               " retries: " + failure.getMessage()));
+            }
+            return Mono.delay(backoff);
+        }));
+    }
+
+    // exponential backoff with up to 50% jitter, so that calls failing together are not retried together
+    private Duration backoff(long retry) {
+        long millis = retryBackoff.toMillis() << Math.min(retry, 20);
+        return Duration.ofMillis(millis + ThreadLocalRandom.current().nextLong(millis / 2 + 1));
     }
     
-    private Optional<String> buildQueryString(LocalDate createdSince, String language) {
+    private boolean isRateLimited(ClientResponse response, String body) {
+        ClientResponse.Headers headers = response.headers();
+        return response.statusCode().value() == HttpStatus.TOO_MANY_REQUESTS.value()
+                || !headers.header(RateLimitBudget.RETRY_AFTER_HEADER).isEmpty()
+                || headers.header(RateLimitBudget.REMAINING_HEADER).contains("0")
+                || body.toLowerCase(Locale.ROOT).contains("rate limit");
+    }
+
+    private Optional<String> buildQueryString(LocalDate createdSince, Instant createdFrom, Instant createdTo, String language) {
         List<String> queryParts = new ArrayList<>();
         
-        if (createdSince != null) {
+        if (createdFrom != null && createdTo != null) {
+            queryParts.add("created:" + createdFrom + ".." + createdTo);
+        } else if (createdFrom != null) {
+            queryParts.add("created:>=" + createdFrom);
+        } else if (createdTo != null) {
+            queryParts.add("created:<=" + createdTo);
+        } else if (createdSince != null) {
             queryParts.add("created:>=" + createdSince);
         }
         
@@ -0,0 +1,11 @@
+package com.grabduck.githubsearch.client.exceptions;
+
+/**
+ * A call abandoned (or never sent) because the deadline of the request it was made for passed.
+ */
+public class GitHubApiTimeoutException extends GitHubApiException {
+
+    public GitHubApiTimeoutException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.grabduck.githubsearch.client.exceptions;
+
+/**
+ * A call that was not sent to GitHub because GitHub is failing (the circuit breaker is open) or too many calls
+ * are already under way (the bulkhead is full).
+ */
+public class GitHubApiUnavailableException extends GitHubApiException {
+
+    public GitHubApiUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,21 @@
+package com.grabduck.githubsearch.domain.model;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Search results as held in the cache, together with the time they were fetched.
+ */
+public record CachedSearchResults(
+    SearchResults results,
+    Instant fetchedAt
+) {
+
+    /**
+     * How long ago the results were fetched.
+     */
+    public Duration age(Clock clock) {
+        return Duration.between(fetchedAt, clock.instant());
+    }
+}
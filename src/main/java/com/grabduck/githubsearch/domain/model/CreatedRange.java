@@ -0,0 +1,49 @@
+package com.grabduck.githubsearch.domain.model;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Range of repository creation times, both ends inclusive, to the second (the finest GitHub searches by).
+ */
+public record CreatedRange(
+    Instant from,
+    Instant to
+) {
+
+    public CreatedRange {
+        from = from.truncatedTo(ChronoUnit.SECONDS);
+        to = to.truncatedTo(ChronoUnit.SECONDS);
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Range must not end before it starts: " + from + ".." + to);
+        }
+    }
+
+    /**
+     * The range from the start of the first day to the end of the last day, in UTC like GitHub's dates.
+     */
+    public static CreatedRange ofDays(LocalDate firstDay, LocalDate lastDay) {
+        return new CreatedRange(
+            firstDay.atStartOfDay(ZoneOffset.UTC).toInstant(),
+            lastDay.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant().minusSeconds(1)
+        );
+    }
+
+    /**
+     * Whether the range spans more than a single second and can be split.
+     */
+    public boolean isSplittable() {
+        return from.isBefore(to);
+    }
+
+    /**
+     * Splits the range into two halves, the earlier one first.
+     */
+    public List<CreatedRange> split() {
+        Instant middle = from.plusSeconds(ChronoUnit.SECONDS.between(from, to) / 2);
+        return List.of(new CreatedRange(from, middle), new CreatedRange(middle.plusSeconds(1), to));
+    }
+}
@@ -0,0 +1,31 @@
+package com.grabduck.githubsearch.domain.model;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * The instant by which the client who made a request expects its response, past which any work done for the
+ * request is wasted. It travels with the request in the Reactor subscriber context, keyed by this class, down to
+ * the calls made to GitHub for it.
+ *
+ * @param at The instant the response is expected by
+ */
+public record Deadline(Instant at) {
+
+    public static Deadline after(Duration timeout, Clock clock) {
+        return new Deadline(clock.instant().plus(timeout));
+    }
+
+    /**
+     * Time left until the deadline, zero once it has passed.
+     */
+    public Duration remaining(Clock clock) {
+        Duration remaining = Duration.between(clock.instant(), at);
+        return remaining.isNegative() ? Duration.ZERO : remaining;
+    }
+
+    public boolean hasPassed(Clock clock) {
+        return !clock.instant().isBefore(at);
+    }
+}
@@ -0,0 +1,20 @@
+package com.grabduck.githubsearch.domain.model;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Domain model representing an export of all repositories matching the criteria.
+ *
+ * @param language Optional filter for repository language
+ * @param createdSince First day of the export
+ * @param createdUntil Last day of the export, up to now if not set
+ * @param resumeAfter Optional checkpoint of an interrupted export, only repositories created after it are exported
+ */
+public record ExportRequest(
+    String language,
+    LocalDate createdSince,
+    LocalDate createdUntil,
+    Instant resumeAfter
+) {
+}
@@ -0,0 +1,17 @@
+package com.grabduck.githubsearch.domain.model;
+
+import java.util.List;
+
+/**
+ * All repositories of an export created within a slice of its date range.
+ *
+ * @param range Creation times the slice covers
+ * @param repositories Repositories created within the range, each of them once
+ * @param truncated Whether GitHub matched more repositories within the range than it lets a search page through
+ */
+public record ExportSlice(
+    CreatedRange range,
+    List<Repository> repositories,
+    boolean truncated
+) {
+}
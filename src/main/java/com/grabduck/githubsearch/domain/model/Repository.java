@@ -1,11 +1,13 @@
 package com.grabduck.githubsearch.domain.model;
 
-import java.time.Duration;
 import java.time.Instant;
 
 /**
  * Domain model representing a GitHub repository with calculated popularity score.
  * Implemented as an immutable record following DDD principles.
+ *
+ * The popularity score is computed once per result set by PopularityScorer, a repository
+ * that hasn't been scored yet has score 0.
  */
 public record Repository(
     Long id,
@@ -17,39 +19,33 @@ public record Repository(
     Instant updatedAt,
     String language,
     Integer stargazersCount,
-    Integer forksCount
+    Integer forksCount,
+    int popularityScore
 ) {
-    private static final double STARS_WEIGHT = 0.7;
-    private static final double FORKS_WEIGHT = 0.2;
-    private static final double RECENCY_WEIGHT = 0.1;
-    
-    // Scaling factor for recency score to make it comparable to stars and forks
-    private static final double RECENCY_SCALE_FACTOR = 10.0;
-    
+
     /**
-     * Calculates a popularity score based on stars, forks and update recency. Each component has it's own predefined weight.
-     * 
-     * @return A final score of the repository
+     * Creates a repository that hasn't been scored yet.
      */
-    public Integer popularityScore() {
-        double starsScore = stargazersCount != null ? stargazersCount : 0;
-        double forksScore = forksCount != null ? forksCount : 0;
-        double recencyScore = getRecencyScore();
-        double score = (starsScore * STARS_WEIGHT) + (forksScore * FORKS_WEIGHT) + (recencyScore * RECENCY_WEIGHT);
-        return (int) Math.round(score);
+    public Repository(
+        Long id,
+        String name,
+        String fullName,
+        String url,
+        String description,
+        Instant createdAt,
+        Instant updatedAt,
+        String language,
+        Integer stargazersCount,
+        Integer forksCount
+    ) {
+        this(id, name, fullName, url, description, createdAt, updatedAt, language, stargazersCount, forksCount, 0);
     }
-    
+
     /**
-     * Calculates a recency score using inverse proportionality (1/daysOld) so newer repositories get higher scores which is in line with stars and forks scores.
-     * 
-     * @return A recency score where higher values indicate more recently updated repositories
+     * A copy of this repository with the given popularity score.
      */
-    private double getRecencyScore() {
-        if (updatedAt == null) {
-            return 0.0;
-        }
-        
-        long daysOld = Duration.between(updatedAt, Instant.now()).toDays();
-        return RECENCY_SCALE_FACTOR / (daysOld + 1);
+    public Repository withPopularityScore(int popularityScore) {
+        return new Repository(id, name, fullName, url, description, createdAt, updatedAt, language,
+            stargazersCount, forksCount, popularityScore);
     }
 }
@@ -8,6 +8,9 @@ import jakarta.validation.constraints.NotNull;
 
 /**
  * Domain model representing search criteria for repositories.
+ *
+ * A search can be narrowed to repositories created within a range of times, which is how exports slice
+ * their searches under GitHub's cap on results per search. The range takes precedence over createdSince.
  */
 public record SearchRequest(
     String language,
@@ -25,7 +28,28 @@ public record SearchRequest(
     
     @NotNull(message = "Size must not be null")
     @Min(value = 1, message = "Size must be between 1 and 100")
-    @Max(value = 100, message = "Size must be between 1 and 100")
-    Integer size
+    @Max(value = SearchRequest.MAX_SIZE, message = "Size must be between 1 and 100")
+    Integer size,
+
+    CreatedRange createdWithin
 ) {
+
+    // the largest page GitHub serves
+    public static final int MAX_SIZE = 100;
+    // GitHub serves at most this many results of any search, whatever the page size
+    public static final int RESULTS_CAP = 1000;
+
+    /**
+     * Creates search criteria without a range of creation times.
+     */
+    public SearchRequest(
+        String language,
+        LocalDate createdSince,
+        SortField sort,
+        SortDirection direction,
+        Integer page,
+        Integer size
+    ) {
+        this(language, createdSince, sort, direction, page, size, null);
+    }
 }
@@ -0,0 +1,19 @@
+package com.grabduck.githubsearch.domain.model;
+
+import java.util.List;
+
+/**
+ * A page of search results served to a client, with the cached blocks it was cut out of and the block the page
+ * after it needs.
+ *
+ * @param request The search the page was served for
+ * @param blocks The searches for the blocks of 100 results the page was cut out of
+ * @param nextBlock The search for the block the next page ends in, or null if the next page is cut out of the
+ *                  same blocks or this was the last page the search can go to
+ */
+public record ServedPage(
+    SearchRequest request,
+    List<SearchRequest> blocks,
+    SearchRequest nextBlock
+) {
+}
@@ -6,7 +6,9 @@ import static java.util.stream.Collectors.joining;
 public enum SortField {
     STARS,
     FORKS,
-    UPDATED;
+    UPDATED,
+    // our own popularity score, GitHub cannot sort by it
+    POPULARITY;
     
     public String getValue() {
         return name().toLowerCase();
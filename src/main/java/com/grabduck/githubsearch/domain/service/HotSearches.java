@@ -0,0 +1,70 @@
+package com.grabduck.githubsearch.domain.service;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.grabduck.githubsearch.domain.model.SearchRequest;
+
+/**
+ * Counts how often searches are made, to tell the hot ones worth keeping in the cache (see CachePrewarmer).
+ *
+ * Searches are counted by their cache key, so all pages cut out of the same block of results count as one. Only a bounded number of searches is tracked, in a Caffeine cache
+ * whose W-TinyLFU admission keeps the frequent ones when a burst of one-off searches comes in. Counts are halved
+ * on every decay, so searches that were hot a while ago fade out. Every count is updated atomically per search,
+ * so a search counted while the counts decay is neither lost nor dropped with a count that fell to zero.
+ */
+@Component
+public class HotSearches {
+
+    // searches tracked per hot search kept, so that rising searches have room to be counted
+    private static final int TRACKED_PER_HOT_SEARCH = 10;
+
+    private final int topN;
+    private final Cache<SearchRequest, Long> counts;
+
+    public HotSearches(@Value("${cache.prewarm.top-n}") int topN) {
+        this.topN = topN;
+        this.counts = Caffeine.newBuilder()
+            .maximumSize((long) topN * TRACKED_PER_HOT_SEARCH)
+            .build();
+    }
+
+    /**
+     * Counts one more search under the cache key.
+     */
+    public void record(SearchRequest cacheKey) {
+        record(cacheKey, 1);
+    }
+
+    /**
+     * Counts the search as made the given number of times more, e.g. when hot searches are restored on startup.
+     */
+    public void record(SearchRequest cacheKey, long times) {
+        counts.asMap().merge(cacheKey, times, Long::sum);
+    }
+
+    /**
+     * Cache keys of the top-n most frequent searches, the most frequent first.
+     */
+    public List<SearchRequest> top() {
+        return counts.asMap().entrySet().stream()
+            .filter(entry -> entry.getValue() > 0)
+            .sorted(Map.Entry.<SearchRequest, Long>comparingByValue(Comparator.reverseOrder()))
+            .limit(topN)
+            .map(Map.Entry::getKey)
+            .toList();
+    }
+
+    /**
+     * Halves all counts, dropping the searches whose count falls to zero.
+     */
+    public void decay() {
+        counts.asMap().keySet().forEach(key ->
+            counts.asMap().computeIfPresent(key, (search, count) -> count / 2 == 0 ? null : count / 2));
+    }
+}
@@ -0,0 +1,93 @@
+package com.grabduck.githubsearch.domain.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import com.grabduck.githubsearch.domain.model.Repository;
+import com.grabduck.githubsearch.domain.model.SearchRequest;
+import com.grabduck.githubsearch.domain.model.SearchResults;
+import com.grabduck.githubsearch.domain.model.SortDirection;
+import com.grabduck.githubsearch.domain.model.SortField;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Ranks repositories by our own popularity score, which GitHub cannot sort by.
+ *
+ * The candidates are the most starred repositories matching the search (stars weigh most in the score),
+ * looked up as several pages in parallel. The pages are the very blocks a search sorted by stars is cached in,
+ * so RepositoryService looks them up through its cache and GitHub is only called for those missing there.
+ * The best of the scored candidates are kept in a bounded heap, so the ranked window never holds more than top-k
+ * repositories. The window is served in blocks of 100 like any other search, each ranked and cached on its own,
+ * so that no cached search asks for more than GitHub serves in a page however large top-k is. Ranking the
+ * blocks after the first one costs little, their candidates are in the cache by then.
+ */
+@Component
+public class PopularityRanker {
+
+    private static final Comparator<Repository> BY_POPULARITY = Comparator
+        .comparingInt(Repository::popularityScore)
+        .thenComparing(Repository::stargazersCount, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final int candidatePages;
+    private final int topK;
+
+    public PopularityRanker(
+            @Value("${search.popularity.candidate-pages}") int candidatePages,
+            @Value("${search.popularity.top-k}") int topK
+    ) {
+        this.candidatePages = candidatePages;
+        this.topK = topK;
+    }
+
+    /**
+     * Looks up the candidates of the search and ranks them, serving a block of the ranked window.
+     *
+     * @param block A block of a popularity sorted search, its page and size telling which part of the window it is
+     * @param candidates Looks up a page of candidates, its repositories scored
+     * @return Mono emitting the repositories of the window in the block, in the direction asked for, with total
+     *         being the number of repositories in the window
+     */
+    public Mono<SearchResults> rankBlock(SearchRequest block, Function<SearchRequest, Mono<SearchResults>> candidates) {
+        return Flux.range(1, candidatePages)
+            .flatMap(page -> candidates.apply(candidatesRequest(block, page)))
+            .flatMapIterable(SearchResults::items)
+            // a repository may move from one page to another while they are being fetched
+            .distinct(Repository::id)
+            .collect(() -> new PriorityQueue<>(topK + 1, BY_POPULARITY), this::keepTopK)
+            .map(heap -> {
+                List<Repository> ranked = new ArrayList<>(heap);
+                ranked.sort(BY_POPULARITY.reversed());
+                return page(ranked, block);
+            });
+    }
+
+    private static SearchResults page(List<Repository> ranked, SearchRequest block) {
+        int total = ranked.size();
+        if (block.direction() == SortDirection.ASC) {
+            ranked = ranked.reversed();
+        }
+
+        int from = (int) Math.min(total, (block.page() - 1L) * block.size());
+        int to = Math.min(total, from + block.size());
+        return new SearchResults(total, ranked.subList(from, to));
+    }
+
+    private void keepTopK(PriorityQueue<Repository> heap, Repository candidate) {
+        // min-heap: once full, a candidate only gets in by pushing out the least popular one
+        heap.offer(candidate);
+        if (heap.size() > topK) {
+            heap.poll();
+        }
+    }
+
+    private static SearchRequest candidatesRequest(SearchRequest block, int page) {
+        return new SearchRequest(block.language(), block.createdSince(), SortField.STARS,
+            SortDirection.DESC, page, SearchRequest.MAX_SIZE);
+    }
+}
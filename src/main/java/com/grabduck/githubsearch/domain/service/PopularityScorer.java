@@ -0,0 +1,81 @@
+package com.grabduck.githubsearch.domain.service;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+import com.grabduck.githubsearch.domain.model.Repository;
+import com.grabduck.githubsearch.domain.model.SearchResults;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Scoring stage of the search: computes the popularity score of every repository in a result set.
+ *
+ * All repositories of a result set are scored against the same moment, taken once from the clock, so
+ * a page always carries consistent scores and a cached page doesn't change them from one response to another.
+ */
+@Component
+@RequiredArgsConstructor
+public class PopularityScorer {
+
+    private static final double STARS_WEIGHT = 0.7;
+    private static final double FORKS_WEIGHT = 0.2;
+    private static final double RECENCY_WEIGHT = 0.1;
+
+    // Scaling factor for recency score to make it comparable to stars and forks
+    private static final double RECENCY_SCALE_FACTOR = 10.0;
+
+    private static final long SECONDS_PER_DAY = 24 * 60 * 60;
+
+    private final Clock clock;
+
+    /**
+     * Scores all repositories of the results as of now.
+     *
+     * @return The same results with scored repositories
+     */
+    public SearchResults score(SearchResults results) {
+        long nowEpochSecond = clock.instant().getEpochSecond();
+
+        List<Repository> scored = new ArrayList<>(results.items().size());
+        for (Repository repository : results.items()) {
+            scored.add(repository.withPopularityScore(score(repository, nowEpochSecond)));
+        }
+        return new SearchResults(results.total(), scored);
+    }
+
+    /**
+     * Calculates a popularity score based on stars, forks and update recency. Each component has it's own predefined weight.
+     *
+     * @param now The moment the repository is scored at
+     * @return A final score of the repository
+     */
+    public static int score(Repository repository, Instant now) {
+        return score(repository, now.getEpochSecond());
+    }
+
+    private static int score(Repository repository, long nowEpochSecond) {
+        double starsScore = repository.stargazersCount() != null ? repository.stargazersCount() : 0;
+        double forksScore = repository.forksCount() != null ? repository.forksCount() : 0;
+        double recencyScore = recencyScore(repository.updatedAt(), nowEpochSecond);
+        double score = (starsScore * STARS_WEIGHT) + (forksScore * FORKS_WEIGHT) + (recencyScore * RECENCY_WEIGHT);
+        return (int) Math.round(score);
+    }
+
+    /**
+     * Calculates a recency score using inverse proportionality (1/daysOld) so newer repositories get higher scores which is in line with stars and forks scores.
+     *
+     * @return A recency score where higher values indicate more recently updated repositories
+     */
+    private static double recencyScore(Instant updatedAt, long nowEpochSecond) {
+        if (updatedAt == null) {
+            return 0.0;
+        }
+
+        // plain arithmetic on epoch seconds, so that scoring a page doesn't allocate a Duration per repository
+        long daysOld = Math.max(0, (nowEpochSecond - updatedAt.getEpochSecond()) / SECONDS_PER_DAY);
+        return RECENCY_SCALE_FACTOR / (daysOld + 1);
+    }
+}
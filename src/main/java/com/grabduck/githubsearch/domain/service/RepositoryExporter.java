@@ -0,0 +1,145 @@
+package com.grabduck.githubsearch.domain.service;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import com.grabduck.githubsearch.domain.model.CreatedRange;
+import com.grabduck.githubsearch.domain.model.ExportRequest;
+import com.grabduck.githubsearch.domain.model.ExportSlice;
+import com.grabduck.githubsearch.domain.model.Repository;
+import com.grabduck.githubsearch.domain.model.SearchRequest;
+import com.grabduck.githubsearch.domain.model.SearchResults;
+import com.grabduck.githubsearch.domain.model.SortDirection;
+import com.grabduck.githubsearch.domain.model.SortField;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Exports all repositories matching a search, well beyond the 1000 results GitHub lets any search page through.
+ *
+ * The range of creation dates is split in halves until each slice matches at most 1000 repositories; the first
+ * page of every probe is kept, so a slice that needs no splitting costs no extra call. Slices are probed one at
+ * a time, oldest first, and fetched a few at a time (search.export.concurrency), so the export stays within the rate
+ * limit budget alongside regular searches. Exports bypass the search results cache.
+ *
+ * Slices are emitted complete and in order of creation time, so the end of the last emitted slice is a
+ * checkpoint an interrupted export can be resumed from.
+ */
+@Slf4j
+@Component
+public class RepositoryExporter {
+
+    private final RepositoryProvider repositoryProvider;
+    private final PopularityScorer popularityScorer;
+    private final Clock clock;
+    private final int concurrency;
+
+    public RepositoryExporter(
+            RepositoryProvider repositoryProvider,
+            PopularityScorer popularityScorer,
+            Clock clock,
+            @Value("${search.export.concurrency}") int concurrency
+    ) {
+        this.repositoryProvider = repositoryProvider;
+        this.popularityScorer = popularityScorer;
+        this.clock = clock;
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Exports the repositories matching the request, slice by slice.
+     *
+     * @param request The export criteria
+     * @return Flux emitting the slices of the export in order of creation time,
+     *         or failing with RepositorySearchException as soon as any search fails
+     */
+    public Flux<ExportSlice> export(ExportRequest request) {
+        return export(request, Mono.empty());
+    }
+
+    /**
+     * Same export as {@link #export(ExportRequest)}, each of its searches waiting for the gate to complete first,
+     * e.g. so that a background export leaves the rate limit budget to regular searches.
+     *
+     * @param request The export criteria
+     * @param beforeEachSearch Subscribed to before every search of the export, the search is made once it completes
+     */
+    public Flux<ExportSlice> export(ExportRequest request, Mono<Void> beforeEachSearch) {
+        return Flux.defer(() -> {
+            Instant from = request.createdSince().atStartOfDay(ZoneOffset.UTC).toInstant();
+            // up to now rather than the end of today, so that the last checkpoint is where a later export picks up
+            Instant to = request.createdUntil() != null
+                ? CreatedRange.ofDays(request.createdUntil(), request.createdUntil()).to()
+                : clock.instant();
+            if (request.resumeAfter() != null && !request.resumeAfter().isBefore(from)) {
+                from = request.resumeAfter().plusSeconds(1);
+            }
+            if (from.isAfter(to)) {
+                return Flux.empty();
+            }
+            CreatedRange range = new CreatedRange(from, to);
+
+            Function<SearchRequest, Mono<SearchResults>> search =
+                sliceRequest -> beforeEachSearch.then(repositoryProvider.findRepositories(sliceRequest));
+            return slices(search, request.language(), range)
+                .flatMapSequential(slice -> fetch(search, request.language(), slice), concurrency);
+        });
+    }
+
+    private Flux<Slice> slices(Function<SearchRequest, Mono<SearchResults>> search, String language,
+                               CreatedRange range) {
+        // depth first, so slices come out oldest first
+        return probe(search, language, range)
+            .expandDeep(slice -> slice.needsSplit()
+                ? Flux.fromIterable(slice.range().split()).concatMap(half -> probe(search, language, half))
+                : Flux.empty())
+            .filter(slice -> !slice.needsSplit());
+    }
+
+    private Mono<Slice> probe(Function<SearchRequest, Mono<SearchResults>> search, String language,
+                              CreatedRange range) {
+        return search.apply(sliceRequest(language, range, 1))
+            .map(firstPage -> new Slice(range, firstPage));
+    }
+
+    private Mono<ExportSlice> fetch(Function<SearchRequest, Mono<SearchResults>> search, String language,
+                                    Slice slice) {
+        int total = slice.firstPage().total();
+        boolean truncated = total > SearchRequest.RESULTS_CAP;
+        if (truncated) {
+            log.warn("{} repositories created within {}..{}, only the first {} of them are exported",
+                total, slice.range().from(), slice.range().to(), SearchRequest.RESULTS_CAP);
+        }
+
+        int pages = (Math.min(total, SearchRequest.RESULTS_CAP) + SearchRequest.MAX_SIZE - 1) / SearchRequest.MAX_SIZE;
+        return Flux.range(2, Math.max(0, pages - 1))
+            .concatMap(page -> search.apply(sliceRequest(language, slice.range(), page)))
+            .startWith(slice.firstPage())
+            .map(popularityScorer::score)
+            .flatMapIterable(SearchResults::items)
+            // a repository may move from one page to another while they are being fetched
+            .distinct(Repository::id)
+            .collectList()
+            .map(repositories -> new ExportSlice(slice.range(), repositories, truncated));
+    }
+
+    private static SearchRequest sliceRequest(String language, CreatedRange range, int page) {
+        return new SearchRequest(language, range.from().atZone(ZoneOffset.UTC).toLocalDate(),
+            SortField.STARS, SortDirection.DESC, page, SearchRequest.MAX_SIZE, range);
+    }
+
+    /**
+     * A slice of the export range with the first page of its search.
+     */
+    private record Slice(CreatedRange range, SearchResults firstPage) {
+
+        boolean needsSplit() {
+            return firstPage.total() > SearchRequest.RESULTS_CAP && range.isSplittable();
+        }
+    }
+}
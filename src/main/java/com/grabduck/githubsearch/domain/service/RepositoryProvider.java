@@ -3,11 +3,14 @@ package com.grabduck.githubsearch.domain.service;
 import com.grabduck.githubsearch.domain.model.SearchRequest;
 import com.grabduck.githubsearch.domain.model.SearchResults;
 
+import reactor.core.publisher.Mono;
+
 /**
  * An interface for repository data providers.
  * 
  * Following hexagonal architecture principles, this interface belongs to the domain layer,
  * while implementations will be in the infrastructure/adapter layer.
+ * Implementations must not block, the whole request path is non-blocking.
  */
 public interface RepositoryProvider {
     
@@ -15,7 +18,7 @@ public interface RepositoryProvider {
      * Find repositories matching the given criteria.
      * 
      * @param criteria Search criteria containing all filtering, sorting and pagination parameters
-     * @return SearchResults containing matching repositories and total count
+     * @return Mono emitting SearchResults containing matching repositories and total count
      */
-    SearchResults findRepositories(SearchRequest criteria);
+    Mono<SearchResults> findRepositories(SearchRequest criteria);
 }
@@ -1,30 +1,256 @@
 package com.grabduck.githubsearch.domain.service;
 
-import org.springframework.cache.annotation.Cacheable;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
 import org.springframework.stereotype.Service;
+import com.grabduck.githubsearch.domain.exceptions.RepositorySearchException;
+import com.grabduck.githubsearch.domain.model.CachedSearchResults;
+import com.grabduck.githubsearch.domain.model.Repository;
 import com.grabduck.githubsearch.domain.model.SearchRequest;
 import com.grabduck.githubsearch.domain.model.SearchResults;
-import lombok.RequiredArgsConstructor;
+import com.grabduck.githubsearch.domain.model.ServedPage;
+import com.grabduck.githubsearch.domain.model.SortField;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
 
 /**
  * Service for searching and retrieving GitHub repositories
  */
+@Slf4j
 @Service
-@RequiredArgsConstructor
 public class RepositoryService {
-    
+
+    private static final String CACHE_NAME = "repositories";
+
+    // searches are fetched and cached in blocks of the largest page GitHub serves
+    static final int BLOCK_SIZE = SearchRequest.MAX_SIZE;
+
     private final RepositoryProvider repositoryProvider;
-    
+    private final PopularityScorer popularityScorer;
+    private final PopularityRanker popularityRanker;
+    private final HotSearches hotSearches;
+    private final Cache cache;
+    private final Clock clock;
+    private final Duration softTtl;
+    private final Duration hardTtl;
+
+    private volatile Consumer<ServedPage> pageListener = page -> {};
+
+    public RepositoryService(
+            RepositoryProvider repositoryProvider,
+            PopularityScorer popularityScorer,
+            PopularityRanker popularityRanker,
+            HotSearches hotSearches,
+            CacheManager cacheManager,
+            Clock clock,
+            @Value("${cache.repositories.soft-ttl}") Duration softTtl,
+            @Value("${cache.repositories.hard-ttl}") Duration hardTtl
+    ) {
+        this.repositoryProvider = repositoryProvider;
+        this.popularityScorer = popularityScorer;
+        this.popularityRanker = popularityRanker;
+        this.hotSearches = hotSearches;
+        this.cache = cacheManager.getCache(CACHE_NAME);
+        this.clock = clock;
+        this.softTtl = softTtl;
+        this.hardTtl = hardTtl;
+    }
+
     /**
      * Search for repositories based on the provided criteria.
-     * Results are cached to minimize GitHub API calls.
+     * Results are cached to minimize GitHub API calls, with stale-while-revalidate semantics:
+     * - younger than the soft TTL, cached results are served as they are;
+     * - older than the soft TTL, cached results are still served right away while they are refreshed in the background;
+     * - older than the hard TTL, results are fetched again, but if that fails (e.g. GitHub is unavailable or
+     *   we are out of rate limit) the cached results are served rather than the error.
+     * Whatever the page size, results are fetched and cached in blocks of 100 (the largest page GitHub serves),
+     * and pages are cut out of the blocks they overlap, so that pages of different sizes share cached results.
+     * Searches sorted by popularity are served from a ranked window of candidates, in blocks cached the same way.
      * 
      * @param request The search criteria
-     * @return Search results containing scored repositories
-     * @throws RepositorySearchException if the search fails
+     * @return Mono emitting search results containing scored repositories, 
+     *         or failing with RepositorySearchException if the search fails and nothing is cached
+     */
+    public Mono<SearchResults> searchRepositories(SearchRequest request) {
+        return searchCachedRepositories(request).map(CachedSearchResults::results);
+    }
+
+    /**
+     * Same search as {@link #searchRepositories(SearchRequest)}, with the time the served results were fetched,
+     * that of the oldest block when the page was cut out of two.
+     */
+    public Mono<CachedSearchResults> searchCachedRepositories(SearchRequest request) {
+        List<SearchRequest> blocks = blocks(request);
+        return cachedBlocks(blocks).map(results -> {
+            List<SearchRequest> served = blocks.subList(0, results.size());
+            CachedSearchResults page = page(request, results);
+            pageListener.accept(
+                new ServedPage(request, served, nextBlock(request, served.getLast(), page.results().total())));
+            return page;
+        });
+    }
+
+    /**
+     * How long served results stay fresh, that is served again without being refreshed. Zero once they are older
+     * than the soft TTL.
+     */
+    public Duration freshFor(CachedSearchResults served) {
+        Duration freshFor = softTtl.minus(served.age(clock));
+        return freshFor.isNegative() ? Duration.ZERO : freshFor;
+    }
+
+    /**
+     * Registers what to do after a page of results has been served, e.g. prefetch the block of the next one (see
+     * NextPagePrefetcher). Called on the thread serving the page, so it must not block.
+     */
+    public void onPageServed(Consumer<ServedPage> listener) {
+        this.pageListener = listener;
+    }
+
+    /**
+     * Fetches the results of a search into the cache ahead of the searches to come, unless the cached results
+     * stay younger than the hard TTL for at least the given time. Until then they are served without waiting
+     * for GitHub, and refreshed in the background by the searches themselves.
+     *
+     * @param cacheKey The search as counted by HotSearches, a block of results
+     * @param freshFor How long the cached results have to stay servable not to be fetched again
+     * @return Mono emitting whether the search was fetched,
+     *         or failing with RepositorySearchException if fetching it fails
      */
-    @Cacheable("repositories")
-    public SearchResults searchRepositories(SearchRequest request) {
-        return repositoryProvider.findRepositories(request);
+    public Mono<Boolean> prewarm(SearchRequest cacheKey, Duration freshFor) {
+        return lookup(cacheKey)
+            .filter(cached -> cached.age(clock).plus(freshFor).compareTo(hardTtl) < 0)
+            .map(cached -> false)
+            .switchIfEmpty(Mono.defer(() -> fetch(cacheKey).thenReturn(true)));
+    }
+
+    private Mono<CachedSearchResults> cachedSearch(SearchRequest request) {
+        return lookup(request).flatMap(cached -> {
+            Duration age = cached.age(clock);
+            if (age.compareTo(softTtl) < 0) {
+                return Mono.just(cached);
+            }
+
+            if (age.compareTo(hardTtl) < 0) {
+                refreshInBackground(request);
+                return Mono.just(cached);
+            }
+
+            return fetch(request)
+                .onErrorResume(RepositorySearchException.class, e -> {
+                    log.warn("Search failed, serving results cached {} ago: {}", age, e.getMessage());
+                    return Mono.just(cached);
+                });
+        }).switchIfEmpty(Mono.defer(() -> fetch(request)));
+    }
+
+    /**
+     * The cached results of the search. Caches with tiers behind the heap (on disk, in Redis) are looked up with
+     * retrieve, which reads those tiers without blocking the calling thread, possibly a Netty event loop.
+     * A plain on-heap CaffeineCache only supports retrieve in async mode, it is looked up in place.
+     */
+    private Mono<CachedSearchResults> lookup(SearchRequest request) {
+        return Mono.defer(() -> {
+            if (cache instanceof CaffeineCache) {
+                return Mono.justOrEmpty(cache.get(request, CachedSearchResults.class));
+            }
+            CompletableFuture<?> retrieved = cache.retrieve(request);
+            return retrieved == null ? Mono.empty() : Mono.fromFuture(retrieved)
+                // caches allowing null values hand them out wrapped
+                .mapNotNull(value -> value instanceof Cache.ValueWrapper wrapper ? wrapper.get() : value)
+                .cast(CachedSearchResults.class);
+        });
+    }
+
+    private Mono<CachedSearchResults> fetch(SearchRequest request) {
+        // scored once per fetch, so cached results keep the scores they were served with
+        Mono<SearchResults> fetched = request.sort() == SortField.POPULARITY
+            // the candidates are blocks of the search sorted by stars, served from the cache when they are there
+            ? popularityRanker.rankBlock(request, block -> cachedSearch(block).map(CachedSearchResults::results))
+            : repositoryProvider.findRepositories(request).map(popularityScorer::score);
+
+        return fetched
+            .map(results -> new CachedSearchResults(results, clock.instant()))
+            .doOnNext(results -> cache.put(request, results));
+    }
+
+    /**
+     * The cached results of the blocks a page overlaps. The second block is only looked up when the results of the
+     * search go on into it, a page at the end of the results being served out of the first block alone.
+     */
+    private Mono<List<CachedSearchResults>> cachedBlocks(List<SearchRequest> blocks) {
+        hotSearches.record(blocks.getFirst());
+        return cachedSearch(blocks.getFirst()).flatMap(first -> {
+            if (blocks.size() == 1 || first.results().total() <= start(blocks.getLast())) {
+                return Mono.just(List.of(first));
+            }
+            hotSearches.record(blocks.getLast());
+            return cachedSearch(blocks.getLast()).map(last -> List.of(first, last));
+        });
+    }
+
+    /**
+     * The blocks a page overlaps, at most two as pages are at most a block large. A second block starting past the
+     * first 1000 results is left out, GitHub refusing to serve it, so the last page before the cap comes out short.
+     */
+    private static List<SearchRequest> blocks(SearchRequest request) {
+        long offset = (long) (request.page() - 1) * request.size();
+        int first = (int) (offset / BLOCK_SIZE);
+        int last = (int) ((offset + request.size() - 1) / BLOCK_SIZE);
+        return first == last || (long) last * BLOCK_SIZE >= SearchRequest.RESULTS_CAP
+            ? List.of(block(request, first))
+            : List.of(block(request, first), block(request, last));
+    }
+
+    private static long start(SearchRequest block) {
+        return (long) (block.page() - 1) * BLOCK_SIZE;
+    }
+
+    private static SearchRequest block(SearchRequest request, int index) {
+        return new SearchRequest(request.language(), request.createdSince(), request.sort(), request.direction(),
+            index + 1, BLOCK_SIZE, request.createdWithin());
+    }
+
+    private static CachedSearchResults page(SearchRequest request, List<CachedSearchResults> blocks) {
+        long offset = (long) (request.page() - 1) * request.size();
+        List<Repository> items = blocks.stream()
+            .flatMap(block -> block.results().items().stream())
+            .skip(offset % BLOCK_SIZE)
+            .limit(request.size())
+            .toList();
+        Instant fetchedAt = blocks.stream().map(CachedSearchResults::fetchedAt).min(Comparator.naturalOrder()).orElseThrow();
+        return new CachedSearchResults(new SearchResults(blocks.getFirst().results().total(), items), fetchedAt);
+    }
+
+    /**
+     * The block the next page ends in, or null if the next page is served from the page's own blocks or there
+     * is no next page, GitHub serving at most the first 1000 results.
+     */
+    private static SearchRequest nextBlock(SearchRequest request, SearchRequest lastBlock, int total) {
+        long end = (long) request.page() * request.size();
+        long nextEnd = Math.min(end + request.size(), Math.min(total, SearchRequest.RESULTS_CAP));
+        if (nextEnd <= end) {
+            return null;
+        }
+        int index = (int) ((nextEnd - 1) / BLOCK_SIZE);
+        return index + 1 > lastBlock.page() ? block(request, index) : null;
+    }
+
+    private void refreshInBackground(SearchRequest request) {
+        // identical refreshes triggered while one is in flight are coalesced by the provider
+        fetch(request).subscribe(
+            results -> {},
+            e -> log.warn("Background refresh failed, cached results are served until the hard TTL: {}", e.getMessage())
+        );
     }
 }
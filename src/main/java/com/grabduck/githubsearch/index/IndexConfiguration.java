@@ -0,0 +1,37 @@
+package com.grabduck.githubsearch.index;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Sets up the local repository index when it is enabled (index.enabled=true).
+ */
+@Configuration
+@ConditionalOnProperty(name = "index.enabled", havingValue = "true")
+public class IndexConfiguration {
+
+    /**
+     * The index, loaded from its directory. Publishes "index.repositories" gauge.
+     */
+    @Bean
+    public RepositoryIndex repositoryIndex(
+            @Value("${index.directory}") Path directory,
+            @Value("${index.created-since}") LocalDate createdSince,
+            @Value("${index.max-segments}") int maxSegments,
+            MeterRegistry meterRegistry
+    ) {
+        RepositoryIndex index = RepositoryIndex.open(directory, createdSince, maxSegments);
+        Gauge.builder("index.repositories", index, RepositoryIndex::size)
+                .description("Number of repositories in the local index")
+                .register(meterRegistry);
+        return index;
+    }
+}
@@ -0,0 +1,23 @@
+package com.grabduck.githubsearch.index;
+
+import com.grabduck.githubsearch.domain.model.Repository;
+
+/**
+ * Sort and filter keys of an indexed repository, with where the repository itself is stored.
+ * Times are epoch seconds and counts may be null markers, as stored in the segment.
+ */
+record IndexEntry(
+    long id,
+    String language,
+    long createdAt,
+    long updatedAt,
+    int stars,
+    int forks,
+    IndexSegment segment,
+    int offset
+) {
+
+    Repository read() {
+        return segment.read(offset);
+    }
+}
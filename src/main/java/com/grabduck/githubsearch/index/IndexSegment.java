@@ -0,0 +1,209 @@
+package com.grabduck.githubsearch.index;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+import com.grabduck.githubsearch.domain.model.Repository;
+
+/**
+ * Immutable file of repository records, memory-mapped for reading.
+ *
+ * A segment is written in one go and never modified afterwards. Its records are read in place: opening a
+ * segment only maps it, and a repository is decoded from the mapping when a search actually returns it.
+ *
+ * Layout: a header (magic, version, record count) followed by the records, each of them a length prefix and
+ * id, creation and update times, stars, forks, language, name, full name, URL and description.
+ * Strings are UTF-8 with a length prefix, -1 for null.
+ */
+class IndexSegment {
+
+    private static final int MAGIC = 0x47524958; // "GRIX"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 3 * Integer.BYTES;
+
+    private static final long NULL_TIME = Long.MIN_VALUE;
+    private static final int NULL_COUNT = Integer.MIN_VALUE;
+
+    private final Path path;
+    private final ByteBuffer buffer;
+    private final int recordCount;
+
+    private IndexSegment(Path path, ByteBuffer buffer) {
+        this.path = path;
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IllegalStateException("Not an index segment: " + path);
+        }
+        if (buffer.getInt(Integer.BYTES) != VERSION) {
+            throw new IllegalStateException("Unsupported index segment version " + buffer.getInt(Integer.BYTES) + ": " + path);
+        }
+        this.recordCount = buffer.getInt(2 * Integer.BYTES);
+    }
+
+    /**
+     * Maps an existing segment.
+     */
+    static IndexSegment open(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new IndexSegment(path, buffer);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open index segment " + path, e);
+        }
+    }
+
+    /**
+     * Writes the repositories to a new segment and maps it. The segment appears under its path only once
+     * it has been written completely.
+     */
+    static IndexSegment write(Path path, Collection<Repository> repositories) {
+        Path tempFile = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tempFile,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).putInt(repositories.size());
+            writeFully(channel, header.flip());
+            for (Repository repository : repositories) {
+                writeFully(channel, encode(repository));
+            }
+            channel.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write index segment " + path, e);
+        }
+
+        try {
+            Files.move(tempFile, path, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write index segment " + path, e);
+        }
+        return open(path);
+    }
+
+    Path path() {
+        return path;
+    }
+
+    int recordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Reads the sort and filter keys of every record, in the order they were written.
+     */
+    void forEachEntry(Consumer<IndexEntry> consumer) {
+        int offset = HEADER_SIZE;
+        for (int i = 0; i < recordCount; i++) {
+            int length = buffer.getInt(offset);
+            int position = offset + Integer.BYTES;
+
+            long id = buffer.getLong(position);
+            long createdAt = buffer.getLong(position + 8);
+            long updatedAt = buffer.getLong(position + 16);
+            int stars = buffer.getInt(position + 24);
+            int forks = buffer.getInt(position + 28);
+            String language = readString(position + 32);
+
+            consumer.accept(new IndexEntry(id, language, createdAt, updatedAt, stars, forks, this, offset));
+            offset = position + length;
+        }
+    }
+
+    /**
+     * Decodes the repository stored at the given offset.
+     */
+    Repository read(int offset) {
+        int position = offset + Integer.BYTES;
+
+        long id = buffer.getLong(position);
+        long createdAt = buffer.getLong(position + 8);
+        long updatedAt = buffer.getLong(position + 16);
+        int stars = buffer.getInt(position + 24);
+        int forks = buffer.getInt(position + 28);
+
+        position += 32;
+        String language = readString(position);
+        position += stringSize(position);
+        String name = readString(position);
+        position += stringSize(position);
+        String fullName = readString(position);
+        position += stringSize(position);
+        String url = readString(position);
+        position += stringSize(position);
+        String description = readString(position);
+
+        return new Repository(id, name, fullName, url, description, toInstant(createdAt), toInstant(updatedAt),
+            language, toCount(stars), toCount(forks));
+    }
+
+    private static ByteBuffer encode(Repository repository) {
+        byte[][] strings = {
+            bytes(repository.language()),
+            bytes(repository.name()),
+            bytes(repository.fullName()),
+            bytes(repository.url()),
+            bytes(repository.description())
+        };
+        int length = 3 * Long.BYTES + 2 * Integer.BYTES;
+        for (byte[] string : strings) {
+            length += Integer.BYTES + (string != null ? string.length : 0);
+        }
+
+        ByteBuffer record = ByteBuffer.allocate(Integer.BYTES + length)
+            .putInt(length)
+            .putLong(repository.id())
+            .putLong(repository.createdAt() != null ? repository.createdAt().getEpochSecond() : NULL_TIME)
+            .putLong(repository.updatedAt() != null ? repository.updatedAt().getEpochSecond() : NULL_TIME)
+            .putInt(repository.stargazersCount() != null ? repository.stargazersCount() : NULL_COUNT)
+            .putInt(repository.forksCount() != null ? repository.forksCount() : NULL_COUNT);
+        for (byte[] string : strings) {
+            if (string == null) {
+                record.putInt(-1);
+            } else {
+                record.putInt(string.length).put(string);
+            }
+        }
+        return record.flip();
+    }
+
+    private String readString(int position) {
+        int length = buffer.getInt(position);
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(position + Integer.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int stringSize(int position) {
+        return Integer.BYTES + Math.max(0, buffer.getInt(position));
+    }
+
+    private static byte[] bytes(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static Instant toInstant(long epochSecond) {
+        return epochSecond != NULL_TIME ? Instant.ofEpochSecond(epochSecond) : null;
+    }
+
+    private static Integer toCount(int count) {
+        return count != NULL_COUNT ? count : null;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
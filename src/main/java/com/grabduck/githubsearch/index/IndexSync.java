@@ -0,0 +1,158 @@
+package com.grabduck.githubsearch.index;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import com.grabduck.githubsearch.client.GitHubTokenPool;
+import com.grabduck.githubsearch.domain.model.ExportRequest;
+import com.grabduck.githubsearch.domain.service.RepositoryExporter;
+import com.grabduck.githubsearch.index.RepositoryIndex.SyncState;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Keeps the local repository index in sync with GitHub, in the background.
+ *
+ * Every sync-interval, each configured language is exported from GitHub (see RepositoryExporter) into the index,
+ * resuming after the checkpoint of the previous sync, so only repositories created since then are fetched.
+ * Every full-sync-interval a language is synced again from scratch to refresh the stars, forks and update times
+ * of the repositories already indexed, and to drop those GitHub no longer returns; the index keeps serving the
+ * previous data meanwhile.
+ *
+ * A language is covered by the index, and its searches answered locally, once its first sync has completed.
+ * A failed sync (e.g. out of rate limit) is picked up from its last checkpoint on the next run.
+ *
+ * Syncing only uses spare rate limit budget: a sync pauses before its next call to GitHub while fewer than
+ * reserved-permits calls are left in the client-side token bucket, which are kept for regular searches.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "index.enabled", havingValue = "true")
+public class IndexSync {
+
+    // GitHub's search index lags behind repository creation, the newest repositories are synced once more next time
+    private static final Duration SEARCH_INDEX_LAG = Duration.ofHours(1);
+    // how often a paused sync checks whether the token bucket has refilled
+    private static final Duration SPARE_BUDGET_CHECK_INTERVAL = Duration.ofSeconds(1);
+
+    private final RepositoryIndex index;
+    private final RepositoryExporter repositoryExporter;
+    private final GitHubTokenPool tokenPool;
+    private final Clock clock;
+    private final List<String> languages;
+    private final Duration syncInterval;
+    private final Duration fullSyncInterval;
+    private final int reservedPermits;
+
+    private Disposable syncs;
+
+    public IndexSync(
+            RepositoryIndex index,
+            RepositoryExporter repositoryExporter,
+            GitHubTokenPool tokenPool,
+            Clock clock,
+            @Value("${index.languages:}") List<String> languages,
+            @Value("${index.sync-interval}") Duration syncInterval,
+            @Value("${index.full-sync-interval}") Duration fullSyncInterval,
+            @Value("${index.reserved-permits}") int reservedPermits
+    ) {
+        this.index = index;
+        this.repositoryExporter = repositoryExporter;
+        this.tokenPool = tokenPool;
+        this.clock = clock;
+        this.languages = languages.stream().filter(StringUtils::hasText).map(String::trim).toList();
+        this.syncInterval = syncInterval;
+        this.fullSyncInterval = fullSyncInterval;
+        this.reservedPermits = reservedPermits;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (languages.isEmpty()) {
+            log.warn("Repository index is enabled but no languages are configured to sync, all searches go to GitHub");
+            return;
+        }
+        syncs = Flux.interval(Duration.ZERO, syncInterval)
+            .onBackpressureDrop()
+            .concatMap(tick -> syncAll(), 1)
+            .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (syncs != null) {
+            syncs.dispose();
+        }
+    }
+
+    /**
+     * Syncs all the configured languages, one after another.
+     */
+    Mono<Void> syncAll() {
+        return Flux.fromIterable(languages)
+            .concatMap(this::sync)
+            .then();
+    }
+
+    /**
+     * Syncs the repositories of the language created since the last checkpoint, or all of them when it is
+     * time for a full sync. Never fails, a failed sync is logged and resumed next time.
+     */
+    Mono<Void> sync(String language) {
+        return Mono.defer(() -> {
+            Instant now = clock.instant();
+            SyncState state = index.syncState(language);
+            if (state.fullSyncStartedAt() == null
+                    || (state.covered() && state.fullSyncStartedAt().plus(fullSyncInterval).isBefore(now))) {
+                log.info("Starting full sync of {} repositories into the index", language);
+                index.startFullSync(language, now);
+                state = index.syncState(language);
+            }
+
+            Instant resumeAfter = state.checkpoint() != null ? state.checkpoint().minus(SEARCH_INDEX_LAG) : null;
+            ExportRequest request = new ExportRequest(language, index.createdSince(), null, resumeAfter);
+
+            return repositoryExporter.export(request, spareBudget())
+                // writing segments is blocking I/O
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(slice -> index.add(language, slice.repositories(), slice.range().to()))
+                .then(Mono.fromRunnable(() -> index.completeSync(language)))
+                .doOnSuccess(done -> log.debug("Synced {} repositories into the index", language))
+                .onErrorResume(e -> {
+                    log.warn("Sync of {} repositories into the index failed, it is resumed on the next run: {}",
+                        language, e.getMessage());
+                    // what was synced before the failure is served meanwhile
+                    return Mono.fromRunnable(index::publish);
+                })
+                .then();
+        });
+    }
+
+    /**
+     * Completes once more than reserved-permits calls are left in the token bucket, checking every second.
+     */
+    private Mono<Void> spareBudget() {
+        return Mono.fromSupplier(this::hasSpareBudget)
+            .filter(spare -> spare)
+            .repeatWhenEmpty(checks -> checks.delayElements(SPARE_BUDGET_CHECK_INTERVAL))
+            .then();
+    }
+
+    private boolean hasSpareBudget() {
+        return !tokenPool.isExhausted() && tokenPool.leastUsed().budget().availableTokens() >= reservedPermits + 1;
+    }
+}
@@ -0,0 +1,59 @@
+package com.grabduck.githubsearch.index;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import com.grabduck.githubsearch.client.GitHubRepositoryAdapter;
+import com.grabduck.githubsearch.domain.model.SearchRequest;
+import com.grabduck.githubsearch.domain.model.SearchResults;
+import com.grabduck.githubsearch.domain.service.RepositoryProvider;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.NonNull;
+import reactor.core.publisher.Mono;
+
+/**
+ * RepositoryProvider answering the searches covered by the local index from it, and all the others
+ * (languages not synced yet, dates before the index starts, slices of exports) from GitHub.
+ *
+ * Publishes "index.searches" counter tagged with the source the search was answered from, "index" or "github".
+ */
+@Primary
+@Component
+@ConditionalOnProperty(name = "index.enabled", havingValue = "true")
+public class IndexedRepositoryProvider implements RepositoryProvider {
+
+    private final RepositoryIndex index;
+    private final GitHubRepositoryAdapter gitHubRepositoryAdapter;
+    private final Counter indexSearches;
+    private final Counter gitHubSearches;
+
+    public IndexedRepositoryProvider(
+            RepositoryIndex index,
+            GitHubRepositoryAdapter gitHubRepositoryAdapter,
+            MeterRegistry meterRegistry
+    ) {
+        this.index = index;
+        this.gitHubRepositoryAdapter = gitHubRepositoryAdapter;
+        this.indexSearches = Counter.builder("index.searches")
+                .description("Searches grouped by whether the local index or GitHub answered them")
+                .tag("source", "index")
+                .register(meterRegistry);
+        this.gitHubSearches = Counter.builder("index.searches")
+                .description("Searches grouped by whether the local index or GitHub answered them")
+                .tag("source", "github")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<SearchResults> findRepositories(@NonNull SearchRequest request) {
+        if (index.covers(request)) {
+            indexSearches.increment();
+            return Mono.fromSupplier(() -> index.search(request));
+        }
+        gitHubSearches.increment();
+        return gitHubRepositoryAdapter.findRepositories(request);
+    }
+}
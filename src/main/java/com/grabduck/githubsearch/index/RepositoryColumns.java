@@ -0,0 +1,316 @@
+package com.grabduck.githubsearch.index;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.function.IntToLongFunction;
+
+import com.grabduck.githubsearch.domain.model.Repository;
+import com.grabduck.githubsearch.domain.model.SearchRequest;
+import com.grabduck.githubsearch.domain.model.SearchResults;
+import com.grabduck.githubsearch.domain.model.SortDirection;
+import com.grabduck.githubsearch.domain.model.SortField;
+
+/**
+ * Immutable columnar store of the sort and filter keys of repositories, answering searches by scanning
+ * primitive arrays rather than lists of records with boxed fields.
+ *
+ * Every repository is a row: ids, creation and update times (epoch seconds) and stars and forks are each held
+ * in a primitive array, and languages are dictionary-encoded to a short per row. For every language there are
+ * row numbers sorted by creation time (to count the matches of a createdSince filter by binary search) and by
+ * every field searches sort by, ties broken by id. A search walks the rows of its language in sort order,
+ * filters them on the creation time column and materializes only the repositories of the requested page.
+ *
+ * The store is rebuilt as a whole whenever the index changes, so searches never need a lock.
+ */
+public final class RepositoryColumns {
+
+    static final RepositoryColumns EMPTY = ofEntries(List.of());
+
+    private static final long NULL_TIME = Long.MIN_VALUE;
+    private static final int NULL_COUNT = Integer.MIN_VALUE;
+
+    private final long[] ids;
+    private final short[] languages;
+    private final long[] createdAt;
+    private final long[] updatedAt;
+    private final int[] stars;
+    private final int[] forks;
+
+    private final Map<String, Short> languageCodes;
+    private final Partition[] partitions;
+    private final IntFunction<Repository> rowReader;
+
+    private RepositoryColumns(Builder builder, IntFunction<Repository> rowReader) {
+        this.ids = builder.ids;
+        this.languages = builder.languages;
+        this.createdAt = builder.createdAt;
+        this.updatedAt = builder.updatedAt;
+        this.stars = builder.stars;
+        this.forks = builder.forks;
+        this.languageCodes = Map.copyOf(builder.languageCodes);
+        this.rowReader = rowReader;
+        this.partitions = buildPartitions();
+    }
+
+    /**
+     * A store of the repositories, read back from the list.
+     */
+    public static RepositoryColumns of(List<Repository> repositories) {
+        Builder builder = new Builder(repositories.size());
+        for (int row = 0; row < repositories.size(); row++) {
+            Repository repository = repositories.get(row);
+            builder.set(row, repository.id(), repository.language(),
+                epochSecond(repository.createdAt()), epochSecond(repository.updatedAt()),
+                count(repository.stargazersCount()), count(repository.forksCount()));
+        }
+        return new RepositoryColumns(builder, repositories::get);
+    }
+
+    /**
+     * A store of the indexed repositories, read back from their segments.
+     */
+    static RepositoryColumns ofEntries(Collection<IndexEntry> entries) {
+        // a row points to its repository by segment number and offset, not by reference
+        Map<IndexSegment, Integer> segmentNumbers = new IdentityHashMap<>();
+        List<IndexSegment> segments = new ArrayList<>();
+        int[] segmentOfRow = new int[entries.size()];
+        int[] offsetOfRow = new int[entries.size()];
+
+        Builder builder = new Builder(entries.size());
+        int row = 0;
+        for (IndexEntry entry : entries) {
+            segmentOfRow[row] = segmentNumbers.computeIfAbsent(entry.segment(), segment -> {
+                segments.add(segment);
+                return segments.size() - 1;
+            });
+            offsetOfRow[row] = entry.offset();
+            builder.set(row, entry.id(), entry.language(), entry.createdAt(), entry.updatedAt(), entry.stars(), entry.forks());
+            row++;
+        }
+        return new RepositoryColumns(builder, readRow -> segments.get(segmentOfRow[readRow]).read(offsetOfRow[readRow]));
+    }
+
+    /**
+     * Number of repositories in the store.
+     */
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Searches the repositories of the requested language, the way GitHub would: filtered by createdSince,
+     * sorted and paged, with the number of all matching repositories as total.
+     */
+    public SearchResults search(SearchRequest request) {
+        Short language = request.language() != null ? languageCodes.get(languageKey(request.language())) : null;
+        if (language == null) {
+            return new SearchResults(0, List.of());
+        }
+        Partition partition = partitions[language];
+
+        long createdSince = request.createdSince() != null
+            ? request.createdSince().atStartOfDay(ZoneOffset.UTC).toEpochSecond()
+            : NULL_TIME;
+        int[] rows = partition.sortedBy(request.sort());
+        boolean descending = request.direction() == SortDirection.DESC;
+
+        long skip = (request.page() - 1L) * request.size();
+        List<Repository> page = new ArrayList<>(Math.min(request.size(), rows.length));
+        for (int i = 0; i < rows.length && page.size() < request.size(); i++) {
+            int row = rows[descending ? rows.length - 1 - i : i];
+            if (createdAt[row] < createdSince) {
+                continue;
+            }
+            if (skip > 0) {
+                skip--;
+                continue;
+            }
+            page.add(rowReader.apply(row));
+        }
+        return new SearchResults(partition.countCreatedSince(createdSince), page);
+    }
+
+    private Partition[] buildPartitions() {
+        // sorted once for all languages, then split by language keeping the order
+        int[] byId = sortRows(identity(ids.length), row -> ids[row]);
+        int[] byCreatedAt = sortRows(byId, row -> createdAt[row]);
+        int[] byStars = sortRows(byId, row -> stars[row]);
+        int[] byForks = sortRows(byId, row -> forks[row]);
+        int[] byUpdatedAt = sortRows(byId, row -> updatedAt[row]);
+
+        int[] rowsPerLanguage = new int[languageCodes.size()];
+        for (short language : languages) {
+            if (language >= 0) {
+                rowsPerLanguage[language]++;
+            }
+        }
+
+        Partition[] built = new Partition[languageCodes.size()];
+        for (short language = 0; language < built.length; language++) {
+            built[language] = new Partition(
+                rowsOf(language, byCreatedAt, rowsPerLanguage[language]),
+                rowsOf(language, byStars, rowsPerLanguage[language]),
+                rowsOf(language, byForks, rowsPerLanguage[language]),
+                rowsOf(language, byUpdatedAt, rowsPerLanguage[language])
+            );
+        }
+        return built;
+    }
+
+    private int[] rowsOf(short language, int[] sortedRows, int count) {
+        int[] rows = new int[count];
+        int i = 0;
+        for (int row : sortedRows) {
+            if (languages[row] == language) {
+                rows[i++] = row;
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Stable merge sort of row numbers by a primitive key, so that sorting rows already in id order
+     * breaks ties by id.
+     */
+    private static int[] sortRows(int[] rows, IntToLongFunction key) {
+        long[] keys = new long[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            keys[i] = key.applyAsLong(rows[i]);
+        }
+
+        int[] sorted = rows.clone();
+        long[] sortedKeys = keys;
+        int[] buffer = new int[rows.length];
+        long[] bufferKeys = new long[rows.length];
+        for (int width = 1; width < rows.length; width *= 2) {
+            for (int low = 0; low < rows.length; low += 2 * width) {
+                int middle = Math.min(low + width, rows.length);
+                int high = Math.min(low + 2 * width, rows.length);
+                int left = low;
+                int right = middle;
+                for (int i = low; i < high; i++) {
+                    if (left < middle && (right >= high || sortedKeys[left] <= sortedKeys[right])) {
+                        buffer[i] = sorted[left];
+                        bufferKeys[i] = sortedKeys[left++];
+                    } else {
+                        buffer[i] = sorted[right];
+                        bufferKeys[i] = sortedKeys[right++];
+                    }
+                }
+            }
+            int[] swapRows = sorted;
+            sorted = buffer;
+            buffer = swapRows;
+            long[] swapKeys = sortedKeys;
+            sortedKeys = bufferKeys;
+            bufferKeys = swapKeys;
+        }
+        return sorted;
+    }
+
+    private static int[] identity(int size) {
+        int[] rows = new int[size];
+        for (int i = 0; i < size; i++) {
+            rows[i] = i;
+        }
+        return rows;
+    }
+
+    private static String languageKey(String language) {
+        // GitHub matches languages case-insensitively
+        return language.toLowerCase(Locale.ROOT);
+    }
+
+    private static long epochSecond(Instant instant) {
+        return instant != null ? instant.getEpochSecond() : NULL_TIME;
+    }
+
+    private static int count(Integer count) {
+        return count != null ? count : NULL_COUNT;
+    }
+
+    private static class Builder {
+
+        private final long[] ids;
+        private final short[] languages;
+        private final long[] createdAt;
+        private final long[] updatedAt;
+        private final int[] stars;
+        private final int[] forks;
+        private final Map<String, Short> languageCodes = new HashMap<>();
+
+        Builder(int size) {
+            ids = new long[size];
+            languages = new short[size];
+            createdAt = new long[size];
+            updatedAt = new long[size];
+            stars = new int[size];
+            forks = new int[size];
+        }
+
+        void set(int row, long id, String language, long createdAt, long updatedAt, int stars, int forks) {
+            this.ids[row] = id;
+            this.languages[row] = language != null ? languageCode(language) : -1;
+            this.createdAt[row] = createdAt;
+            this.updatedAt[row] = updatedAt;
+            this.stars[row] = stars;
+            this.forks[row] = forks;
+        }
+
+        private short languageCode(String language) {
+            return languageCodes.computeIfAbsent(languageKey(language), key -> {
+                if (languageCodes.size() > Short.MAX_VALUE) {
+                    throw new IllegalStateException("Too many languages to encode");
+                }
+                return (short) languageCodes.size();
+            });
+        }
+    }
+
+    private class Partition {
+
+        private final int[] byCreatedAt;
+        private final int[] byStars;
+        private final int[] byForks;
+        private final int[] byUpdatedAt;
+
+        Partition(int[] byCreatedAt, int[] byStars, int[] byForks, int[] byUpdatedAt) {
+            this.byCreatedAt = byCreatedAt;
+            this.byStars = byStars;
+            this.byForks = byForks;
+            this.byUpdatedAt = byUpdatedAt;
+        }
+
+        int[] sortedBy(SortField sort) {
+            return switch (sort) {
+                // popularity is ranked out of the most starred repositories, a search sorted by it reads them by stars
+                case STARS, POPULARITY -> byStars;
+                case FORKS -> byForks;
+                case UPDATED -> byUpdatedAt;
+            };
+        }
+
+        int countCreatedSince(long createdSince) {
+            // index of the first row created at or after createdSince
+            int low = 0;
+            int high = byCreatedAt.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (createdAt[byCreatedAt[middle]] < createdSince) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return byCreatedAt.length - low;
+        }
+    }
+}
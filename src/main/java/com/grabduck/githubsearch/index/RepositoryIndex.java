@@ -0,0 +1,367 @@
+package com.grabduck.githubsearch.index;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.grabduck.githubsearch.domain.model.Repository;
+import com.grabduck.githubsearch.domain.model.SearchRequest;
+import com.grabduck.githubsearch.domain.model.SearchResults;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Local on-disk index of GitHub repositories, answering searches without calling GitHub.
+ *
+ * Repositories are stored in immutable memory-mapped segments (see IndexSegment), each batch of updates
+ * in a new one; a repository stored again supersedes its earlier copy. On startup the index is loaded back from
+ * its segments, by reading just the keys of the records.
+ *
+ * Searches run against an immutable columnar store of the secondary indexes (see RepositoryColumns), so they
+ * take no lock and read repositories straight from the mapped segments. Batches added during a sync become
+ * searchable together when it is published, once per sync run, which is also when the segments are compacted
+ * into one holding only the current copies if there are more than max-segments of them. Rebuilding the columns
+ * and compacting take time in the size of the whole index, doing it per batch would make a sync quadratic.
+ *
+ * The index also keeps track of how far each language has been synced, in sync-state.properties. A search is
+ * covered by the index only once its language has been synced completely (see IndexSync). Languages are synced
+ * under the names they are configured with, which may be aliases GitHub accepts in searches (csharp, cpp, golang),
+ * while the repositories it returns carry its own name of the language (C#, C++, Go). That name is recorded with
+ * the sync state, and searches of the configured name are answered from the repositories carrying it.
+ * Repositories of the language that a completed sync from scratch did not see (deleted, made private or moved to
+ * another language) are dropped from the index. A sync from scratch interrupted by a restart drops nothing, the
+ * next one does.
+ */
+@Slf4j
+public class RepositoryIndex {
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String SYNC_STATE_FILE = "sync-state.properties";
+
+    private final Path directory;
+    private final LocalDate createdSince;
+    private final int maxSegments;
+
+    private final Lock lock = new ReentrantLock();
+    // guarded by lock
+    private final List<IndexSegment> segments = new ArrayList<>();
+    private final Map<Long, IndexEntry> entries = new HashMap<>();
+    private final Properties syncState = new Properties();
+    private long nextSegmentNumber = 1;
+    private boolean unpublished;
+    // ids of the repositories seen by the running syncs from scratch, by language
+    private final Map<String, Set<Long>> fullSyncSeen = new HashMap<>();
+
+    private volatile RepositoryColumns columns = RepositoryColumns.EMPTY;
+    private volatile Set<String> coveredLanguages = Set.of();
+    // GitHub's names of the synced languages, by configured name
+    private volatile Map<String, String> gitHubLanguages = Map.of();
+
+    private RepositoryIndex(Path directory, LocalDate createdSince, int maxSegments) {
+        this.directory = directory;
+        this.createdSince = createdSince;
+        this.maxSegments = maxSegments;
+    }
+
+    /**
+     * Opens the index stored in the directory, creating an empty one if there is none.
+     *
+     * @param createdSince Repositories created since this date are synced, earlier ones are searched on GitHub
+     * @param maxSegments Number of segments above which they are compacted into one
+     */
+    public static RepositoryIndex open(Path directory, LocalDate createdSince, int maxSegments) {
+        RepositoryIndex index = new RepositoryIndex(directory, createdSince, maxSegments);
+        index.load();
+        return index;
+    }
+
+    /**
+     * Whether the index holds all the repositories the search could return, so it can be answered locally.
+     */
+    public boolean covers(SearchRequest request) {
+        return request.createdWithin() == null
+            && request.language() != null
+            && request.createdSince() != null
+            && !request.createdSince().isBefore(createdSince)
+            && coveredLanguages.contains(request.language().toLowerCase(Locale.ROOT));
+    }
+
+    public SearchResults search(SearchRequest request) {
+        String gitHubLanguage = request.language() != null
+            ? gitHubLanguages.get(request.language().toLowerCase(Locale.ROOT))
+            : null;
+        return columns.search(gitHubLanguage == null ? request : new SearchRequest(gitHubLanguage,
+            request.createdSince(), request.sort(), request.direction(), request.page(), request.size(),
+            request.createdWithin()));
+    }
+
+    /**
+     * Number of repositories in the index.
+     */
+    public int size() {
+        return columns.size();
+    }
+
+    public LocalDate createdSince() {
+        return createdSince;
+    }
+
+    /**
+     * Stores a batch of synced repositories together with how far the sync of their language has got.
+     * The repositories become searchable once the sync is published.
+     */
+    public void add(String language, List<Repository> repositories, Instant checkpoint) {
+        lock.lock();
+        try {
+            if (!repositories.isEmpty()) {
+                IndexSegment segment = IndexSegment.write(segmentPath(nextSegmentNumber++), repositories);
+                segments.add(segment);
+                segment.forEachEntry(entry -> entries.put(entry.id(), entry));
+                unpublished = true;
+
+                Set<Long> seen = fullSyncSeen.get(language.toLowerCase(Locale.ROOT));
+                if (seen != null) {
+                    repositories.forEach(repository -> seen.add(repository.id()));
+                }
+                mostCommonLanguage(repositories).ifPresent(gitHubLanguage ->
+                    syncState.setProperty(language.toLowerCase(Locale.ROOT) + ".github-language", gitHubLanguage));
+            }
+
+            SyncState state = syncState(language);
+            updateSyncState(language, new SyncState(checkpoint, state.covered(), state.fullSyncStartedAt()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Makes the repositories added since the last time searchable, compacting the segments first when there are
+     * more than max-segments of them. Called at the end of every sync run, failed ones included.
+     */
+    public void publish() {
+        lock.lock();
+        try {
+            if (!unpublished) {
+                return;
+            }
+            if (segments.size() > maxSegments) {
+                compact();
+            }
+            columns = RepositoryColumns.ofEntries(entries.values());
+            unpublished = false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records that a sync of the language has started from scratch.
+     */
+    public void startFullSync(String language, Instant startedAt) {
+        lock.lock();
+        try {
+            fullSyncSeen.put(language.toLowerCase(Locale.ROOT), new HashSet<>());
+            updateSyncState(language, new SyncState(null, syncState(language).covered(), startedAt));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records that all the repositories of the language have been synced, up to the checkpoint, and publishes them.
+     * At the end of a sync from scratch, the repositories of the language it did not see are dropped.
+     */
+    public void completeSync(String language) {
+        lock.lock();
+        try {
+            Set<Long> seen = fullSyncSeen.remove(language.toLowerCase(Locale.ROOT));
+            if (seen != null) {
+                dropUnseen(language, seen);
+            }
+            publish();
+            SyncState state = syncState(language);
+            updateSyncState(language, new SyncState(state.checkpoint(), true, state.fullSyncStartedAt()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public SyncState syncState(String language) {
+        String key = language.toLowerCase(Locale.ROOT);
+        lock.lock();
+        try {
+            return new SyncState(
+                Optional.ofNullable(syncState.getProperty(key + ".checkpoint")).map(Instant::parse).orElse(null),
+                Boolean.parseBoolean(syncState.getProperty(key + ".covered")),
+                Optional.ofNullable(syncState.getProperty(key + ".full-sync-started-at")).map(Instant::parse).orElse(null)
+            );
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void load() {
+        lock.lock();
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> files = Files.list(directory)) {
+                List<Path> segmentFiles = files
+                    .filter(file -> file.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                    .filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+                for (Path file : segmentFiles) {
+                    IndexSegment segment = IndexSegment.open(file);
+                    segments.add(segment);
+                    segment.forEachEntry(entry -> entries.put(entry.id(), entry));
+                    nextSegmentNumber = Math.max(nextSegmentNumber, segmentNumber(file) + 1);
+                }
+            }
+
+            Path syncStateFile = directory.resolve(SYNC_STATE_FILE);
+            if (Files.exists(syncStateFile)) {
+                try (Reader reader = Files.newBufferedReader(syncStateFile)) {
+                    syncState.load(reader);
+                }
+            }
+            coveredLanguages = coveredLanguages();
+            gitHubLanguages = gitHubLanguages();
+            columns = RepositoryColumns.ofEntries(entries.values());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load repository index from " + directory, e);
+        } finally {
+            lock.unlock();
+        }
+        log.info("Loaded repository index from {}: {} repositories in {} segments", directory, entries.size(), segments.size());
+    }
+
+    private void dropUnseen(String language, Set<Long> seen) {
+        String gitHubLanguage = gitHubLanguages.getOrDefault(language.toLowerCase(Locale.ROOT), language);
+        int before = entries.size();
+        entries.values().removeIf(entry ->
+            gitHubLanguage.equalsIgnoreCase(entry.language()) && !seen.contains(entry.id()));
+        int dropped = before - entries.size();
+        if (dropped > 0) {
+            // the dropped repositories are still in the segments, compacting keeps them from coming back on restart
+            compact();
+            unpublished = true;
+            log.info("Dropped {} {} repositories no longer found on GitHub from the index", dropped, language);
+        }
+    }
+
+    private void compact() {
+        List<Repository> current = entries.values().stream().map(IndexEntry::read).toList();
+        IndexSegment compacted = IndexSegment.write(segmentPath(nextSegmentNumber++), current);
+
+        List<IndexSegment> compactedSegments = List.copyOf(segments);
+        segments.clear();
+        segments.add(compacted);
+        entries.clear();
+        compacted.forEachEntry(entry -> entries.put(entry.id(), entry));
+
+        // mappings of the deleted files stay readable for searches still running on the previous columns
+        for (IndexSegment segment : compactedSegments) {
+            try {
+                Files.deleteIfExists(segment.path());
+            } catch (IOException e) {
+                log.warn("Cannot delete compacted index segment {}: {}", segment.path(), e.getMessage());
+            }
+        }
+        log.info("Compacted {} index segments into {} holding {} repositories",
+            compactedSegments.size(), compacted.path().getFileName(), current.size());
+    }
+
+    private void updateSyncState(String language, SyncState state) {
+        String key = language.toLowerCase(Locale.ROOT);
+        setOrRemove(key + ".checkpoint", state.checkpoint());
+        setOrRemove(key + ".covered", state.covered());
+        setOrRemove(key + ".full-sync-started-at", state.fullSyncStartedAt());
+
+        Path syncStateFile = directory.resolve(SYNC_STATE_FILE);
+        Path tempFile = directory.resolve(SYNC_STATE_FILE + ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(tempFile)) {
+                syncState.store(writer, "Sync state of the repository index");
+            }
+            Files.move(tempFile, syncStateFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write sync state of repository index " + syncStateFile, e);
+        }
+        coveredLanguages = coveredLanguages();
+        gitHubLanguages = gitHubLanguages();
+    }
+
+    private Set<String> coveredLanguages() {
+        return syncState.stringPropertyNames().stream()
+            .filter(key -> key.endsWith(".covered") && Boolean.parseBoolean(syncState.getProperty(key)))
+            .map(key -> key.substring(0, key.length() - ".covered".length()))
+            .collect(Collectors.toUnmodifiableSet());
+    }
+
+    private Map<String, String> gitHubLanguages() {
+        return syncState.stringPropertyNames().stream()
+            .filter(key -> key.endsWith(".github-language"))
+            .collect(Collectors.toUnmodifiableMap(
+                key -> key.substring(0, key.length() - ".github-language".length()), syncState::getProperty));
+    }
+
+    // a search of a language may also return a few repositories of others, GitHub's name is that of most of them
+    private static Optional<String> mostCommonLanguage(List<Repository> repositories) {
+        return repositories.stream()
+            .map(Repository::language)
+            .filter(Objects::nonNull)
+            .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()))
+            .entrySet().stream()
+            .max(Map.Entry.comparingByValue())
+            .map(Map.Entry::getKey);
+    }
+
+    private void setOrRemove(String key, Object value) {
+        if (value != null) {
+            syncState.setProperty(key, value.toString());
+        } else {
+            syncState.remove(key);
+        }
+    }
+
+    private Path segmentPath(long number) {
+        return directory.resolve(SEGMENT_PREFIX + "%010d".formatted(number) + SEGMENT_SUFFIX);
+    }
+
+    private static long segmentNumber(Path segmentFile) {
+        String name = segmentFile.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * How far a language has been synced.
+     *
+     * @param checkpoint Repositories created up to this time have been synced, null if the sync has not started
+     * @param covered Whether a sync of all the repositories of the language has completed at least once
+     * @param fullSyncStartedAt When the last sync from scratch started
+     */
+    public record SyncState(Instant checkpoint, boolean covered, Instant fullSyncStartedAt) {
+    }
+}
@@ -0,0 +1,148 @@
+package com.grabduck.githubsearch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.grabduck.githubsearch.domain.exceptions.RepositorySearchException;
+import com.grabduck.githubsearch.domain.model.Repository;
+import com.grabduck.githubsearch.domain.model.SearchRequest;
+import com.grabduck.githubsearch.domain.model.SearchResults;
+import com.grabduck.githubsearch.domain.service.RepositoryProvider;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Runs the same request path on WebFlux/Netty, the non-blocking deployment mode.
+ */
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = "spring.main.web-application-type=reactive"
+)
+public class ReactiveRepositorySearchIT {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @MockitoBean
+    private RepositoryProvider repositoryProvider;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+
+        when(repositoryProvider.findRepositories(any(SearchRequest.class)))
+            .thenReturn(Mono.just(createSearchResults()));
+    }
+
+    @Test
+    void basicSearchWithDefaultParameters() {
+        webTestClient.get().uri("/api/repositories")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.total").isEqualTo(1)
+            .jsonPath("$.items[0].name").isEqualTo("freeCodeCamp")
+            .jsonPath("$.items[0].popularityScore").isNumber()
+            .jsonPath("$.metadata.sort").isEqualTo("stars");
+    }
+
+    @Test
+    void answersMatchingIfNoneMatchWithNotModified() {
+        String eTag = webTestClient.get().uri("/api/repositories")
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().exists(HttpHeaders.CACHE_CONTROL)
+            .returnResult(String.class)
+            .getResponseHeaders().getETag();
+
+        webTestClient.get().uri("/api/repositories")
+            .header(HttpHeaders.IF_NONE_MATCH, eTag)
+            .exchange()
+            .expectStatus().isNotModified()
+            .expectHeader().valueEquals(HttpHeaders.ETAG, eTag)
+            .expectBody().isEmpty();
+    }
+
+    @Test
+    void streamsRepositoriesAsNdjson() {
+        List<String> lines = webTestClient.get().uri("/api/repositories")
+            .accept(MediaType.APPLICATION_NDJSON)
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+            .expectBody(String.class)
+            .returnResult()
+            .getResponseBody()
+            .lines()
+            .toList();
+
+        assertThat(lines).hasSize(2);
+        assertThat(lines.get(0)).contains("\"name\":\"freeCodeCamp\"");
+        assertThat(lines.get(1)).contains("\"total\":1").contains("\"count\":1").contains("\"sort\":\"stars\"");
+    }
+
+    @Test
+    void handlesErrorResponseFromGitHub() {
+        when(repositoryProvider.findRepositories(any(SearchRequest.class)))
+            .thenReturn(Mono.error(new RepositorySearchException("API rate limit exceeded. Please try again later.")));
+
+        webTestClient.get().uri("/api/repositories")
+            .exchange()
+            .expectStatus().isEqualTo(503)
+            .expectBody()
+            .jsonPath("$.title").isEqualTo("Repository Search Failed");
+    }
+
+    @Test
+    void handlesBadRequestErrors() {
+        webTestClient.get().uri("/api/repositories?size=1000")
+            .exchange()
+            .expectStatus().isBadRequest()
+            .expectBody()
+            .jsonPath("$.title").isEqualTo("Validation Error");
+    }
+
+    @Test
+    void handlesTypeMismatchErrors() {
+        webTestClient.get().uri("/api/repositories?createdSince=01.01.2025")
+            .exchange()
+            .expectStatus().isBadRequest()
+            .expectBody()
+            .jsonPath("$.title").isEqualTo("Type Conversion Error");
+    }
+
+    private SearchResults createSearchResults() {
+        return new SearchResults(1, List.of(
+            new Repository(
+                28457823L,
+                "freeCodeCamp",
+                "freeCodeCamp/freeCodeCamp",
+                "https://github.com/freeCodeCamp/freeCodeCamp",
+                "freeCodeCamp.org's open-source codebase and curriculum. Learn math, programming, and computer science for free.",
+                Instant.parse("2014-12-24T17:49:19Z"),
+                Instant.parse("2025-07-13T09:28:25Z"),
+                "TypeScript",
+                422771,
+                40730
+            )
+        ));
+    }
+}
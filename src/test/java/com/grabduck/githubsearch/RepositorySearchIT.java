@@ -1,14 +1,22 @@
 package com.grabduck.githubsearch;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.hamcrest.Matchers.startsWith;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
-import static org.mockito.Mockito.doThrow;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,16 +24,24 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 
 import com.grabduck.githubsearch.domain.exceptions.RepositorySearchException;
+import com.grabduck.githubsearch.domain.model.Deadline;
 import com.grabduck.githubsearch.domain.model.Repository;
 import com.grabduck.githubsearch.domain.model.SearchRequest;
 import com.grabduck.githubsearch.domain.model.SearchResults;
 import com.grabduck.githubsearch.domain.service.RepositoryProvider;
 
+import reactor.core.publisher.Mono;
+
 @SpringBootTest
 @AutoConfigureMockMvc
 public class RepositorySearchIT {
@@ -33,20 +49,26 @@ public class RepositorySearchIT {
     @Autowired
     private MockMvc mockMvc;
     
+    @Autowired
+    private CacheManager cacheManager;
+
     @MockitoBean
     private RepositoryProvider repositoryProvider;
     
     @BeforeEach
     void setUp() {
+        // the application context and its caches are shared between tests
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+
         when(repositoryProvider.findRepositories(any(SearchRequest.class)))
-            .thenReturn(createSearchResults());
+            .thenReturn(Mono.just(createSearchResults()));
     }
 
     @Test
     void basicSearchWithDefaultParameters() throws Exception {
         SearchResults expected = createSearchResults();
 
-        mockMvc.perform(get("/api/repositories")
+        performAsync(get("/api/repositories")
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.total").value(expected.total()))
@@ -57,7 +79,7 @@ public class RepositorySearchIT {
     
     @Test
     void fillsMetadata() throws Exception {        
-        mockMvc.perform(get("/api/repositories")
+        performAsync(get("/api/repositories")
                 .param("language", "java")
                 .param("sort", "forks")
                 .param("direction", "asc")
@@ -68,29 +90,152 @@ public class RepositorySearchIT {
                 .andExpect(jsonPath("$.metadata.direction").value("asc"));
     }
     
+    @Test
+    void sortsByPopularityScore() throws Exception {
+        performAsync(get("/api/repositories")
+                .param("sort", "popularity")
+                .param("direction", "asc")
+                .param("size", "2")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(3))
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].name").value("free-programming-books"))
+                .andExpect(jsonPath("$.items[1].name").value("build-your-own-x"))
+                .andExpect(jsonPath("$.metadata.sort").value("popularity"));
+    }
+
+    @Test
+    void streamsRepositoriesAsNdjson() throws Exception {
+        MvcResult asyncResult = mockMvc.perform(get("/api/repositories")
+                .param("size", "3")
+                .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        asyncResult.getAsyncResult();
+
+        assertThat(asyncResult.getResponse().getContentType()).startsWith(MediaType.APPLICATION_NDJSON_VALUE);
+        List<String> lines = asyncResult.getResponse().getContentAsString().lines().toList();
+        assertThat(lines).hasSize(4);
+        assertThat(lines.get(0)).contains("\"name\":\"freeCodeCamp\"").contains("\"popularityScore\"");
+        assertThat(lines.get(2)).contains("\"name\":\"free-programming-books\"");
+        assertThat(lines.get(3)).contains("\"total\":3").contains("\"count\":3").contains("\"metadata\"");
+    }
+
+    @Test
+    void exportsRepositoriesWithCheckpoints() throws Exception {
+        MvcResult asyncResult = mockMvc.perform(get("/api/repositories/export")
+                .param("language", "java")
+                .param("createdSince", "2025-01-01")
+                .param("createdUntil", "2025-01-31")
+                .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        asyncResult.getAsyncResult();
+
+        List<String> lines = asyncResult.getResponse().getContentAsString().lines().toList();
+        assertThat(lines).hasSize(5);
+        assertThat(lines.get(0)).contains("\"name\":\"freeCodeCamp\"");
+        assertThat(lines.get(3)).contains("\"resumeAfter\":\"2025-01-31T23:59:59Z\"").contains("\"exported\":3");
+        assertThat(lines.get(4)).contains("\"complete\":true").contains("\"exported\":3");
+    }
+
+    @Test
+    void handlesErrorResponseFromGitHubWhenStreaming() throws Exception {
+        when(repositoryProvider.findRepositories(any(SearchRequest.class)))
+            .thenReturn(Mono.error(new RepositorySearchException("API rate limit exceeded. Please try again later.")));
+
+        performAsync(get("/api/repositories")
+                .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.title").value("Repository Search Failed"));
+    }
+
     @Test
     void handlesErrorResponseFromGitHub() throws Exception {
-        doThrow(new RepositorySearchException("API rate limit exceeded. Please try again later."))
-            .when(repositoryProvider).findRepositories(any(SearchRequest.class));
+        when(repositoryProvider.findRepositories(any(SearchRequest.class)))
+            .thenReturn(Mono.error(new RepositorySearchException("API rate limit exceeded. Please try again later.")));
             
-        mockMvc.perform(get("/api/repositories")
+        performAsync(get("/api/repositories")
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isServiceUnavailable())
                 .andExpect(jsonPath("$.title").value("Repository Search Failed"))
                 .andExpect(jsonPath("$.status").value(503));
     }
     
+    @Test
+    void servesETagAndCacheHeaders() throws Exception {
+        performAsync(get("/api/repositories")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, matchesPattern("\"[0-9a-f]+\"")))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, startsWith("max-age=1")))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+    }
+
+    @Test
+    void answersMatchingIfNoneMatchWithNotModified() throws Exception {
+        String eTag = performAsync(get("/api/repositories")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        performAsync(get("/api/repositories")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"other\", " + eTag)
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void propagatesRequestTimeoutAsDeadline() throws Exception {
+        AtomicReference<Deadline> deadline = new AtomicReference<>();
+        when(repositoryProvider.findRepositories(any(SearchRequest.class)))
+            .thenReturn(Mono.deferContextual(context -> {
+                deadline.set(context.get(Deadline.class));
+                return Mono.just(createSearchResults());
+            }));
+        Instant sent = Instant.now();
+
+        performAsync(get("/api/repositories")
+                .header("X-Request-Timeout", "2000")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        assertThat(deadline.get().at()).isBetween(sent.plus(Duration.ofSeconds(2)), Instant.now().plus(Duration.ofSeconds(2)));
+    }
+
     @Test
     void handlesBadRequestErrors() throws Exception {
         mockMvc.perform(get("/api/repositories")
-                .param("sort", "popularity") // Invalid sort parameter
+                .param("sort", "name") // Invalid sort parameter
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.title").value("Validation Error"))
                 .andExpect(jsonPath("$.status").value(400))
                 .andExpect(jsonPath("$.detail").exists());
     }
+
+
+    @Test
+    void handlesTypeMismatchErrorsOfExport() throws Exception {
+        mockMvc.perform(get("/api/repositories/export")
+                .param("createdUntil", "31.01.2025"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.title").value("Type Conversion Error"));
+    }
     
+    /**
+     * The controller returns a Mono, so the actual response is produced by an async dispatch.
+     */
+    private ResultActions performAsync(MockHttpServletRequestBuilder requestBuilder) throws Exception {
+        MvcResult asyncResult = mockMvc.perform(requestBuilder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(asyncResult));
+    }
+
     private SearchResults createSearchResults() {
         return new SearchResults(3, List.of(
             new Repository(
@@ -0,0 +1,121 @@
+package com.grabduck.githubsearch;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A stand-in for the GitHub search API running in the test JVM, with configurable latency.
+ * Every search returns a single repository whose id is the requested page number.
+ */
+public class StubGitHubServer implements AutoCloseable {
+
+    private static final String SEARCH_RESPONSE = """
+        {
+          "total_count": 1000,
+          "incomplete_results": false,
+          "items": [{
+            "id": %s,
+            "name": "repo",
+            "full_name": "owner/repo",
+            "html_url": "https://github.com/owner/repo",
+            "description": "A repository",
+            "language": "Java",
+            "stargazers_count": 100,
+            "forks_count": 10,
+            "created_at": "2024-01-01T00:00:00Z",
+            "updated_at": "2025-01-01T00:00:00Z"
+          }]
+        }
+        """;
+
+    static {
+        // without it every response waits for a delayed ACK (Nagle's algorithm), adding ~40ms to each call
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final HttpServer server;
+    private final AtomicInteger searchRequests = new AtomicInteger();
+    private final AtomicInteger searchesInFlight = new AtomicInteger();
+    private final AtomicInteger peakSearchesInFlight = new AtomicInteger();
+    private volatile Duration latency = Duration.ZERO;
+
+    private StubGitHubServer(HttpServer server) {
+        this.server = server;
+        server.createContext("/search/repositories", this::handleSearch);
+        // virtual threads, so a slow stub can hold as many requests as the test throws at it
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+    }
+
+    public static StubGitHubServer start() {
+        try {
+            return new StubGitHubServer(HttpServer.create(new InetSocketAddress("localhost", 0), 4096));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    public void setLatency(Duration latency) {
+        this.latency = latency;
+    }
+
+    public int searchRequests() {
+        return searchRequests.get();
+    }
+
+    /**
+     * The highest number of searches the stub was serving at the same time.
+     */
+    public int peakSearchesInFlight() {
+        return peakSearchesInFlight.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handleSearch(HttpExchange exchange) throws IOException {
+        searchRequests.incrementAndGet();
+        peakSearchesInFlight.accumulateAndGet(searchesInFlight.incrementAndGet(), Math::max);
+        try {
+            Thread.sleep(latency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            searchesInFlight.decrementAndGet();
+        }
+
+        byte[] body = SEARCH_RESPONSE.formatted(queryParam(exchange, "page")).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static String queryParam(HttpExchange exchange, String name) {
+        String query = exchange.getRequestURI().getQuery();
+        if (query != null) {
+            for (String param : query.split("&")) {
+                if (param.startsWith(name + "=")) {
+                    return param.substring(name.length() + 1);
+                }
+            }
+        }
+        return "0";
+    }
+}
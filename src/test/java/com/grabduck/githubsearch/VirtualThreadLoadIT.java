@@ -0,0 +1,118 @@
+package com.grabduck.githubsearch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * Load test of the servlet stack running on virtual threads against a slow GitHub.
+ *
+ * Thousands of concurrent requests must all be served while far more of them wait for GitHub at the same time
+ * than Tomcat's default platform thread pool could hold, the JVM must never need that many platform threads,
+ * and none of our code may pin a virtual thread to its carrier.
+ * GitHub is that slow, so that even a single CPU build agent can pile up hundreds of concurrent calls.
+ */
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {
+        "spring.threads.virtual.enabled=true",
+        "server.tomcat.accept-count=" + VirtualThreadLoadIT.CONCURRENT_REQUESTS,
+        "github.api.connection-pool.max-connections=" + VirtualThreadLoadIT.CONCURRENT_REQUESTS,
+        "github.api.bulkhead.max-concurrent-calls=" + VirtualThreadLoadIT.CONCURRENT_REQUESTS,
+        // the stub has no rate limit, the test is about how many calls we can hold, not how many GitHub allows
+        "github.api.rate-limit.enabled=false",
+        // a slow build agent takes a while to get thousands of requests through on top of GitHub's latency, the
+        // test is about holding them, not about how fast they go
+        "search.max-request-timeout=" + VirtualThreadLoadIT.REQUEST_TIMEOUT,
+        "github.api.response-timeout=" + VirtualThreadLoadIT.REQUEST_TIMEOUT
+    }
+)
+class VirtualThreadLoadIT {
+
+    static final int CONCURRENT_REQUESTS = 2000;
+    static final String REQUEST_TIMEOUT = "3m";
+
+    private static final Duration GITHUB_LATENCY = Duration.ofSeconds(10);
+
+    // default size of Tomcat's platform thread request pool
+    private static final int PLATFORM_REQUEST_THREADS = 200;
+
+    private static final StubGitHubServer github = StubGitHubServer.start();
+
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void githubProperties(DynamicPropertyRegistry registry) {
+        registry.add("github.api.baseUrl", github::baseUrl);
+    }
+
+    @AfterAll
+    static void stopGitHub() {
+        github.close();
+    }
+
+    @Test
+    void servesThousandsOfConcurrentRequestsAgainstSlowGitHub() throws Exception {
+        github.setLatency(GITHUB_LATENCY);
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        List<RecordedEvent> pinnedEvents = new CopyOnWriteArrayList<>();
+
+        try (RecordingStream recording = new RecordingStream();
+             HttpClient client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build()) {
+
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            recording.onEvent("jdk.VirtualThreadPinned", pinnedEvents::add);
+            recording.startAsync();
+            threads.resetPeakThreadCount();
+
+            // every request asks for another page of a whole block, so neither the cache nor coalescing can help
+            List<CompletableFuture<HttpResponse<String>>> responses = IntStream.rangeClosed(1, CONCURRENT_REQUESTS)
+                .mapToObj(page -> client.sendAsync(
+                    HttpRequest.newBuilder(URI.create(
+                        "http://localhost:" + port + "/api/repositories?size=100&page=" + page)).build(),
+                    HttpResponse.BodyHandlers.ofString()))
+                .toList();
+            CompletableFuture.allOf(responses.toArray(CompletableFuture[]::new)).get(5, TimeUnit.MINUTES);
+
+            recording.stop();
+
+            assertThat(responses).allSatisfy(response -> assertThat(response.join().statusCode()).isEqualTo(200));
+            assertThat(github.searchRequests()).isEqualTo(CONCURRENT_REQUESTS);
+            assertThat(github.peakSearchesInFlight()).isGreaterThan(PLATFORM_REQUEST_THREADS);
+            assertThat(threads.getPeakThreadCount()).isLessThan(PLATFORM_REQUEST_THREADS);
+        }
+
+        assertThat(pinnedEvents)
+            .filteredOn(VirtualThreadLoadIT::pinnedInApplicationCode)
+            .isEmpty();
+    }
+
+    private static boolean pinnedInApplicationCode(RecordedEvent event) {
+        return event.getStackTrace() != null && event.getStackTrace().getFrames().stream()
+            .anyMatch(frame -> frame.getMethod().getType().getName().startsWith("com.grabduck.githubsearch"));
+    }
+}
@@ -0,0 +1,96 @@
+package com.grabduck.githubsearch.cache;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.grabduck.githubsearch.domain.model.CachedSearchResults;
+import com.grabduck.githubsearch.domain.model.Repository;
+import com.grabduck.githubsearch.domain.model.SearchRequest;
+import com.grabduck.githubsearch.domain.model.SearchResults;
+import com.grabduck.githubsearch.domain.model.SortDirection;
+import com.grabduck.githubsearch.domain.model.SortField;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheConfigurationTest {
+
+    @Test
+    void cachesResultsAndRecordsStats() {
+        CaffeineCache cache = repositoriesCache(createCacheManager(0, 1000));
+        SearchRequest request = searchRequest(1, 10);
+
+        assertThat(cache.get(request, CachedSearchResults.class)).isNull();
+        load(cache, request);
+        assertThat(cache.get(request, CachedSearchResults.class)).isNotNull();
+
+        CacheStats stats = cache.getNativeCache().stats();
+        assertThat(stats.missCount()).isEqualTo(1);
+        assertThat(stats.hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void keepsEntriesForMaxStaleAfterHardTtl() {
+        CaffeineCache cache = repositoriesCache(createCacheManager(0, 1000));
+
+        assertThat(cache.getNativeCache().policy().expireAfterWrite().orElseThrow().getExpiresAfter())
+            .isEqualTo(Duration.ofMinutes(70));
+    }
+
+    @Test
+    void boundsCacheByNumberOfCachedRepositories() {
+        CaffeineCache cache = repositoriesCache(createCacheManager(100, 1000));
+
+        // 10 pages of 50 items are 500 weight units, 5 times over the limit
+        IntStream.rangeClosed(1, 10).forEach(page -> load(cache, searchRequest(page, 50)));
+        cache.getNativeCache().cleanUp();
+
+        assertThat(cache.getNativeCache().policy().eviction().orElseThrow().weightedSize().orElseThrow())
+            .isLessThanOrEqualTo(100);
+        assertThat(cache.getNativeCache().stats().evictionCount()).isGreaterThan(0);
+    }
+
+    @Test
+    void weighsEmptyResultsAsOneUnit() {
+        assertThat(CacheConfiguration.weigh(cached(new SearchResults(0, List.of())))).isEqualTo(1);
+        assertThat(CacheConfiguration.weigh(cached(resultsOfSize(25)))).isEqualTo(25);
+    }
+
+    private CacheManager createCacheManager(long maximumWeight, long maximumSize) {
+        return new CacheConfiguration().cacheManager(
+            maximumSize,
+            maximumWeight,
+            Duration.ofMinutes(10),
+            Duration.ofHours(1)
+        );
+    }
+
+    private void load(CaffeineCache cache, SearchRequest request) {
+        cache.put(request, cached(resultsOfSize(request.size())));
+    }
+
+    private static CachedSearchResults cached(SearchResults results) {
+        return new CachedSearchResults(results, Instant.now());
+    }
+
+    private CaffeineCache repositoriesCache(CacheManager cacheManager) {
+        return (CaffeineCache) cacheManager.getCache(CacheConfiguration.REPOSITORIES_CACHE);
+    }
+
+    private SearchRequest searchRequest(int page, int size) {
+        return new SearchRequest("java", LocalDate.of(2020, 1, 1), SortField.STARS, SortDirection.DESC, page, size);
+    }
+
+    private static SearchResults resultsOfSize(int size) {
+        return new SearchResults(size, IntStream.range(0, size)
+            .mapToObj(i -> new Repository((long) i, "repo" + i, "owner/repo" + i, "url", "desc",
+                null, null, "Java", i, i))
+            .toList());
+    }
+}
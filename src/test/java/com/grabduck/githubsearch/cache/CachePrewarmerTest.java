@@ -0,0 +1,144 @@
+package com.grabduck.githubsearch.cache;
+
+import com.grabduck.githubsearch.MutableClock;
+import com.grabduck.githubsearch.client.GitHubTokenPool;
+import com.grabduck.githubsearch.client.GitHubTokenPool.PooledToken;
+import com.grabduck.githubsearch.client.RateLimitBudget;
+import com.grabduck.githubsearch.domain.exceptions.RepositorySearchException;
+import com.grabduck.githubsearch.domain.model.SearchRequest;
+import com.grabduck.githubsearch.domain.model.SearchResults;
+import com.grabduck.githubsearch.domain.model.SortDirection;
+import com.grabduck.githubsearch.domain.model.SortField;
+import com.grabduck.githubsearch.domain.service.HotSearches;
+import com.grabduck.githubsearch.domain.service.PopularityRanker;
+import com.grabduck.githubsearch.domain.service.PopularityScorer;
+import com.grabduck.githubsearch.domain.service.RepositoryProvider;
+import com.grabduck.githubsearch.domain.service.RepositoryService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CachePrewarmerTest {
+
+    private static final SearchRequest JAVA = request("java");
+    private static final SearchRequest GO = request("go");
+    private static final SearchRequest RUST = request("rust");
+
+    @TempDir
+    private Path directory;
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-07-01T12:00:00Z"));
+    private final RateLimitBudget budget = new RateLimitBudget(30, clock);
+    private final List<SearchRequest> fetched = new ArrayList<>();
+    private boolean gitHubDown;
+
+    private final RepositoryProvider repositoryProvider = request -> Mono.fromSupplier(() -> {
+        budget.reserve(Duration.ofHours(1));
+        fetched.add(request);
+        if (gitHubDown) {
+            throw new RepositorySearchException("down");
+        }
+        return new SearchResults(0, List.of());
+    });
+
+    private final HotSearches hotSearches = new HotSearches(10);
+    private final RepositoryService repositoryService = new RepositoryService(
+        repositoryProvider,
+        new PopularityScorer(clock),
+        new PopularityRanker(3, 200),
+        hotSearches,
+        new ConcurrentMapCacheManager("repositories"),
+        clock,
+        Duration.ofMinutes(2),
+        Duration.ofMinutes(10)
+    );
+
+    private CachePrewarmer underTest;
+
+    @BeforeEach
+    void setUp() {
+        GitHubTokenPool tokenPool = mock(GitHubTokenPool.class);
+        when(tokenPool.leastUsed()).thenReturn(new PooledToken("token-1", "", budget));
+
+        underTest = prewarmer(hotSearches, tokenPool);
+    }
+
+    @Test
+    void replaysHotSearchesAboutToExpire() {
+        repositoryService.searchRepositories(JAVA).block();
+        repositoryService.searchRepositories(GO).block();
+        fetched.clear();
+        clock.advance(Duration.ofMinutes(5));
+
+        underTest.prewarm().block();
+
+        assertThat(fetched).isEmpty();
+
+        clock.advance(Duration.ofMinutes(4).plusSeconds(30));
+        underTest.prewarm().block();
+
+        assertThat(fetched).containsExactlyInAnyOrder(JAVA, GO);
+    }
+
+    @Test
+    void replaysMostFrequentSearchesFirstWithinSpareBudget() {
+        hotSearches.record(GO, 3);
+        hotSearches.record(JAVA, 5);
+        hotSearches.record(RUST, 1);
+        while (budget.availableTokens() > 12) {
+            budget.reserve(Duration.ZERO);
+        }
+
+        underTest.prewarm().block();
+
+        assertThat(fetched).containsExactly(JAVA, GO);
+    }
+
+    @Test
+    void keepsGoingWhenSearchFails() {
+        hotSearches.record(JAVA, 2);
+        hotSearches.record(GO, 1);
+        gitHubDown = true;
+
+        underTest.prewarm().block();
+
+        assertThat(fetched).containsExactly(JAVA, GO);
+    }
+
+    @Test
+    void restoresHotSearchesSavedOnShutdown() {
+        hotSearches.record(GO, 3);
+        hotSearches.record(JAVA, 5);
+
+        underTest.stop();
+
+        HotSearches restored = new HotSearches(10);
+        prewarmer(restored, mock(GitHubTokenPool.class)).restore();
+
+        assertThat(restored.top()).containsExactly(JAVA, GO);
+    }
+
+    private CachePrewarmer prewarmer(HotSearches hotSearches, GitHubTokenPool tokenPool) {
+        return new CachePrewarmer(repositoryService, hotSearches, tokenPool, Jackson2ObjectMapperBuilder.json().build(),
+            clock, new SimpleMeterRegistry(), directory.resolve("hot-searches.json"), Duration.ofMinutes(1), 10);
+    }
+
+    private static SearchRequest request(String language) {
+        return new SearchRequest(language, LocalDate.of(2020, 1, 1), SortField.STARS, SortDirection.DESC, 1, 100);
+    }
+}
@@ -0,0 +1,168 @@
+package com.grabduck.githubsearch.cache;
+
+import com.grabduck.githubsearch.MutableClock;
+import com.grabduck.githubsearch.domain.model.CachedSearchResults;
+import com.grabduck.githubsearch.domain.model.CreatedRange;
+import com.grabduck.githubsearch.domain.model.Repository;
+import com.grabduck.githubsearch.domain.model.SearchRequest;
+import com.grabduck.githubsearch.domain.model.SearchResults;
+import com.grabduck.githubsearch.domain.model.SortDirection;
+import com.grabduck.githubsearch.domain.model.SortField;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DiskCacheStoreTest {
+
+    private static final Duration RETENTION = Duration.ofMinutes(70);
+    private static final SearchRequest REQUEST =
+        new SearchRequest("java", LocalDate.of(2020, 1, 1), SortField.STARS, SortDirection.DESC, 1, 100);
+    private static final SearchRequest SECOND_PAGE =
+        new SearchRequest("java", LocalDate.of(2020, 1, 1), SortField.STARS, SortDirection.DESC, 2, 100);
+
+    @TempDir
+    private Path directory;
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-07-01T12:00:00.123456789Z"));
+
+    private DiskCacheStore store;
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void keepsEntriesAcrossRestarts() {
+        SearchRequest rangeRequest = new SearchRequest("go", null, SortField.UPDATED, SortDirection.ASC, 2, 10,
+            CreatedRange.ofDays(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31)));
+        CachedSearchResults unusual = new CachedSearchResults(new SearchResults(1, List.of(
+            new Repository(7L, "name", "owner/name", "https://github.com/owner/name", "Ünïcode ✓",
+                null, Instant.parse("2025-06-01T10:00:00Z"), null, 5, null, 42))), clock.instant());
+
+        store = open();
+        store.put(REQUEST, cached(100));
+        store.put(rangeRequest, unusual);
+        store.close();
+
+        store = open();
+
+        assertThat(store.size()).isEqualTo(2);
+        assertThat(store.get(REQUEST)).isEqualTo(cached(100));
+        assertThat(store.get(rangeRequest)).isEqualTo(unusual);
+    }
+
+    @Test
+    void dropsExpiredEntries() {
+        store = open();
+        store.put(REQUEST, cached(10));
+        store.flush();
+
+        clock.advance(RETENTION);
+
+        assertThat(store.get(REQUEST)).isNull();
+
+        store.close();
+        store = open();
+
+        assertThat(store.size()).isZero();
+    }
+
+    @Test
+    void compactsSupersededEntries() {
+        store = open();
+        for (int i = 0; i < 200; i++) {
+            store.put(REQUEST, cached(100));
+        }
+        store.flush();
+        long sizeBefore = store.fileSize();
+
+        store.compactIfNeeded();
+        store.flush();
+
+        assertThat(store.fileSize()).isLessThan(sizeBefore / 100);
+        assertThat(store.get(REQUEST)).isEqualTo(cached(100));
+    }
+
+    @Test
+    void dropsTornEntryAtEndOfFile() throws Exception {
+        store = open();
+        store.put(REQUEST, cached(10));
+        store.close();
+        Files.write(directory.resolve("repositories.cache"), new byte[] {0, 0, 1, 0, 0, 0}, StandardOpenOption.APPEND);
+
+        store = open();
+        store.put(SECOND_PAGE, cached(20));
+        store.close();
+        store = open();
+
+        assertThat(store.get(REQUEST)).isEqualTo(cached(10));
+        assertThat(store.get(SECOND_PAGE)).isEqualTo(cached(20));
+    }
+
+    @Test
+    void dropsEntryThatCannotBeDecodedAsMiss() throws Exception {
+        store = open();
+        store.put(REQUEST, cached(10));
+        store.close();
+        Path file = directory.resolve("repositories.cache");
+        overwrite(file, Files.size(file) - 200, 200);
+
+        store = open();
+
+        assertThat(store.get(REQUEST)).isNull();
+        assertThat(store.hitCount()).isZero();
+        assertThat(store.missCount()).isEqualTo(1);
+        store.flush();
+        assertThat(store.size()).isZero();
+    }
+
+    @Test
+    void skipsKeyThatCannotBeDecodedOnStartup() throws Exception {
+        store = open();
+        store.put(REQUEST, cached(10));
+        store.put(SECOND_PAGE, cached(20));
+        store.close();
+        // the key of the first entry, after the file header and the entry header
+        overwrite(directory.resolve("repositories.cache"), 8 + 16, 4);
+
+        store = open();
+
+        assertThat(store.size()).isEqualTo(1);
+        assertThat(store.get(SECOND_PAGE)).isEqualTo(cached(20));
+    }
+
+    private static void overwrite(Path file, long position, int length) throws Exception {
+        byte[] garbage = new byte[length];
+        Arrays.fill(garbage, (byte) 0xFF);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(garbage), position);
+        }
+    }
+
+    private DiskCacheStore open() {
+        return DiskCacheStore.open(directory, clock, RETENTION, 0.5, Duration.ofHours(1));
+    }
+
+    private CachedSearchResults cached(int size) {
+        return new CachedSearchResults(new SearchResults(1000, IntStream.range(0, size)
+            .mapToObj(i -> new Repository((long) i, "repo" + i, "owner/repo" + i, "https://github.com/owner/repo" + i,
+                "A description of repository " + i, Instant.parse("2024-01-01T00:00:00Z"),
+                Instant.parse("2025-06-01T00:00:00Z"), "Java", i * 10, i, i * 7))
+            .toList()), clock.instant());
+    }
+}
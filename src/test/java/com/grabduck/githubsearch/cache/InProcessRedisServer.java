@@ -0,0 +1,200 @@
+package com.grabduck.githubsearch.cache;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Just enough of Redis to run SharedCacheStore against in tests: RESP2 with GET, SET (with PX, not expiring),
+ * DEL, PUBLISH and SUBSCRIBE, so that several stores can share a cache without a Redis server.
+ */
+class InProcessRedisServer implements AutoCloseable {
+
+    private final ServerSocket serverSocket;
+    private final Map<ByteBuffer, byte[]> values = new ConcurrentHashMap<>();
+    private final Map<ByteBuffer, Set<Client>> subscribers = new ConcurrentHashMap<>();
+    private final Set<Socket> sockets = ConcurrentHashMap.newKeySet();
+
+    InProcessRedisServer() throws IOException {
+        this(0);
+    }
+
+    InProcessRedisServer(int port) throws IOException {
+        serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        Thread.ofVirtual().start(this::accept);
+    }
+
+    String uri() {
+        return uri(serverSocket.getLocalPort());
+    }
+
+    static String uri(int port) {
+        return "redis://localhost:" + port;
+    }
+
+    int size() {
+        return values.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        for (Socket socket : sockets) {
+            socket.close();
+        }
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                sockets.add(socket);
+                Thread.ofVirtual().start(() -> serve(new Client(socket)));
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void serve(Client client) {
+        try (client.socket) {
+            InputStream in = new BufferedInputStream(client.socket.getInputStream());
+            List<byte[]> command;
+            while ((command = readCommand(in)) != null) {
+                execute(client, command);
+            }
+        } catch (IOException e) {
+            // connection closed
+        } finally {
+            subscribers.values().forEach(clients -> clients.remove(client));
+        }
+    }
+
+    private void execute(Client client, List<byte[]> command) throws IOException {
+        String name = new String(command.get(0), StandardCharsets.US_ASCII).toUpperCase();
+        switch (name) {
+            case "PING" -> client.write("+PONG\r\n");
+            case "CLIENT", "SELECT" -> client.write("+OK\r\n");
+            case "GET" -> client.writeBulk(values.get(ByteBuffer.wrap(command.get(1))));
+            case "SET" -> {
+                values.put(ByteBuffer.wrap(command.get(1)), command.get(2));
+                client.write("+OK\r\n");
+            }
+            case "DEL" -> client.write(":" + (values.remove(ByteBuffer.wrap(command.get(1))) != null ? 1 : 0) + "\r\n");
+            case "PUBLISH" -> {
+                Set<Client> receivers = subscribers.getOrDefault(ByteBuffer.wrap(command.get(1)), Set.of());
+                for (Client receiver : receivers) {
+                    receiver.writeMessage(command.get(1), command.get(2));
+                }
+                client.write(":" + receivers.size() + "\r\n");
+            }
+            case "SUBSCRIBE" -> {
+                for (int i = 1; i < command.size(); i++) {
+                    subscribers.computeIfAbsent(ByteBuffer.wrap(command.get(i)), channel -> ConcurrentHashMap.newKeySet())
+                        .add(client);
+                    client.writeSubscribed(command.get(i), i);
+                }
+            }
+            case "QUIT" -> {
+                client.write("+OK\r\n");
+                client.socket.close();
+            }
+            default -> client.write("-ERR unknown command '" + name + "'\r\n");
+        }
+    }
+
+    private static List<byte[]> readCommand(InputStream in) throws IOException {
+        String header = readLine(in);
+        if (header == null) {
+            return null;
+        }
+        int count = Integer.parseInt(header.substring(1));
+        List<byte[]> arguments = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int length = Integer.parseInt(readLine(in).substring(1));
+            arguments.add(in.readNBytes(length));
+            readLine(in);
+        }
+        return arguments;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b == -1) {
+                return null;
+            }
+            if (b != '\r') {
+                line.write(b);
+            }
+        }
+        return line.toString(StandardCharsets.US_ASCII);
+    }
+
+    private static final class Client {
+
+        private final Socket socket;
+        private final ReentrantLock writeLock = new ReentrantLock();
+
+        Client(Socket socket) {
+            this.socket = socket;
+        }
+
+        void write(String reply) throws IOException {
+            write(reply.getBytes(StandardCharsets.US_ASCII));
+        }
+
+        void writeBulk(byte[] value) throws IOException {
+            write(value == null ? "$-1\r\n".getBytes(StandardCharsets.US_ASCII) : bulk(value));
+        }
+
+        void writeSubscribed(byte[] channel, int count) throws IOException {
+            write(concat("*3\r\n".getBytes(StandardCharsets.US_ASCII), bulk("subscribe".getBytes(StandardCharsets.US_ASCII)),
+                bulk(channel), (":" + count + "\r\n").getBytes(StandardCharsets.US_ASCII)));
+        }
+
+        void writeMessage(byte[] channel, byte[] message) throws IOException {
+            write(concat("*3\r\n".getBytes(StandardCharsets.US_ASCII), bulk("message".getBytes(StandardCharsets.US_ASCII)),
+                bulk(channel), bulk(message)));
+        }
+
+        private void write(byte[] bytes) throws IOException {
+            // replies and published messages may be written to the same connection from different threads
+            OutputStream out = socket.getOutputStream();
+            writeLock.lock();
+            try {
+                out.write(bytes);
+                out.flush();
+            } finally {
+                writeLock.unlock();
+            }
+        }
+
+        private static byte[] bulk(byte[] value) {
+            return concat(("$" + value.length + "\r\n").getBytes(StandardCharsets.US_ASCII), value,
+                "\r\n".getBytes(StandardCharsets.US_ASCII));
+        }
+
+        private static byte[] concat(byte[]... parts) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            for (byte[] part : parts) {
+                bytes.writeBytes(part);
+            }
+            return bytes.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.grabduck.githubsearch.cache;
+
+import com.grabduck.githubsearch.MutableClock;
+import com.grabduck.githubsearch.client.GitHubTokenPool;
+import com.grabduck.githubsearch.client.GitHubTokenPool.PooledToken;
+import com.grabduck.githubsearch.client.RateLimitBudget;
+import com.grabduck.githubsearch.domain.model.SearchRequest;
+import com.grabduck.githubsearch.domain.model.SearchResults;
+import com.grabduck.githubsearch.domain.model.ServedPage;
+import com.grabduck.githubsearch.domain.model.SortDirection;
+import com.grabduck.githubsearch.domain.model.SortField;
+import com.grabduck.githubsearch.domain.service.HotSearches;
+import com.grabduck.githubsearch.domain.service.PopularityRanker;
+import com.grabduck.githubsearch.domain.service.PopularityScorer;
+import com.grabduck.githubsearch.domain.service.RepositoryProvider;
+import com.grabduck.githubsearch.domain.service.RepositoryService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class NextPagePrefetcherTest {
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-07-01T12:00:00Z"));
+    private final RateLimitBudget budget = new RateLimitBudget(30, clock);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<SearchRequest> fetched = new ArrayList<>();
+    private Sinks.One<SearchResults> pendingFetch;
+
+    private final RepositoryProvider repositoryProvider = request -> Mono.defer(() -> {
+        budget.reserve(Duration.ofHours(1));
+        fetched.add(request);
+        return pendingFetch != null ? pendingFetch.asMono() : Mono.just(new SearchResults(250, List.of()));
+    });
+
+    private final RepositoryService repositoryService = new RepositoryService(
+        repositoryProvider,
+        new PopularityScorer(clock),
+        new PopularityRanker(3, 200),
+        new HotSearches(10),
+        new ConcurrentMapCacheManager("repositories"),
+        clock,
+        Duration.ofMinutes(2),
+        Duration.ofMinutes(10)
+    );
+
+    private NextPagePrefetcher underTest;
+
+    @BeforeEach
+    void setUp() {
+        GitHubTokenPool tokenPool = mock(GitHubTokenPool.class);
+        when(tokenPool.leastUsed()).thenReturn(new PooledToken("token-1", "", budget));
+
+        underTest = new NextPagePrefetcher(repositoryService, tokenPool, meterRegistry, 1, 10, Duration.ofMinutes(10));
+    }
+
+    @Test
+    void prefetchesNextPageAndCountsHit() {
+        repositoryService.searchRepositories(page(1)).block();
+
+        assertThat(fetched).containsExactly(page(1), page(2));
+
+        repositoryService.searchRepositories(page(2)).block();
+
+        assertThat(fetched).containsExactly(page(1), page(2), page(3));
+        assertThat(pages("fetched")).isEqualTo(2);
+        assertThat(meterRegistry.counter("cache.prefetch.hits", "result", "hit").count()).isEqualTo(1);
+    }
+
+    @Test
+    void prefetchesBlockOnlyWhenNextPageRunsIntoIt() {
+        repositoryService.searchRepositories(smallPage(9)).block();
+
+        assertThat(fetched).containsExactly(page(1));
+
+        repositoryService.searchRepositories(smallPage(10)).block();
+
+        assertThat(fetched).containsExactly(page(1), page(2));
+    }
+
+    @Test
+    void stopsAtLastPage() {
+        repositoryService.searchRepositories(page(3)).block();
+
+        assertThat(fetched).containsExactly(page(3));
+    }
+
+    @Test
+    void dropsPagesOverConcurrencyLimit() {
+        pendingFetch = Sinks.one();
+        underTest.prefetchNext(new ServedPage(page(1), List.of(page(1)), page(2)));
+
+        underTest.prefetchNext(new ServedPage(page(2), List.of(page(2)), page(3)));
+        pendingFetch.tryEmitValue(new SearchResults(250, List.of()));
+
+        assertThat(fetched).containsExactly(page(2));
+        assertThat(pages("dropped")).isEqualTo(1);
+    }
+
+    @Test
+    void defersPagesWithoutSpareBudget() {
+        while (budget.availableTokens() > 10) {
+            budget.reserve(Duration.ZERO);
+        }
+
+        underTest.prefetchNext(new ServedPage(page(1), List.of(page(1)), page(2)));
+
+        assertThat(fetched).isEmpty();
+        assertThat(pages("deferred")).isEqualTo(1);
+    }
+
+    private double pages(String outcome) {
+        return meterRegistry.counter("cache.prefetch.pages", "outcome", outcome).count();
+    }
+
+    private static SearchRequest page(int page) {
+        return new SearchRequest("java", LocalDate.of(2020, 1, 1), SortField.STARS, SortDirection.DESC, page, 100);
+    }
+
+    private static SearchRequest smallPage(int page) {
+        return new SearchRequest("java", LocalDate.of(2020, 1, 1), SortField.STARS, SortDirection.DESC, page, 10);
+    }
+}
@@ -0,0 +1,158 @@
+package com.grabduck.githubsearch.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.grabduck.githubsearch.MutableClock;
+import com.grabduck.githubsearch.domain.model.CachedSearchResults;
+import com.grabduck.githubsearch.domain.model.SearchRequest;
+import com.grabduck.githubsearch.domain.model.SearchResults;
+import com.grabduck.githubsearch.domain.model.SortDirection;
+import com.grabduck.githubsearch.domain.model.SortField;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SharedTierCacheTest {
+
+    private static final SearchRequest REQUEST =
+        new SearchRequest("java", LocalDate.of(2020, 1, 1), SortField.STARS, SortDirection.DESC, 1, 10);
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-07-01T12:00:00Z"));
+    private final List<SharedCacheStore> stores = new ArrayList<>();
+
+    private InProcessRedisServer redis;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        stores.forEach(SharedCacheStore::close);
+        if (redis != null) {
+            redis.close();
+        }
+    }
+
+    @Test
+    void servesResultsFetchedByAnotherNode() throws Exception {
+        redis = new InProcessRedisServer();
+        SharedTierCache nodeA = new SharedTierCache(heap(), connect());
+        SharedTierCache nodeB = new SharedTierCache(heap(), connect());
+
+        CachedSearchResults cached = results(10);
+        nodeA.put(REQUEST, cached);
+        awaitUntil(() -> redis.size() == 1);
+
+        assertThat(nodeB.get(REQUEST, CachedSearchResults.class)).isEqualTo(cached);
+        assertThat(nodeB.heap().get(REQUEST, CachedSearchResults.class)).isEqualTo(cached);
+    }
+
+    @Test
+    void retrievesResultsFetchedByAnotherNodeWithoutBlocking() throws Exception {
+        redis = new InProcessRedisServer();
+        SharedTierCache nodeA = new SharedTierCache(heap(), connect());
+        SharedTierCache nodeB = new SharedTierCache(heap(), connect());
+
+        CachedSearchResults cached = results(10);
+        nodeA.put(REQUEST, cached);
+        awaitUntil(() -> redis.size() == 1);
+
+        assertThat(nodeB.retrieve(REQUEST).get(5, TimeUnit.SECONDS)).isEqualTo(cached);
+        assertThat(nodeB.heap().get(REQUEST, CachedSearchResults.class)).isEqualTo(cached);
+        assertThat(nodeB.retrieve(new SearchRequest("go", null, SortField.STARS, SortDirection.DESC, 1, 10))
+            .get(5, TimeUnit.SECONDS)).isNull();
+    }
+
+    @Test
+    void dropsNearCopyWhenAnotherNodeWrites() throws Exception {
+        redis = new InProcessRedisServer();
+        SharedTierCache nodeA = new SharedTierCache(heap(), connect());
+        SharedCacheStore sharedB = connect();
+        SharedTierCache nodeB = new SharedTierCache(heap(), sharedB);
+        nodeB.put(REQUEST, results(10));
+        // the nodes write on connections of their own, the older results must reach Redis first
+        awaitUntil(() -> redis.size() == 1);
+
+        CachedSearchResults newer = results(20);
+        nodeA.put(REQUEST, newer);
+        awaitUntil(() -> sharedB.invalidationCount() == 1);
+
+        assertThat(nodeB.heap().get(REQUEST)).isNull();
+        assertThat(nodeB.get(REQUEST, CachedSearchResults.class)).isEqualTo(newer);
+    }
+
+    @Test
+    void missesWhenRedisIsGone() throws Exception {
+        redis = new InProcessRedisServer();
+        SharedCacheStore shared = connect();
+        SharedTierCache cache = new SharedTierCache(heap(), shared);
+        redis.close();
+
+        assertThat(cache.get(REQUEST)).isNull();
+        assertThat(shared.errorCount()).isEqualTo(1);
+    }
+
+    @Test
+    void startsWithoutRedisAndConnectsOnceItIsUp() throws Exception {
+        int port;
+        try (ServerSocket unused = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            port = unused.getLocalPort();
+        }
+        SharedCacheStore shared = open(InProcessRedisServer.uri(port));
+        SharedTierCache cache = new SharedTierCache(heap(), shared);
+
+        cache.put(REQUEST, results(10));
+        assertThat(cache.heap().get(REQUEST, CachedSearchResults.class)).isEqualTo(results(10));
+        cache.heap().clear();
+        assertThat(cache.get(REQUEST)).isNull();
+        assertThat(shared.isConnected()).isFalse();
+        assertThat(shared.errorCount()).isEqualTo(1);
+
+        redis = new InProcessRedisServer(port);
+        awaitUntil(shared::isConnected);
+        cache.put(REQUEST, results(20));
+        awaitUntil(() -> redis.size() == 1);
+        cache.heap().clear();
+
+        assertThat(cache.get(REQUEST, CachedSearchResults.class)).isEqualTo(results(20));
+    }
+
+    private SharedCacheStore connect() throws InterruptedException {
+        SharedCacheStore store = open(redis.uri());
+        awaitUntil(store::isConnected);
+        return store;
+    }
+
+    private SharedCacheStore open(String uri) {
+        SharedCacheStore store = SharedCacheStore.connect(uri, "test:", clock, Duration.ofMinutes(70),
+            Duration.ofMillis(200));
+        stores.add(store);
+        return store;
+    }
+
+    // writes and invalidations reach Redis and the other nodes in the background
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("waiting for the shared cache").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private CachedSearchResults results(int total) {
+        return new CachedSearchResults(new SearchResults(total, List.of()), clock.instant());
+    }
+
+    private static CaffeineCache heap() {
+        return new CaffeineCache("repositories", Caffeine.newBuilder().build(), false);
+    }
+}
@@ -0,0 +1,91 @@
+package com.grabduck.githubsearch.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.grabduck.githubsearch.MutableClock;
+import com.grabduck.githubsearch.domain.model.CachedSearchResults;
+import com.grabduck.githubsearch.domain.model.SearchRequest;
+import com.grabduck.githubsearch.domain.model.SearchResults;
+import com.grabduck.githubsearch.domain.model.SortDirection;
+import com.grabduck.githubsearch.domain.model.SortField;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TwoTierCacheTest {
+
+    private static final SearchRequest REQUEST =
+        new SearchRequest("java", LocalDate.of(2020, 1, 1), SortField.STARS, SortDirection.DESC, 1, 10);
+
+    @TempDir
+    private Path directory;
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-07-01T12:00:00Z"));
+    private final CachedSearchResults cached = new CachedSearchResults(new SearchResults(0, List.of()), clock.instant());
+
+    private DiskCacheStore disk;
+
+    @AfterEach
+    void tearDown() {
+        disk.close();
+    }
+
+    @Test
+    void loadsHeapFromDiskAfterRestart() {
+        disk = openDisk();
+        new TwoTierCache(heap(), disk).put(REQUEST, cached);
+        disk.close();
+
+        disk = openDisk();
+        CaffeineCache heap = heap();
+        TwoTierCache restarted = new TwoTierCache(heap, disk);
+
+        assertThat(restarted.get(REQUEST, CachedSearchResults.class)).isEqualTo(cached);
+        assertThat(heap.get(REQUEST, CachedSearchResults.class)).isEqualTo(cached);
+        assertThat(disk.hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void retrievesFromDiskIntoHeap() throws Exception {
+        disk = openDisk();
+        new TwoTierCache(heap(), disk).put(REQUEST, cached);
+        disk.flush();
+
+        CaffeineCache heap = heap();
+        TwoTierCache cache = new TwoTierCache(heap, disk);
+
+        assertThat(cache.retrieve(REQUEST).get(5, TimeUnit.SECONDS)).isEqualTo(cached);
+        assertThat(heap.get(REQUEST, CachedSearchResults.class)).isEqualTo(cached);
+        assertThat(cache.retrieve(REQUEST).get(5, TimeUnit.SECONDS)).isEqualTo(cached);
+        assertThat(disk.hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void evictsFromBothTiers() {
+        disk = openDisk();
+        TwoTierCache cache = new TwoTierCache(heap(), disk);
+        cache.put(REQUEST, cached);
+
+        cache.evict(REQUEST);
+        disk.flush();
+
+        assertThat(cache.get(REQUEST)).isNull();
+    }
+
+    private DiskCacheStore openDisk() {
+        return DiskCacheStore.open(directory, clock, Duration.ofMinutes(70), 0.5, Duration.ofHours(1));
+    }
+
+    private static CaffeineCache heap() {
+        return new CaffeineCache("repositories", Caffeine.newBuilder().build(), false);
+    }
+}
@@ -0,0 +1,73 @@
+package com.grabduck.githubsearch.client;
+
+import com.grabduck.githubsearch.client.exceptions.GitHubApiUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GitHubBulkheadTest {
+
+    private static final ClientRequest REQUEST =
+        ClientRequest.create(HttpMethod.GET, URI.create("https://api.github.com/search/repositories")).build();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final GitHubBulkhead underTest = new GitHubBulkhead(2, meterRegistry);
+
+    @Test
+    void rejectsCallsOverTheLimitUntilOneCompletes() {
+        Sinks.One<ClientResponse> first = Sinks.one();
+        Sinks.One<ClientResponse> second = Sinks.one();
+        AtomicReference<ClientResponse> firstResponse = new AtomicReference<>();
+        underTest.filter(REQUEST, request -> first.asMono()).subscribe(firstResponse::set);
+        underTest.filter(REQUEST, request -> second.asMono()).subscribe();
+
+        assertThat(underTest.callsUnderWay()).isEqualTo(2);
+        assertThatThrownBy(() -> underTest.filter(REQUEST, request -> Mono.just(ok())).block())
+            .isInstanceOf(GitHubApiUnavailableException.class);
+        assertThat(meterRegistry.get("github.bulkhead.rejected").counter().count()).isEqualTo(1);
+
+        first.tryEmitValue(ok());
+        ClientResponse response = firstResponse.get();
+
+        // the headers have arrived, the body is still to be read
+        assertThat(underTest.callsUnderWay()).isEqualTo(2);
+        response.releaseBody().block();
+        assertThat(underTest.callsUnderWay()).isEqualTo(1);
+        assertThat(underTest.filter(REQUEST, request -> Mono.just(ok())).block()).isNotNull();
+    }
+
+    @Test
+    void givesPermitBackWhenCallIsCancelledBeforeResponse() {
+        Sinks.One<ClientResponse> pending = Sinks.one();
+        Disposable call = underTest.filter(REQUEST, request -> pending.asMono()).subscribe();
+
+        call.dispose();
+
+        assertThat(underTest.callsUnderWay()).isZero();
+    }
+
+    @Test
+    void givesPermitBackOnceWhenCallFails() {
+        assertThatThrownBy(() -> underTest.filter(REQUEST, request -> Mono.error(new IOException("reset"))).block())
+            .hasCauseInstanceOf(IOException.class);
+
+        assertThat(underTest.callsUnderWay()).isZero();
+    }
+
+    private static ClientResponse ok() {
+        return ClientResponse.create(HttpStatus.OK).build();
+    }
+}
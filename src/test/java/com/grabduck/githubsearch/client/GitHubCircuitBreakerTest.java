@@ -0,0 +1,126 @@
+package com.grabduck.githubsearch.client;
+
+import com.grabduck.githubsearch.MutableClock;
+import com.grabduck.githubsearch.client.exceptions.GitHubApiUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.SimpleStatusAggregator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GitHubCircuitBreakerTest {
+
+    private static final Duration OPEN_DURATION = Duration.ofSeconds(30);
+    private static final ClientRequest REQUEST =
+        ClientRequest.create(HttpMethod.GET, URI.create("https://api.github.com/search/repositories")).build();
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-07-01T12:00:00Z"));
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final GitHubCircuitBreaker underTest =
+        new GitHubCircuitBreaker(true, 0.5, 10, 4, OPEN_DURATION, 2, clock, meterRegistry);
+
+    private final AtomicInteger sentCalls = new AtomicInteger();
+
+    @Test
+    void staysClosedBelowFailureRate() {
+        call(HttpStatus.OK);
+        call(HttpStatus.OK);
+        call(HttpStatus.OK);
+        call(HttpStatus.INTERNAL_SERVER_ERROR);
+
+        assertThat(underTest.state()).isEqualTo(GitHubCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void opensAtFailureRateAndFailsCallsFastWithoutSendingThem() {
+        open();
+        int sentBefore = sentCalls.get();
+
+        assertThatThrownBy(() -> call(HttpStatus.OK)).isInstanceOf(GitHubApiUnavailableException.class);
+        assertThat(sentCalls).hasValue(sentBefore);
+        assertThat(meterRegistry.get("github.circuitbreaker.calls").tag("outcome", "rejected").counter().count())
+            .isEqualTo(1);
+    }
+
+    @Test
+    void closesOnceProbeCallsSucceed() {
+        open();
+        clock.advance(OPEN_DURATION);
+
+        call(HttpStatus.OK);
+        assertThat(underTest.state()).isEqualTo(GitHubCircuitBreaker.State.HALF_OPEN);
+        call(HttpStatus.OK);
+
+        assertThat(underTest.state()).isEqualTo(GitHubCircuitBreaker.State.CLOSED);
+        assertThat(meterRegistry.get("github.circuitbreaker.state").tag("state", "closed").gauge().value())
+            .isEqualTo(1);
+    }
+
+    @Test
+    void opensAgainWhenProbeCallFails() {
+        open();
+        clock.advance(OPEN_DURATION);
+
+        call(HttpStatus.BAD_GATEWAY);
+
+        assertThat(underTest.state()).isEqualTo(GitHubCircuitBreaker.State.OPEN);
+        assertThatThrownBy(() -> call(HttpStatus.OK)).isInstanceOf(GitHubApiUnavailableException.class);
+        assertThat(meterRegistry.get("github.circuitbreaker.transitions").tag("state", "open").counter().count())
+            .isEqualTo(2);
+    }
+
+    @Test
+    void countsConnectionFailuresAsFailures() {
+        ExchangeFunction failing = request -> {
+            sentCalls.incrementAndGet();
+            return Mono.error(new IllegalStateException("Connection refused"));
+        };
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> underTest.filter(REQUEST, failing).block())
+                .isInstanceOf(IllegalStateException.class);
+        }
+
+        assertThat(underTest.state()).isEqualTo(GitHubCircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void showsOpenCircuitInHealthWithoutFailingIt() {
+        GitHubCircuitBreakerHealthIndicator health = new GitHubCircuitBreakerHealthIndicator(underTest);
+        assertThat(health.health().getStatus()).isEqualTo(Status.UP);
+
+        open();
+
+        assertThat(health.health().getStatus()).isEqualTo(GitHubCircuitBreakerHealthIndicator.CIRCUIT_OPEN);
+        assertThat(new SimpleStatusAggregator().getAggregateStatus(Status.UP, health.health().getStatus()))
+            .isEqualTo(Status.UP);
+    }
+
+    private void open() {
+        call(HttpStatus.OK);
+        call(HttpStatus.OK);
+        call(HttpStatus.INTERNAL_SERVER_ERROR);
+        call(HttpStatus.SERVICE_UNAVAILABLE);
+
+        assertThat(underTest.state()).isEqualTo(GitHubCircuitBreaker.State.OPEN);
+    }
+
+    private void call(HttpStatus status) {
+        underTest.filter(REQUEST, request -> {
+            sentCalls.incrementAndGet();
+            return Mono.just(ClientResponse.create(status).build());
+        }).block();
+    }
+}
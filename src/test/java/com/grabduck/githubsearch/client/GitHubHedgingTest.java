@@ -0,0 +1,87 @@
+package com.grabduck.githubsearch.client;
+
+import com.grabduck.githubsearch.MutableClock;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GitHubHedgingTest {
+
+    private static final Duration MIN_DELAY = Duration.ofMillis(50);
+    private static final ClientRequest REQUEST =
+        ClientRequest.create(HttpMethod.GET, URI.create("https://api.github.com/search/repositories")).build();
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-07-01T12:00:00Z"));
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final GitHubTokenPool tokenPool = new GitHubTokenPool(List.of("token"), 30, clock, meterRegistry);
+
+    @Test
+    void doesNotHedgeBeforeEnoughLatenciesHaveBeenSeen() {
+        GitHubHedging underTest = hedging(10);
+
+        assertThat(underTest.hedgeDelay()).isEmpty();
+    }
+
+    @Test
+    void hedgesSlowCallAndCancelsIt() {
+        GitHubHedging underTest = hedging(10);
+        warmUp(underTest);
+        assertThat(underTest.hedgeDelay()).contains(MIN_DELAY);
+
+        AtomicInteger calls = new AtomicInteger();
+        AtomicBoolean slowCallCancelled = new AtomicBoolean();
+        ExchangeFunction firstCallHangs = request -> calls.incrementAndGet() == 1
+            ? Mono.<ClientResponse>never().doOnCancel(() -> slowCallCancelled.set(true))
+            : Mono.just(ok());
+
+        assertThat(underTest.filter(REQUEST, firstCallHangs).block(Duration.ofSeconds(5))).isNotNull();
+        assertThat(calls).hasValue(2);
+        assertThat(slowCallCancelled).isTrue();
+        assertThat(meterRegistry.get("github.hedging.calls").tag("outcome", "won").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void doesNotHedgeWithoutRetryBudget() {
+        GitHubHedging underTest = hedging(0);
+        warmUp(underTest);
+
+        AtomicInteger calls = new AtomicInteger();
+        ExchangeFunction slowCall = request -> {
+            calls.incrementAndGet();
+            return Mono.delay(Duration.ofMillis(200)).map(tick -> ok());
+        };
+
+        assertThat(underTest.filter(REQUEST, slowCall).block(Duration.ofSeconds(5))).isNotNull();
+        assertThat(calls).hasValue(1);
+        assertThat(meterRegistry.get("github.hedging.calls").tag("outcome", "denied").counter().count()).isEqualTo(1);
+    }
+
+    private GitHubHedging hedging(int retryBudgetBurst) {
+        GitHubRetryBudget retryBudget = new GitHubRetryBudget(0, retryBudgetBurst, meterRegistry);
+        return new GitHubHedging(true, 0.95, MIN_DELAY, tokenPool, retryBudget, meterRegistry);
+    }
+
+    private static void warmUp(GitHubHedging underTest) {
+        for (int i = 0; i < 20; i++) {
+            underTest.filter(REQUEST, request -> Mono.just(ok())).block();
+        }
+    }
+
+    private static ClientResponse ok() {
+        return ClientResponse.create(HttpStatus.OK).build();
+    }
+}
@@ -0,0 +1,66 @@
+package com.grabduck.githubsearch.client;
+
+import com.grabduck.githubsearch.MutableClock;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GitHubRateLimiterTest {
+
+    private static final Duration MAX_WAIT = Duration.ofSeconds(10);
+    private static final ClientRequest REQUEST =
+        ClientRequest.create(HttpMethod.GET, URI.create("https://api.github.com/search/repositories")).build();
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-07-01T12:00:00Z"));
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final GitHubTokenPool tokenPool = new GitHubTokenPool(List.of("token"), 30, clock, meterRegistry);
+    private final GitHubRateLimiter underTest = new GitHubRateLimiter(true, MAX_WAIT, tokenPool, meterRegistry);
+
+    private final AtomicInteger sentCalls = new AtomicInteger();
+    private final ExchangeFunction next = request -> Mono.fromSupplier(() -> {
+        sentCalls.incrementAndGet();
+        return ClientResponse.create(HttpStatus.OK).build();
+    });
+
+    @Test
+    void callCancelledWhileWaitingGivesItsPermitBack() {
+        for (int i = 0; i < 30; i++) {
+            tokenPool.reserve(MAX_WAIT);
+        }
+
+        // 30 per minute refills a permit every 2 seconds, the call waits for it and is cancelled meanwhile
+        Disposable waiting = underTest.filter(REQUEST, next).subscribe();
+        waiting.dispose();
+
+        assertThat(sentCalls).hasValue(0);
+        assertThat(tokenPool.reserve(MAX_WAIT).orElseThrow().delay()).isEqualTo(Duration.ofSeconds(2));
+        assertThat(meterRegistry.get("github.ratelimit.calls").tag("outcome", "delayed").counter().count())
+            .isEqualTo(1);
+    }
+
+    @Test
+    void callAnsweredNotModifiedGivesItsPermitBack() {
+        for (int i = 0; i < 29; i++) {
+            tokenPool.reserve(MAX_WAIT);
+        }
+
+        underTest.filter(REQUEST, request -> Mono.just(ClientResponse.create(HttpStatus.NOT_MODIFIED).build())).block();
+
+        assertThat(tokenPool.reserve(MAX_WAIT).orElseThrow().delay()).isZero();
+        assertThat(tokenPool.reserve(MAX_WAIT).orElseThrow().delay()).isEqualTo(Duration.ofSeconds(2));
+    }
+}
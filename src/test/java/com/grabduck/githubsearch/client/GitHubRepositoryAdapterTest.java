@@ -1,29 +1,42 @@
 package com.grabduck.githubsearch.client;
 
+import com.grabduck.githubsearch.MutableClock;
 import com.grabduck.githubsearch.client.exceptions.GitHubApiClientException;
 import com.grabduck.githubsearch.client.exceptions.GitHubApiException;
 import com.grabduck.githubsearch.client.exceptions.GitHubApiRateLimitException;
 import com.grabduck.githubsearch.client.exceptions.GitHubApiServerException;
+import com.grabduck.githubsearch.client.exceptions.GitHubApiTimeoutException;
 import com.grabduck.githubsearch.domain.exceptions.RepositorySearchException;
+import com.grabduck.githubsearch.domain.model.CreatedRange;
+import com.grabduck.githubsearch.domain.model.Deadline;
 import com.grabduck.githubsearch.domain.model.SearchRequest;
 import com.grabduck.githubsearch.domain.model.SearchResults;
 import com.grabduck.githubsearch.domain.model.SortDirection;
 import com.grabduck.githubsearch.domain.model.SortField;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,9 +45,15 @@ class GitHubRepositoryAdapterTest {
     @Mock
     private GitHubClient githubClient;
 
-    @InjectMocks
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-07-01T12:00:00Z"));
+
     private GitHubRepositoryAdapter underTest;
 
+    @BeforeEach
+    void setUp() {
+        underTest = new GitHubRepositoryAdapter(githubClient, new SimpleMeterRegistry(), clock);
+    }
+
     @Test
     void findRepositories_shouldMapSuccessfulResponse() {
         SearchRequest request = new SearchRequest(
@@ -64,14 +83,16 @@ class GitHubRepositoryAdapterTest {
 
         when(githubClient.searchRepositories(
             eq(LocalDate.of(2020, 1, 1)),
+            isNull(),
+            isNull(),
             eq("Java"),
             eq("stars"),
             eq("desc"),
             eq(0),
             eq(10)
-        )).thenReturn(response);
+        )).thenReturn(Mono.just(response));
 
-        SearchResults results = underTest.findRepositories(request);
+        SearchResults results = underTest.findRepositories(request).block();
 
         // check some basic props only
         assertThat(results).isNotNull();
@@ -81,6 +102,33 @@ class GitHubRepositoryAdapterTest {
         assertThat(results.items().get(1).id()).isEqualTo(2L);
     }
 
+    @Test
+    void findRepositories_shouldPassRangeOfCreationTimes() {
+        CreatedRange range = CreatedRange.ofDays(LocalDate.of(2020, 1, 1), LocalDate.of(2020, 1, 31));
+        SearchRequest request = new SearchRequest(
+            "Java",
+            LocalDate.of(2008, 4, 1),
+            SortField.STARS,
+            SortDirection.DESC,
+            2,
+            100,
+            range
+        );
+
+        when(githubClient.searchRepositories(
+            eq(LocalDate.of(2008, 4, 1)),
+            eq(Instant.parse("2020-01-01T00:00:00Z")),
+            eq(Instant.parse("2020-01-31T23:59:59Z")),
+            eq("Java"),
+            eq("stars"),
+            eq("desc"),
+            eq(1),
+            eq(100)
+        )).thenReturn(Mono.just(new GitHubSearchResponseDto(0, false, List.of())));
+
+        assertThat(underTest.findRepositories(request).block().total()).isZero();
+    }
+
     @Test
     void findRepositories_shouldTranslateRateLimitException() {
         SearchRequest request = new SearchRequest(
@@ -92,10 +140,10 @@ class GitHubRepositoryAdapterTest {
             10
         );
 
-        when(githubClient.searchRepositories(any(), any(), any(), any(), anyInt(), anyInt()))
-            .thenThrow(new GitHubApiRateLimitException("API rate limit exceeded"));
+        when(githubClient.searchRepositories(any(), any(), any(), any(), any(), any(), anyInt(), anyInt()))
+            .thenReturn(Mono.error(new GitHubApiRateLimitException("API rate limit exceeded")));
 
-        assertThatThrownBy(() -> underTest.findRepositories(request))
+        assertThatThrownBy(() -> underTest.findRepositories(request).block())
             .isInstanceOf(RepositorySearchException.class)
             .hasCauseInstanceOf(GitHubApiRateLimitException.class);
     }
@@ -111,10 +159,10 @@ class GitHubRepositoryAdapterTest {
             10
         );
 
-        when(githubClient.searchRepositories(any(), any(), any(), any(), anyInt(), anyInt()))
-            .thenThrow(new GitHubApiClientException("Bad request"));
+        when(githubClient.searchRepositories(any(), any(), any(), any(), any(), any(), anyInt(), anyInt()))
+            .thenReturn(Mono.error(new GitHubApiClientException("Bad request")));
 
-        assertThatThrownBy(() -> underTest.findRepositories(request))
+        assertThatThrownBy(() -> underTest.findRepositories(request).block())
             .isInstanceOf(RepositorySearchException.class)
             .hasCauseInstanceOf(GitHubApiClientException.class);
     }
@@ -130,10 +178,10 @@ class GitHubRepositoryAdapterTest {
             10
         );
 
-        when(githubClient.searchRepositories(any(), any(), any(), any(), anyInt(), anyInt()))
-            .thenThrow(new GitHubApiServerException("Internal server error"));
+        when(githubClient.searchRepositories(any(), any(), any(), any(), any(), any(), anyInt(), anyInt()))
+            .thenReturn(Mono.error(new GitHubApiServerException("Internal server error")));
 
-        assertThatThrownBy(() -> underTest.findRepositories(request))
+        assertThatThrownBy(() -> underTest.findRepositories(request).block())
             .isInstanceOf(RepositorySearchException.class)
             .hasCauseInstanceOf(GitHubApiServerException.class);
     }
@@ -149,10 +197,10 @@ class GitHubRepositoryAdapterTest {
             10
         );
 
-        when(githubClient.searchRepositories(any(), any(), any(), any(), anyInt(), anyInt()))
-            .thenThrow(new GitHubApiException("Unknown error"));
+        when(githubClient.searchRepositories(any(), any(), any(), any(), any(), any(), anyInt(), anyInt()))
+            .thenReturn(Mono.error(new GitHubApiException("Unknown error")));
 
-        assertThatThrownBy(() -> underTest.findRepositories(request))
+        assertThatThrownBy(() -> underTest.findRepositories(request).block())
             .isInstanceOf(RepositorySearchException.class)
             .hasMessageContaining("Unknown error")
             .hasCauseInstanceOf(GitHubApiException.class);
@@ -169,11 +217,40 @@ class GitHubRepositoryAdapterTest {
             10
         );
 
-        when(githubClient.searchRepositories(any(), any(), any(), any(), anyInt(), anyInt()))
+        when(githubClient.searchRepositories(any(), any(), any(), any(), any(), any(), anyInt(), anyInt()))
             .thenThrow(new RuntimeException("Unexpected error"));
 
-        assertThatThrownBy(() -> underTest.findRepositories(request))
+        assertThatThrownBy(() -> underTest.findRepositories(request).block())
             .isInstanceOf(RepositorySearchException.class)
             .hasCauseInstanceOf(RuntimeException.class);
     }
+
+    @Test
+    void findRepositories_shouldBoundOnlyOwnWaitByDeadline() {
+        SearchRequest request = new SearchRequest(
+            "Java",
+            LocalDate.of(2020, 1, 1),
+            SortField.STARS,
+            SortDirection.DESC,
+            1,
+            10
+        );
+
+        when(githubClient.searchRepositories(any(), any(), any(), any(), any(), any(), anyInt(), anyInt()))
+            .thenReturn(Mono.just(new GitHubSearchResponseDto(1, false, List.of())).delayElement(Duration.ofMillis(300)));
+
+        // the caller who starts the shared call has a short deadline, the one joining it has none
+        CompletableFuture<SearchResults> starting = underTest.findRepositories(request)
+            .contextWrite(Context.of(Deadline.class, Deadline.after(Duration.ofMillis(50), clock)))
+            .toFuture();
+        CompletableFuture<SearchResults> joining = underTest.findRepositories(request).toFuture();
+
+        assertThatThrownBy(starting::join)
+            .cause()
+            .isInstanceOf(RepositorySearchException.class)
+            .hasMessageContaining("did not answer in time")
+            .hasCauseInstanceOf(GitHubApiTimeoutException.class);
+        assertThat(joining.join().total()).isEqualTo(1);
+        verify(githubClient, times(1)).searchRepositories(any(), any(), any(), any(), any(), any(), anyInt(), anyInt());
+    }
 }
@@ -0,0 +1,38 @@
+package com.grabduck.githubsearch.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GitHubRetryBudgetTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final GitHubRetryBudget underTest = new GitHubRetryBudget(0.2, 2, meterRegistry);
+
+    @Test
+    void grantsBurstRightAwayThenAShareOfCalls() {
+        assertThat(underTest.tryWithdraw()).isTrue();
+        assertThat(underTest.tryWithdraw()).isTrue();
+        assertThat(underTest.tryWithdraw()).isFalse();
+
+        for (int i = 0; i < 4; i++) {
+            underTest.deposit();
+        }
+        assertThat(underTest.tryWithdraw()).isFalse();
+
+        underTest.deposit();
+        assertThat(underTest.tryWithdraw()).isTrue();
+        assertThat(meterRegistry.get("github.retrybudget.withdrawals").tag("result", "denied").counter().count())
+            .isEqualTo(2);
+    }
+
+    @Test
+    void keepsNoMoreThanBurst() {
+        for (int i = 0; i < 100; i++) {
+            underTest.deposit();
+        }
+
+        assertThat(underTest.tokens()).isEqualTo(2);
+    }
+}
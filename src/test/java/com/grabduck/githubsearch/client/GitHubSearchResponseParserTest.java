@@ -0,0 +1,130 @@
+package com.grabduck.githubsearch.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GitHubSearchResponseParserTest {
+
+    private static final String RESPONSE = """
+        {
+          "total_count": 2,
+          "incomplete_results": true,
+          "items": [
+            {
+              "id": 28457823,
+              "node_id": "MDEwOlJlcG9zaXRvcnkyODQ1NzgyMw==",
+              "name": "freeCodeCamp",
+              "full_name": "freeCodeCamp/freeCodeCamp",
+              "owner": {
+                "login": "freeCodeCamp",
+                "id": 9892522,
+                "name": "not the repository name",
+                "html_url": "https://github.com/freeCodeCamp"
+              },
+              "html_url": "https://github.com/freeCodeCamp/freeCodeCamp",
+              "description": "freeCodeCamp.org's open-source codebase and curriculum. Learn to code for free. \\u2764",
+              "created_at": "2014-12-24T17:49:19Z",
+              "updated_at": "2025-07-13T09:28:25Z",
+              "stargazers_count": 422771,
+              "language": "TypeScript",
+              "forks_count": 40730,
+              "license": {"key": "bsd-3-clause", "name": "BSD 3-Clause"},
+              "topics": ["education", "javascript", {"nested": ["id", 1]}],
+              "score": 1.0
+            },
+            {
+              "id": 13491895,
+              "name": "free-programming-books",
+              "full_name": "EbookFoundation/free-programming-books",
+              "html_url": "https://github.com/EbookFoundation/free-programming-books",
+              "description": null,
+              "language": null,
+              "stargazers_count": 362740,
+              "forks_count": 63737,
+              "created_at": "2013-10-11T06:50:37Z",
+              "updated_at": "2025-07-13T09:26:39Z",
+              "mirror_url": null
+            }
+          ]
+        }
+        """;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 7, 64, 4096})
+    void parsesSameResultAsDataBindingWhateverTheChunkSize(int chunkSize) throws Exception {
+        GitHubSearchResponseDto expected = objectMapper.readValue(RESPONSE, GitHubSearchResponseDto.class);
+
+        assertThat(parseInChunks(RESPONSE, chunkSize)).isEqualTo(expected);
+    }
+
+    @Test
+    void readsOnlyTheFieldsOfTheItems() {
+        GitHubSearchResponseDto response = parseInChunks(RESPONSE, 64);
+
+        assertThat(response.totalCount()).isEqualTo(2);
+        assertThat(response.incompleteResults()).isTrue();
+        assertThat(response.items()).hasSize(2);
+        assertThat(response.items().get(0)).isEqualTo(new GitHubRepositoryDto(
+            28457823L,
+            "freeCodeCamp",
+            "freeCodeCamp/freeCodeCamp",
+            "https://github.com/freeCodeCamp/freeCodeCamp",
+            "freeCodeCamp.org's open-source codebase and curriculum. Learn to code for free. ❤",
+            "TypeScript",
+            422771,
+            40730,
+            LocalDateTime.of(2014, 12, 24, 17, 49, 19),
+            LocalDateTime.of(2025, 7, 13, 9, 28, 25)
+        ));
+        assertThat(response.items().get(1).description()).isNull();
+    }
+
+    @Test
+    void parsesEmptyResult() {
+        GitHubSearchResponseDto response =
+            parseInChunks("{\"total_count\": 0, \"incomplete_results\": false, \"items\": []}", 8);
+
+        assertThat(response.totalCount()).isZero();
+        assertThat(response.items()).isEmpty();
+    }
+
+    @Test
+    void failsOnTruncatedResponse() {
+        String truncated = RESPONSE.substring(0, RESPONSE.length() / 2);
+
+        assertThatThrownBy(() -> parseInChunks(truncated, 64)).isInstanceOf(DecodingException.class);
+    }
+
+    @Test
+    void failsOnMalformedResponse() {
+        assertThatThrownBy(() -> parseInChunks("{\"total_count\": 1, \"items\": [{\"id\": }]}", 64))
+            .isInstanceOf(DecodingException.class);
+    }
+
+    private static GitHubSearchResponseDto parseInChunks(String json, int chunkSize) {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        GitHubSearchResponseParser parser = new GitHubSearchResponseParser();
+
+        for (int from = 0; from < bytes.length; from += chunkSize) {
+            byte[] chunk = Arrays.copyOfRange(bytes, from, Math.min(bytes.length, from + chunkSize));
+            DataBuffer buffer = DefaultDataBufferFactory.sharedInstance.wrap(chunk);
+            parser.feed(buffer);
+        }
+        return parser.finish();
+    }
+}
@@ -0,0 +1,84 @@
+package com.grabduck.githubsearch.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GitHubTokenPoolTest {
+
+    private static final Duration MAX_WAIT = Duration.ofSeconds(10);
+
+    private final Clock clock = Clock.fixed(Instant.parse("2025-07-01T12:00:00Z"), ZoneOffset.UTC);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final GitHubTokenPool underTest =
+        new GitHubTokenPool(List.of("first", "second"), 30, clock, meterRegistry);
+
+    @Test
+    void picksTokenWithMostRemainingBudget() {
+        reportBudget("first", 5);
+        reportBudget("second", 20);
+
+        assertThat(reservedToken()).isEqualTo("second");
+    }
+
+    @Test
+    void spreadsCallsAcrossTokens() {
+        reportBudget("first", 10);
+        reportBudget("second", 10);
+
+        List<String> used = List.of(reservedToken(), reservedToken(), reservedToken(), reservedToken());
+
+        assertThat(used).containsExactlyInAnyOrder("first", "first", "second", "second");
+    }
+
+    @Test
+    void skipsExhaustedTokenUntilItsReset() {
+        reportBudget("first", 0);
+        reportBudget("second", 1);
+
+        assertThat(reservedToken()).isEqualTo("second");
+        assertThat(underTest.isExhausted()).isTrue();
+        assertThat(underTest.reserve(MAX_WAIT)).isEmpty();
+    }
+
+    @Test
+    void goesUnauthenticatedWithoutTokens() {
+        GitHubTokenPool pool = new GitHubTokenPool(List.of("", " "), 30, clock, new SimpleMeterRegistry());
+
+        assertThat(pool.reserve(MAX_WAIT)).hasValueSatisfying(
+            reservation -> assertThat(reservation.token().isAnonymous()).isTrue());
+    }
+
+    @Test
+    void reportsUtilizationPerToken() {
+        reportBudget("first", 15);
+
+        assertThat(meterRegistry.get("github.ratelimit.utilization").tag("token", "token-1").gauge().value())
+            .isEqualTo(0.5);
+        assertThat(meterRegistry.get("github.ratelimit.utilization").tag("token", "token-2").gauge().value())
+            .isZero();
+    }
+
+    private String reservedToken() {
+        return underTest.reserve(MAX_WAIT).orElseThrow().token().value();
+    }
+
+    private void reportBudget(String token, int remaining) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("X-RateLimit-Limit", "30");
+        headers.add("X-RateLimit-Remaining", String.valueOf(remaining));
+        headers.add("X-RateLimit-Reset", String.valueOf(clock.instant().plusSeconds(60).getEpochSecond()));
+
+        underTest.tokens().stream()
+            .filter(pooledToken -> pooledToken.value().equals(token))
+            .forEach(pooledToken -> pooledToken.budget().update(headers));
+    }
+}
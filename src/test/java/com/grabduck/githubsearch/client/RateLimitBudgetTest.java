@@ -0,0 +1,121 @@
+package com.grabduck.githubsearch.client;
+
+import com.grabduck.githubsearch.MutableClock;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitBudgetTest {
+
+    private static final Duration MAX_WAIT = Duration.ofSeconds(10);
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-07-01T12:00:00Z"));
+    private final RateLimitBudget underTest = new RateLimitBudget(30, clock);
+
+    @Test
+    void burstUpToCapacityGoesRightAway() {
+        for (int i = 0; i < 30; i++) {
+            assertThat(underTest.reserve(MAX_WAIT)).contains(Duration.ZERO);
+        }
+    }
+
+    @Test
+    void callsBeyondCapacityArePacedAndThenRejected() {
+        drainBucket();
+
+        // 30 per minute refills a permit every 2 seconds
+        assertThat(underTest.reserve(MAX_WAIT)).contains(Duration.ofSeconds(2));
+        assertThat(underTest.reserve(MAX_WAIT)).contains(Duration.ofSeconds(4));
+        underTest.reserve(MAX_WAIT);
+        underTest.reserve(MAX_WAIT);
+        assertThat(underTest.reserve(MAX_WAIT)).contains(Duration.ofSeconds(10));
+        assertThat(underTest.reserve(MAX_WAIT)).isEmpty();
+
+        clock.advance(Duration.ofSeconds(2));
+        assertThat(underTest.reserve(MAX_WAIT)).contains(Duration.ofSeconds(10));
+    }
+
+    @Test
+    void releasedPermitShortensWaitOfNextCalls() {
+        drainBucket();
+        assertThat(underTest.reserve(MAX_WAIT)).contains(Duration.ofSeconds(2));
+        assertThat(underTest.reserve(MAX_WAIT)).contains(Duration.ofSeconds(4));
+
+        underTest.release();
+
+        assertThat(underTest.reserve(MAX_WAIT)).contains(Duration.ofSeconds(4));
+    }
+
+    @Test
+    void exhaustedGitHubBudgetWaitsForReset() {
+        underTest.update(rateLimitHeaders(0, clock.instant().plusSeconds(5)));
+
+        assertThat(underTest.remaining()).isZero();
+        assertThat(underTest.reserve(MAX_WAIT)).contains(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void exhaustedGitHubBudgetBeyondMaxWaitIsRejected() {
+        underTest.update(rateLimitHeaders(0, clock.instant().plusSeconds(60)));
+
+        assertThat(underTest.reserve(MAX_WAIT)).isEmpty();
+    }
+
+    @Test
+    void budgetIsCountedDownLocallyAndRestoredOnReset() {
+        underTest.update(rateLimitHeaders(2, clock.instant().plusSeconds(60)));
+
+        underTest.reserve(MAX_WAIT);
+        underTest.reserve(MAX_WAIT);
+        assertThat(underTest.remaining()).isZero();
+        assertThat(underTest.reserve(MAX_WAIT)).isEmpty();
+
+        clock.advance(Duration.ofSeconds(60));
+        assertThat(underTest.remaining()).isEqualTo(30);
+        assertThat(underTest.reserve(MAX_WAIT)).contains(Duration.ZERO);
+    }
+
+    @Test
+    void staleResponseDoesNotRaiseRemainingBudget() {
+        Instant resetAt = clock.instant().plusSeconds(60);
+        underTest.update(rateLimitHeaders(5, resetAt));
+        underTest.update(rateLimitHeaders(7, resetAt));
+
+        assertThat(underTest.remaining()).isEqualTo(5);
+    }
+
+    @Test
+    void retryAfterIsHonoured() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("Retry-After", "8");
+        underTest.update(headers);
+
+        assertThat(underTest.reserve(MAX_WAIT)).contains(Duration.ofSeconds(8));
+    }
+
+    @Test
+    void rejectedCallDoesNotConsumeBudget() {
+        underTest.update(rateLimitHeaders(0, clock.instant().plusSeconds(60)));
+        underTest.reserve(MAX_WAIT);
+
+        assertThat(underTest.availableTokens()).isEqualTo(30);
+    }
+
+    private void drainBucket() {
+        for (int i = 0; i < 30; i++) {
+            underTest.reserve(MAX_WAIT);
+        }
+    }
+
+    private static HttpHeaders rateLimitHeaders(int remaining, Instant resetAt) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("X-RateLimit-Limit", "30");
+        headers.add("X-RateLimit-Remaining", String.valueOf(remaining));
+        headers.add("X-RateLimit-Reset", String.valueOf(resetAt.getEpochSecond()));
+        return headers;
+    }
+}
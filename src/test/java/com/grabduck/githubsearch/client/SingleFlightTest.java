@@ -0,0 +1,132 @@
+package com.grabduck.githubsearch.client;
+
+import com.grabduck.githubsearch.domain.model.Deadline;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.context.Context;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SingleFlight<String, String> underTest = new SingleFlight<>("test", meterRegistry);
+
+    @Test
+    void concurrentIdenticalCallsShareOneExecution() {
+        int callers = 10;
+        AtomicInteger executions = new AtomicInteger();
+        Sinks.One<String> upstream = Sinks.one();
+
+        List<CompletableFuture<String>> results = IntStream.range(0, callers)
+            .mapToObj(i -> underTest.execute("java", () -> {
+                executions.incrementAndGet();
+                return upstream.asMono();
+            }).toFuture())
+            .toList();
+
+        upstream.tryEmitValue("result");
+
+        results.forEach(result -> assertThat(result.join()).isEqualTo("result"));
+        assertThat(executions.get()).isEqualTo(1);
+        assertThat(coalescedCount()).isEqualTo(callers - 1);
+    }
+
+    @Test
+    void sequentialCallsAreExecutedEachTime() {
+        AtomicInteger executions = new AtomicInteger();
+
+        underTest.execute("java", () -> Mono.just("result" + executions.incrementAndGet())).block();
+        String second = underTest.execute("java", () -> Mono.just("result" + executions.incrementAndGet())).block();
+
+        assertThat(second).isEqualTo("result2");
+        assertThat(coalescedCount()).isZero();
+    }
+
+    @Test
+    void errorIsPropagatedAndCallIsForgotten() {
+        Mono<String> failing = underTest.execute("java", () -> Mono.error(new IllegalStateException("boom")));
+
+        assertThatThrownBy(failing::block).isInstanceOf(IllegalStateException.class);
+        assertThat(underTest.execute("java", () -> Mono.just("recovered")).block()).isEqualTo("recovered");
+    }
+
+    @Test
+    void cancelledStarterDoesNotCancelCallOthersWaitFor() {
+        Sinks.One<String> upstream = Sinks.one();
+
+        Disposable starter = underTest.execute("java", upstream::asMono).subscribe();
+        CompletableFuture<String> second = underTest.execute("java", upstream::asMono).toFuture();
+        // the subscriber who started the call gives up waiting
+        starter.dispose();
+
+        upstream.tryEmitValue("result");
+
+        assertThat(second.join()).isEqualTo("result");
+        assertThat(coalescedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void callIsCancelledOnceAllSubscribersLeft() {
+        AtomicInteger cancelled = new AtomicInteger();
+        Supplier<Mono<String>> call = () -> Mono.<String>never().doOnCancel(cancelled::incrementAndGet);
+
+        Disposable first = underTest.execute("java", call).subscribe();
+        Disposable second = underTest.execute("java", call).subscribe();
+        first.dispose();
+        assertThat(cancelled).hasValue(0);
+        second.dispose();
+
+        assertThat(cancelled).hasValue(1);
+        assertThat(underTest.execute("java", () -> Mono.just("again")).block()).isEqualTo("again");
+    }
+
+    @Test
+    void sharedCallRunsWithoutStarterContext() {
+        String seen = underTest.execute("java", () -> Mono.deferContextual(context ->
+                Mono.just(context.getOrDefault("deadline", "none"))))
+            .contextWrite(Context.of("deadline", "starter's"))
+            .block();
+
+        assertThat(seen).isEqualTo("none");
+    }
+
+    @Test
+    void sharedCallRunsUnderLatestDeadlineOfItsSubscribers() {
+        Instant now = Instant.parse("2025-07-01T12:00:00Z");
+        Deadline early = new Deadline(now.plusSeconds(1));
+        Deadline late = new Deadline(now.plusSeconds(5));
+        AtomicReference<CallDeadline> callDeadline = new AtomicReference<>();
+        Sinks.One<String> upstream = Sinks.one();
+
+        underTest.execute("java", () -> Mono.deferContextual(context -> {
+                callDeadline.set(CallDeadline.from(context));
+                return upstream.asMono();
+            }))
+            .contextWrite(Context.of(Deadline.class, early))
+            .subscribe();
+        assertThat(callDeadline.get().get()).contains(early);
+
+        underTest.execute("java", upstream::asMono).contextWrite(Context.of(Deadline.class, late)).subscribe();
+        assertThat(callDeadline.get().get()).contains(late);
+
+        underTest.execute("java", upstream::asMono).subscribe();
+        assertThat(callDeadline.get().get()).isEmpty();
+    }
+
+    private double coalescedCount() {
+        return meterRegistry.get("singleflight.calls").tag("outcome", "coalesced").counter().count();
+    }
+}
@@ -0,0 +1,154 @@
+package com.grabduck.githubsearch.client;
+
+import com.grabduck.githubsearch.MutableClock;
+import com.grabduck.githubsearch.client.exceptions.GitHubApiServerException;
+import com.grabduck.githubsearch.client.exceptions.GitHubApiTimeoutException;
+import com.grabduck.githubsearch.domain.exceptions.RepositorySearchException;
+import com.grabduck.githubsearch.domain.model.Deadline;
+import com.grabduck.githubsearch.domain.model.SearchRequest;
+import com.grabduck.githubsearch.domain.model.SortDirection;
+import com.grabduck.githubsearch.domain.model.SortField;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WebClientGitHubClientTest {
+
+    private static final String SEARCH_RESPONSE = """
+        {"total_count": 1, "incomplete_results": false, "items": [{"id": 1, "name": "repo", "full_name": "owner/repo"}]}
+        """;
+    private static final SearchRequest REQUEST =
+        new SearchRequest("java", null, SortField.STARS, SortDirection.DESC, 1, 100);
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-07-01T12:00:00Z"));
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<ClientRequest> sentRequests = new ArrayList<>();
+    private final AtomicReference<ClientResponse> nextResponse = new AtomicReference<>();
+    private final AtomicInteger cancelledRequests = new AtomicInteger();
+
+    private final WebClientGitHubClient underTest = client(true);
+
+    @Test
+    void revalidatesWithETagAndReusesKeptResponseWhenNotModified() {
+        nextResponse.set(ok("\"v1\""));
+        GitHubSearchResponseDto first = search();
+
+        nextResponse.set(ClientResponse.create(HttpStatus.NOT_MODIFIED).header(HttpHeaders.ETAG, "\"v1\"").build());
+        GitHubSearchResponseDto second = search();
+
+        assertThat(sentRequests.get(0).headers().getIfNoneMatch()).isEmpty();
+        assertThat(sentRequests.get(1).headers().getIfNoneMatch()).containsExactly("\"v1\"");
+        assertThat(second).isEqualTo(first);
+        assertThat(second.items()).hasSize(1);
+        assertThat(meterRegistry.get("github.etag.calls").tag("outcome", "revalidated").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void keepsNewETagWhenResultsChanged() {
+        nextResponse.set(ok("\"v1\""));
+        search();
+        nextResponse.set(ok("\"v2\""));
+        search();
+        nextResponse.set(ok("\"v3\""));
+        search();
+
+        assertThat(sentRequests.get(2).headers().getIfNoneMatch()).containsExactly("\"v2\"");
+        assertThat(meterRegistry.get("github.etag.calls").tag("outcome", "changed").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void sendsNoETagWhenDisabled() {
+        WebClientGitHubClient client = client(false);
+        nextResponse.set(ok("\"v1\""));
+        client.searchRepositories(null, null, null, "java", "stars", "desc", 0, 100).block();
+        nextResponse.set(ok("\"v1\""));
+        client.searchRepositories(null, null, null, "java", "stars", "desc", 0, 100).block();
+
+        assertThat(sentRequests.get(1).headers().getIfNoneMatch()).isEmpty();
+    }
+
+    @Test
+    void callThroughAdapterIsNotRetriedPastDeadlineOfItsCaller() {
+        GitHubRepositoryAdapter adapter = new GitHubRepositoryAdapter(client(true, 3), meterRegistry, clock);
+        nextResponse.set(ClientResponse.create(HttpStatus.INTERNAL_SERVER_ERROR).body("boom").build());
+
+        // the backoff before a retry, at least a second, would take the call past the deadline
+        assertThatThrownBy(() -> adapter.findRepositories(REQUEST)
+                .contextWrite(Context.of(Deadline.class, Deadline.after(Duration.ofMillis(500), clock)))
+                .block())
+            .isInstanceOf(RepositorySearchException.class)
+            .cause().isInstanceOf(GitHubApiServerException.class).hasMessageContaining("Failed after 0 retries");
+        assertThat(sentRequests).hasSize(1);
+    }
+
+    @Test
+    void callThroughAdapterIsCancelledOnceItsCallerGaveUp() {
+        GitHubRepositoryAdapter adapter = new GitHubRepositoryAdapter(client(true, 3), meterRegistry, clock);
+        // GitHub never answers
+
+        assertThatThrownBy(() -> adapter.findRepositories(REQUEST)
+                .contextWrite(Context.of(Deadline.class, Deadline.after(Duration.ofMillis(100), clock)))
+                .block())
+            .isInstanceOf(RepositorySearchException.class)
+            .hasCauseInstanceOf(GitHubApiTimeoutException.class);
+        assertThat(cancelledRequests).hasValue(1);
+    }
+
+    private GitHubSearchResponseDto search() {
+        return underTest.searchRepositories(null, null, null, "java", "stars", "desc", 0, 100).block();
+    }
+
+    private static ClientResponse ok(String etag) {
+        return ClientResponse.create(HttpStatus.OK)
+            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+            .header(HttpHeaders.ETAG, etag)
+            .body(SEARCH_RESPONSE)
+            .build();
+    }
+
+    private WebClientGitHubClient client(boolean eTagsEnabled) {
+        return client(eTagsEnabled, 0);
+    }
+
+    private WebClientGitHubClient client(boolean eTagsEnabled, int maxRetries) {
+        WebClient.Builder webClientBuilder = WebClient.builder().exchangeFunction(request -> {
+            sentRequests.add(request);
+            return nextResponse.get() == null
+                ? Mono.<ClientResponse>never().doOnCancel(cancelledRequests::incrementAndGet)
+                : Mono.just(nextResponse.get());
+        });
+        GitHubTokenPool tokenPool = new GitHubTokenPool(List.of(), 30, clock, meterRegistry);
+        GitHubRetryBudget retryBudget = new GitHubRetryBudget(0.2, 10, meterRegistry);
+
+        return new WebClientGitHubClient(
+            webClientBuilder, "https://api.github.com", "2022-11-28",
+            10, -1, Duration.ofSeconds(10), Duration.ofSeconds(30), Duration.ofMinutes(10), Duration.ofSeconds(15),
+            Duration.ofSeconds(5), Duration.ofSeconds(30), false,
+            maxRetries, Duration.ofSeconds(1),
+            retryBudget,
+            new GitHubETagCache(eTagsEnabled, 1000, Duration.ofHours(1), meterRegistry),
+            new GitHubHedging(false, 0.95, Duration.ofSeconds(1), tokenPool, retryBudget, meterRegistry),
+            new GitHubCircuitBreaker(false, 0.5, 20, 10, Duration.ofSeconds(30), 3, clock, meterRegistry),
+            new GitHubBulkhead(-1, meterRegistry),
+            new GitHubRateLimiter(false, Duration.ofSeconds(10), tokenPool, meterRegistry),
+            clock
+        );
+    }
+}
@@ -0,0 +1,92 @@
+package com.grabduck.githubsearch.domain.service;
+
+import com.grabduck.githubsearch.domain.model.Repository;
+import com.grabduck.githubsearch.domain.model.SearchRequest;
+import com.grabduck.githubsearch.domain.model.SearchResults;
+import com.grabduck.githubsearch.domain.model.SortDirection;
+import com.grabduck.githubsearch.domain.model.SortField;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PopularityRankerTest {
+
+    private final Map<Integer, SearchRequest> candidateRequests = new ConcurrentHashMap<>();
+
+    // page 1 holds the most starred repositories, but page 2 the most forked ones, which score higher
+    private final RepositoryProvider repositoryProvider = request -> {
+        candidateRequests.put(request.page(), request);
+        return Mono.just(switch (request.page()) {
+            case 1 -> results(repositories(1, 3, 1000, 0));
+            case 2 -> results(repositories(4, 6, 900, 5000));
+            default -> results(List.of());
+        });
+    };
+
+    private final PopularityScorer scorer =
+        new PopularityScorer(Clock.fixed(Instant.parse("2025-07-01T12:00:00Z"), ZoneOffset.UTC));
+
+    private final PopularityRanker underTest = new PopularityRanker(3, 4);
+
+    @Test
+    void fetchesCandidatePagesOfMostStarredRepositories() {
+        rank(pageRequest(SortDirection.DESC, 1, 10));
+
+        assertThat(candidateRequests.keySet()).containsExactlyInAnyOrder(1, 2, 3);
+        assertThat(candidateRequests.values()).allSatisfy(request -> {
+            assertThat(request.sort()).isEqualTo(SortField.STARS);
+            assertThat(request.direction()).isEqualTo(SortDirection.DESC);
+            assertThat(request.size()).isEqualTo(SearchRequest.MAX_SIZE);
+            assertThat(request.language()).isEqualTo("java");
+        });
+    }
+
+    @Test
+    void keepsTopKMostPopularCandidatesInOrder() {
+        SearchResults window = rank(pageRequest(SortDirection.DESC, 1, 10));
+
+        assertThat(window.total()).isEqualTo(4);
+        assertThat(window.items()).extracting(Repository::id).containsExactly(4L, 5L, 6L, 1L);
+        assertThat(window.items()).extracting(Repository::popularityScore).isSortedAccordingTo((a, b) -> b - a);
+    }
+
+    @Test
+    void servesBlocksOutOfTheWindow() {
+        SearchResults block = rank(pageRequest(SortDirection.DESC, 2, 3));
+
+        assertThat(block.total()).isEqualTo(4);
+        assertThat(block.items()).extracting(Repository::id).containsExactly(1L);
+        assertThat(rank(pageRequest(SortDirection.ASC, 1, 2)).items()).extracting(Repository::id).containsExactly(1L, 6L);
+        assertThat(rank(pageRequest(SortDirection.DESC, 5, 3)).items()).isEmpty();
+    }
+
+    private SearchResults rank(SearchRequest block) {
+        return underTest.rankBlock(block, request -> repositoryProvider.findRepositories(request).map(scorer::score))
+            .block();
+    }
+
+    private static SearchRequest pageRequest(SortDirection direction, int page, int size) {
+        return new SearchRequest("java", LocalDate.of(2020, 1, 1), SortField.POPULARITY, direction, page, size);
+    }
+
+    private static SearchResults results(List<Repository> repositories) {
+        return new SearchResults(repositories.size(), repositories);
+    }
+
+    private static List<Repository> repositories(long fromId, long toId, int stars, int forks) {
+        return LongStream.rangeClosed(fromId, toId)
+            .mapToObj(id -> new Repository(id, "repo" + id, "owner/repo" + id, "url", "desc",
+                null, null, "Java", stars - (int) id, forks - (int) id))
+            .toList();
+    }
+}
@@ -1,26 +1,26 @@
-package com.grabduck.githubsearch.domain.model;
+package com.grabduck.githubsearch.domain.service;
 
+import com.grabduck.githubsearch.domain.model.Repository;
+import com.grabduck.githubsearch.domain.model.SearchResults;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.BeforeEach;
 
+import java.time.Clock;
 import java.time.Instant;
+import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
-class RepositoryTest {
-    private Instant now;
-    
-    @BeforeEach
-    void setUp() {
-        now = Instant.now();
-    }
+class PopularityScorerTest {
+    private final Instant now = Instant.parse("2025-07-01T12:00:00Z");
+    private final PopularityScorer underTest = new PopularityScorer(Clock.fixed(now, ZoneOffset.UTC));
 
     @Test
     void popularityScoreWithAllComponents() {
         Repository repository = createRepository(now.minus(1, ChronoUnit.DAYS), 100, 20);
 
-        int score = repository.popularityScore();
+        int score = PopularityScorer.score(repository, now);
 
         // Expected: (100 * 0.7) + (20 * 0.2) + (10 / (1 + 1) * 0.1) = 70 + 4 + 0.5 = 74.5 = 75
         assertEquals(75, score);
@@ -30,7 +30,7 @@ class RepositoryTest {
     void popularityScoreWithAllNullComponents() {
         Repository repository = createRepository(null, null, null);
 
-        int score = repository.popularityScore();
+        int score = PopularityScorer.score(repository, now);
 
         // Expected: (100 * 0) + (20 * 0) + (0 * 0.1) = 0
         assertEquals(0, score);
@@ -40,7 +40,7 @@ class RepositoryTest {
     void popularityScoreWithNullStars() {
         Repository repository = createRepository(now.minus(1, ChronoUnit.DAYS), null, 20);
 
-        int score = repository.popularityScore();
+        int score = PopularityScorer.score(repository, now);
 
         // Expected: (0 * 0.7) + (20 * 0.2) + (10 / (1 + 1) * 0.1) = 0 + 4 + 0.5 = 4.5 = 5
         assertEquals(5, score);
@@ -50,7 +50,7 @@ class RepositoryTest {
     void popularityScoreWithNullForks() {
         Repository repository = createRepository(now.minus(1, ChronoUnit.DAYS), 100, null);
 
-        int score = repository.popularityScore();
+        int score = PopularityScorer.score(repository, now);
 
         // Expected: (100 * 0.7) + (0 * 0.2) + (10 / (1 + 1) * 0.1) = 70 + 0 + 0.5 = 70.5 = 71
         assertEquals(71, score);
@@ -60,12 +60,32 @@ class RepositoryTest {
     void popularityScoreWithNullUpdatedDate() {
         Repository repository = createRepository(null, 100, 20);
 
-        int score = repository.popularityScore();
+        int score = PopularityScorer.score(repository, now);
 
         // Expected: (100 * 0.7) + (20 * 0.2) + (0 * 0.1) = 70 + 4 + 0 = 74
         assertEquals(74, score);
     }
 
+    @Test
+    void scoresWholeResultSetAgainstTheSameMoment() {
+        Repository recent = createRepository(now.minus(1, ChronoUnit.DAYS), 100, 20);
+        Repository unscored = createRepository(null, 100, 20);
+
+        SearchResults scored = underTest.score(new SearchResults(2, List.of(recent, unscored)));
+
+        assertEquals(2, scored.total());
+        assertEquals(75, scored.items().get(0).popularityScore());
+        assertEquals(74, scored.items().get(1).popularityScore());
+        assertEquals(0, recent.popularityScore());
+    }
+
+    @Test
+    void scoreIsStableForTheSameMoment() {
+        Repository repository = createRepository(now.minus(3, ChronoUnit.DAYS), 1000, 200);
+
+        assertEquals(PopularityScorer.score(repository, now), PopularityScorer.score(repository, now));
+    }
+
     private Repository createRepository(Instant updatedAt, Integer stars, Integer forks) {
         return new Repository(
             3081286L,
@@ -80,6 +100,4 @@ class RepositoryTest {
                 forks
         );
     }
-    
-
 }
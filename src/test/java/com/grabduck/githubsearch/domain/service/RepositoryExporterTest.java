@@ -0,0 +1,113 @@
+package com.grabduck.githubsearch.domain.service;
+
+import com.grabduck.githubsearch.domain.model.CreatedRange;
+import com.grabduck.githubsearch.domain.model.ExportRequest;
+import com.grabduck.githubsearch.domain.model.ExportSlice;
+import com.grabduck.githubsearch.domain.model.Repository;
+import com.grabduck.githubsearch.domain.model.SearchRequest;
+import com.grabduck.githubsearch.domain.model.SearchResults;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RepositoryExporterTest {
+
+    private static final Instant START = Instant.parse("2020-01-01T00:00:00Z");
+
+    private final Clock clock = Clock.fixed(Instant.parse("2025-07-01T12:00:00Z"), ZoneOffset.UTC);
+    private final AtomicInteger calls = new AtomicInteger();
+    private final List<Repository> github = new ArrayList<>();
+
+    // searches the repositories above the way GitHub does: by creation time, most starred first, at most 1000 results
+    private final RepositoryProvider repositoryProvider = request -> Mono.fromSupplier(() -> {
+        calls.incrementAndGet();
+        CreatedRange range = request.createdWithin();
+        List<Repository> matching = github.stream()
+            .filter(repository -> !repository.createdAt().isBefore(range.from()) && !repository.createdAt().isAfter(range.to()))
+            .sorted(Comparator.comparing(Repository::stargazersCount).reversed())
+            .toList();
+        int from = Math.min(Math.min(matching.size(), SearchRequest.RESULTS_CAP), (request.page() - 1) * request.size());
+        int to = Math.min(Math.min(matching.size(), SearchRequest.RESULTS_CAP), from + request.size());
+        return new SearchResults(matching.size(), matching.subList(from, to));
+    });
+
+    private final RepositoryExporter underTest =
+        new RepositoryExporter(repositoryProvider, new PopularityScorer(clock), clock, 4);
+
+    @Test
+    void exportsEveryRepositoryOnceInSlicesUnderTheCap() {
+        // one repository created every hour for 120 days
+        addRepositories(2880, 3600);
+
+        List<ExportSlice> slices = underTest.export(request(null)).collectList().block();
+
+        assertThat(slices).hasSizeGreaterThan(2).allSatisfy(slice -> {
+            assertThat(slice.truncated()).isFalse();
+            assertThat(slice.repositories()).hasSizeLessThanOrEqualTo(SearchRequest.RESULTS_CAP);
+        });
+        assertThat(slices.stream().flatMap(slice -> slice.repositories().stream()).map(Repository::id))
+            .doesNotHaveDuplicates()
+            .hasSize(2880);
+        assertThat(slices).isSortedAccordingTo(Comparator.comparing(slice -> slice.range().from()));
+        assertThat(slices.get(0).repositories()).allSatisfy(
+            repository -> assertThat(repository.popularityScore()).isPositive());
+    }
+
+    @Test
+    void fetchesSmallExportWithoutProbingFirst() {
+        addRepositories(250, 3600);
+
+        List<ExportSlice> slices = underTest.export(request(null)).collectList().block();
+
+        assertThat(slices).hasSize(1);
+        assertThat(slices.get(0).repositories()).hasSize(250);
+        assertThat(calls).hasValue(3);
+    }
+
+    @Test
+    void resumesAfterCheckpoint() {
+        addRepositories(2880, 3600);
+        Instant checkpoint = START.plusSeconds(1000 * 3600L);
+
+        List<Repository> exported = underTest.export(request(checkpoint)).collectList().block().stream()
+            .flatMap(slice -> slice.repositories().stream())
+            .toList();
+
+        assertThat(exported).hasSize(2880 - 1001)
+            .allSatisfy(repository -> assertThat(repository.createdAt()).isAfter(checkpoint));
+    }
+
+    @Test
+    void truncatesSliceThatCannotBeSplitAnyFurther() {
+        // all created within the same second
+        addRepositories(1200, 0);
+
+        List<ExportSlice> slices = underTest.export(request(null)).collectList().block();
+
+        assertThat(slices).filteredOn(ExportSlice::truncated).singleElement()
+            .satisfies(slice -> assertThat(slice.repositories()).hasSize(SearchRequest.RESULTS_CAP));
+    }
+
+    private ExportRequest request(Instant resumeAfter) {
+        return new ExportRequest("java", LocalDate.of(2020, 1, 1), LocalDate.of(2020, 12, 31), resumeAfter);
+    }
+
+    private void addRepositories(int count, long secondsApart) {
+        LongStream.range(0, count).forEach(i -> github.add(new Repository(
+            i, "repo" + i, "owner/repo" + i, "https://github.com/owner/repo" + i, null,
+            START.plusSeconds(i * secondsApart), START.plusSeconds(i * secondsApart),
+            "Java", (int) (i * 7919 % 5000), 10
+        )));
+    }
+}
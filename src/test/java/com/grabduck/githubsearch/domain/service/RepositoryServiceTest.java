@@ -0,0 +1,245 @@
+package com.grabduck.githubsearch.domain.service;
+
+import com.grabduck.githubsearch.MutableClock;
+import com.grabduck.githubsearch.domain.exceptions.RepositorySearchException;
+import com.grabduck.githubsearch.domain.model.CachedSearchResults;
+import com.grabduck.githubsearch.domain.model.Repository;
+import com.grabduck.githubsearch.domain.model.SearchRequest;
+import com.grabduck.githubsearch.domain.model.SearchResults;
+import com.grabduck.githubsearch.domain.model.SortDirection;
+import com.grabduck.githubsearch.domain.model.SortField;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RepositoryServiceTest {
+
+    private static final SearchRequest REQUEST =
+        new SearchRequest("java", LocalDate.of(2020, 1, 1), SortField.STARS, SortDirection.DESC, 1, 10);
+    // the block of 100 results REQUEST is cut out of
+    private static final SearchRequest BLOCK =
+        new SearchRequest("java", LocalDate.of(2020, 1, 1), SortField.STARS, SortDirection.DESC, 1, 100);
+    private static final SearchResults CACHED = new SearchResults(1, List.of());
+    private static final SearchResults FRESH = new SearchResults(2, List.of());
+
+    @Mock
+    private RepositoryProvider repositoryProvider;
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-07-01T12:00:00Z"));
+
+    private final HotSearches hotSearches = new HotSearches(10);
+
+    private RepositoryService underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new RepositoryService(
+            repositoryProvider,
+            new PopularityScorer(clock),
+            new PopularityRanker(3, 200),
+            hotSearches,
+            new ConcurrentMapCacheManager("repositories"),
+            clock,
+            Duration.ofMinutes(2),
+            Duration.ofMinutes(10)
+        );
+
+        when(repositoryProvider.findRepositories(BLOCK)).thenReturn(Mono.just(CACHED));
+        underTest.searchRepositories(REQUEST).block();
+    }
+
+    @Test
+    void servesFreshEntryFromCache() {
+        clock.advance(Duration.ofMinutes(1));
+
+        assertThat(underTest.searchRepositories(REQUEST).block()).isEqualTo(CACHED);
+        verify(repositoryProvider, times(1)).findRepositories(BLOCK);
+    }
+
+    @Test
+    void servesStaleEntryRightAwayAndRefreshesItInBackground() {
+        when(repositoryProvider.findRepositories(BLOCK)).thenReturn(Mono.just(FRESH));
+        clock.advance(Duration.ofMinutes(5));
+
+        assertThat(underTest.searchRepositories(REQUEST).block()).isEqualTo(CACHED);
+        assertThat(underTest.searchRepositories(REQUEST).block()).isEqualTo(FRESH);
+        verify(repositoryProvider, times(2)).findRepositories(BLOCK);
+    }
+
+    @Test
+    void keepsServingStaleEntryWhenBackgroundRefreshFails() {
+        when(repositoryProvider.findRepositories(BLOCK)).thenReturn(Mono.error(new RepositorySearchException("down")));
+        clock.advance(Duration.ofMinutes(5));
+
+        assertThat(underTest.searchRepositories(REQUEST).block()).isEqualTo(CACHED);
+        assertThat(underTest.searchRepositories(REQUEST).block()).isEqualTo(CACHED);
+    }
+
+    @Test
+    void fetchesExpiredEntryBeforeServingIt() {
+        when(repositoryProvider.findRepositories(BLOCK)).thenReturn(Mono.just(FRESH));
+        clock.advance(Duration.ofMinutes(15));
+
+        assertThat(underTest.searchRepositories(REQUEST).block()).isEqualTo(FRESH);
+    }
+
+    @Test
+    void servesExpiredEntryWhenSearchFails() {
+        when(repositoryProvider.findRepositories(BLOCK))
+            .thenReturn(Mono.error(new RepositorySearchException("API rate limit exceeded. Please try again later.")));
+        clock.advance(Duration.ofMinutes(15));
+
+        assertThat(underTest.searchRepositories(REQUEST).block()).isEqualTo(CACHED);
+    }
+
+    @Test
+    void failsWhenSearchFailsAndNothingIsCached() {
+        SearchRequest otherRequest = new SearchRequest("go", null, SortField.STARS, SortDirection.DESC, 1, 100);
+        when(repositoryProvider.findRepositories(otherRequest)).thenReturn(Mono.error(new RepositorySearchException("down")));
+
+        assertThatThrownBy(() -> underTest.searchRepositories(otherRequest).block())
+            .isInstanceOf(RepositorySearchException.class);
+    }
+
+    @Test
+    void cutsPagesOfAnySizeOutOfCachedBlocks() {
+        SearchRequest secondBlock = new SearchRequest("java", LocalDate.of(2020, 1, 1), SortField.STARS,
+            SortDirection.DESC, 2, 100);
+        when(repositoryProvider.findRepositories(BLOCK)).thenReturn(Mono.just(block(0, 250)));
+        when(repositoryProvider.findRepositories(secondBlock)).thenReturn(Mono.just(block(100, 250)));
+        clock.advance(Duration.ofMinutes(15));
+
+        SearchResults page = underTest.searchRepositories(
+            new SearchRequest("java", LocalDate.of(2020, 1, 1), SortField.STARS, SortDirection.DESC, 4, 30)).block();
+        underTest.searchRepositories(
+            new SearchRequest("java", LocalDate.of(2020, 1, 1), SortField.STARS, SortDirection.DESC, 2, 50)).block();
+
+        assertThat(page.total()).isEqualTo(250);
+        assertThat(page.items()).extracting(Repository::id).containsExactlyElementsOf(
+            LongStream.range(90, 120).boxed().toList());
+        verify(repositoryProvider, times(2)).findRepositories(BLOCK);
+        verify(repositoryProvider, times(1)).findRepositories(secondBlock);
+    }
+
+    @Test
+    void servesPageCrossingResultsCapOutOfLastBlockGitHubServes() {
+        SearchRequest tenthBlock = new SearchRequest("java", LocalDate.of(2020, 1, 1), SortField.STARS,
+            SortDirection.DESC, 10, 100);
+        when(repositoryProvider.findRepositories(tenthBlock)).thenReturn(Mono.just(block(900, 5000)));
+
+        SearchResults page = underTest.searchRepositories(
+            new SearchRequest("java", LocalDate.of(2020, 1, 1), SortField.STARS, SortDirection.DESC, 34, 30)).block();
+
+        assertThat(page.total()).isEqualTo(5000);
+        assertThat(page.items()).extracting(Repository::id).containsExactlyElementsOf(
+            LongStream.range(990, 1000).boxed().toList());
+        verify(repositoryProvider, never()).findRepositories(
+            new SearchRequest("java", LocalDate.of(2020, 1, 1), SortField.STARS, SortDirection.DESC, 11, 100));
+    }
+
+    @Test
+    void skipsSecondBlockWhenResultsEndInFirst() {
+        // the first block, cached in setUp, holds all of the single result
+        SearchResults page = underTest.searchRepositories(
+            new SearchRequest("java", LocalDate.of(2020, 1, 1), SortField.STARS, SortDirection.DESC, 4, 30)).block();
+
+        assertThat(page.items()).isEmpty();
+        verify(repositoryProvider, never()).findRepositories(
+            new SearchRequest("java", LocalDate.of(2020, 1, 1), SortField.STARS, SortDirection.DESC, 2, 100));
+    }
+
+    @Test
+    void reportsWhenServedResultsWereFetchedAndHowLongTheyStayFresh() {
+        clock.advance(Duration.ofSeconds(30));
+
+        CachedSearchResults served = underTest.searchCachedRepositories(REQUEST).block();
+
+        assertThat(served.fetchedAt()).isEqualTo(Instant.parse("2025-07-01T12:00:00Z"));
+        assertThat(underTest.freshFor(served)).isEqualTo(Duration.ofSeconds(90));
+        clock.advance(Duration.ofMinutes(5));
+        assertThat(underTest.freshFor(served)).isZero();
+    }
+
+    @Test
+    void countsSearchesAsHot() {
+        underTest.searchRepositories(REQUEST).block();
+
+        assertThat(hotSearches.top()).containsExactly(BLOCK);
+    }
+
+    @Test
+    void ranksPopularityWindowOutOfCachedBlocks() {
+        SearchRequest block2 =
+            new SearchRequest("java", LocalDate.of(2020, 1, 1), SortField.STARS, SortDirection.DESC, 2, 100);
+        SearchRequest block3 =
+            new SearchRequest("java", LocalDate.of(2020, 1, 1), SortField.STARS, SortDirection.DESC, 3, 100);
+        when(repositoryProvider.findRepositories(block2)).thenReturn(Mono.just(CACHED));
+        when(repositoryProvider.findRepositories(block3)).thenReturn(Mono.just(CACHED));
+
+        underTest.searchRepositories(
+            new SearchRequest("java", LocalDate.of(2020, 1, 1), SortField.POPULARITY, SortDirection.DESC, 1, 10)).block();
+
+        // the first block of candidates was cached by the search sorted by stars
+        verify(repositoryProvider, times(1)).findRepositories(BLOCK);
+    }
+
+    @Test
+    void servesPopularityWindowInBlocksNoLargerThanGitHubPages() {
+        for (int page = 1; page <= 3; page++) {
+            when(repositoryProvider.findRepositories(
+                new SearchRequest("go", null, SortField.STARS, SortDirection.DESC, page, 100)))
+                .thenReturn(Mono.just(block((page - 1) * 100L, 300)));
+        }
+
+        SearchResults page = underTest.searchRepositories(
+            new SearchRequest("go", null, SortField.POPULARITY, SortDirection.DESC, 4, 30)).block();
+
+        // the top 200 of the window, the page taking the end of its first block and the start of the second one
+        assertThat(page.total()).isEqualTo(200);
+        assertThat(page.items()).hasSize(30);
+        assertThat(hotSearches.top()).contains(
+            new SearchRequest("go", null, SortField.POPULARITY, SortDirection.DESC, 1, 100),
+            new SearchRequest("go", null, SortField.POPULARITY, SortDirection.DESC, 2, 100));
+        assertThat(hotSearches.top()).allSatisfy(
+            cacheKey -> assertThat(cacheKey.size()).isLessThanOrEqualTo(SearchRequest.MAX_SIZE));
+    }
+
+    @Test
+    void prewarmsEntryAboutToExpire() {
+        when(repositoryProvider.findRepositories(BLOCK)).thenReturn(Mono.just(FRESH));
+        clock.advance(Duration.ofMinutes(8));
+
+        assertThat(underTest.prewarm(BLOCK, Duration.ofMinutes(1)).block()).isFalse();
+
+        clock.advance(Duration.ofSeconds(90));
+
+        assertThat(underTest.prewarm(BLOCK, Duration.ofMinutes(1)).block()).isTrue();
+        clock.advance(Duration.ofMinutes(1));
+        assertThat(underTest.searchRepositories(REQUEST).block()).isEqualTo(FRESH);
+        verify(repositoryProvider, times(2)).findRepositories(BLOCK);
+    }
+
+    private static SearchResults block(long firstId, int total) {
+        return new SearchResults(total, LongStream.range(firstId, firstId + 100)
+            .mapToObj(id -> new Repository(id, "repo-" + id, null, null, null, null, null, "java", 1, 1, 0))
+            .toList());
+    }
+}
@@ -0,0 +1,138 @@
+package com.grabduck.githubsearch.index;
+
+import com.grabduck.githubsearch.MutableClock;
+import com.grabduck.githubsearch.client.GitHubTokenPool;
+import com.grabduck.githubsearch.client.GitHubTokenPool.PooledToken;
+import com.grabduck.githubsearch.client.RateLimitBudget;
+import com.grabduck.githubsearch.domain.exceptions.RepositorySearchException;
+import com.grabduck.githubsearch.domain.model.Repository;
+import com.grabduck.githubsearch.domain.model.SearchRequest;
+import com.grabduck.githubsearch.domain.model.SearchResults;
+import com.grabduck.githubsearch.domain.model.SortDirection;
+import com.grabduck.githubsearch.domain.model.SortField;
+import com.grabduck.githubsearch.domain.service.PopularityScorer;
+import com.grabduck.githubsearch.domain.service.RepositoryExporter;
+import com.grabduck.githubsearch.domain.service.RepositoryProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class IndexSyncTest {
+
+    private static final SearchRequest JAVA_SEARCH =
+        new SearchRequest("java", LocalDate.of(2025, 1, 1), SortField.STARS, SortDirection.DESC, 1, 10);
+
+    @TempDir
+    private Path directory;
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-07-01T12:00:00Z"));
+    private final List<Repository> github = new ArrayList<>();
+    private final List<SearchRequest> requests = new ArrayList<>();
+    private boolean gitHubDown;
+
+    private final RepositoryProvider repositoryProvider = request -> Mono.fromSupplier(() -> {
+        requests.add(request);
+        if (gitHubDown) {
+            throw new RepositorySearchException("down");
+        }
+        List<Repository> matching = github.stream()
+            .filter(repository -> !repository.createdAt().isBefore(request.createdWithin().from()))
+            .filter(repository -> !repository.createdAt().isAfter(request.createdWithin().to()))
+            .toList();
+        return new SearchResults(matching.size(), request.page() == 1 ? matching : List.of());
+    });
+
+    private final RateLimitBudget budget = new RateLimitBudget(30, clock);
+
+    private RepositoryIndex index;
+    private IndexSync underTest;
+
+    @BeforeEach
+    void setUp() {
+        index = RepositoryIndex.open(directory, LocalDate.of(2025, 1, 1), 8);
+        GitHubTokenPool tokenPool = mock(GitHubTokenPool.class);
+        when(tokenPool.leastUsed()).thenReturn(new PooledToken("token-1", "", budget));
+        RepositoryExporter exporter = new RepositoryExporter(repositoryProvider, new PopularityScorer(clock), clock, 2);
+        underTest = new IndexSync(index, exporter, tokenPool, clock, List.of("java"), Duration.ofMinutes(15),
+            Duration.ofDays(1), 10);
+    }
+
+    @Test
+    void coversLanguageOnceSynced() {
+        github.add(repository(1, "2025-03-01T10:00:00Z"));
+        github.add(repository(2, "2025-06-01T10:00:00Z"));
+
+        underTest.syncAll().block();
+
+        assertThat(index.covers(JAVA_SEARCH)).isTrue();
+        assertThat(index.search(JAVA_SEARCH).total()).isEqualTo(2);
+        assertThat(index.syncState("java").checkpoint()).isEqualTo(clock.instant());
+    }
+
+    @Test
+    void fetchesOnlyRepositoriesCreatedSinceLastSync() {
+        underTest.syncAll().block();
+        Instant lastSync = clock.instant();
+        clock.advance(Duration.ofMinutes(15));
+        github.add(repository(3, "2025-07-01T12:05:00Z"));
+        requests.clear();
+
+        underTest.syncAll().block();
+
+        assertThat(requests).allSatisfy(request -> assertThat(request.createdWithin().from())
+            .isEqualTo(lastSync.minus(Duration.ofHours(1)).plusSeconds(1)));
+        assertThat(index.search(JAVA_SEARCH).total()).isEqualTo(1);
+    }
+
+    @Test
+    void resumesFailedSyncNextTime() {
+        github.add(repository(1, "2025-03-01T10:00:00Z"));
+        gitHubDown = true;
+
+        underTest.syncAll().block();
+
+        assertThat(index.covers(JAVA_SEARCH)).isFalse();
+
+        gitHubDown = false;
+        underTest.syncAll().block();
+
+        assertThat(index.covers(JAVA_SEARCH)).isTrue();
+        assertThat(index.search(JAVA_SEARCH).total()).isEqualTo(1);
+    }
+
+    @Test
+    void pausesWhileRateLimitBudgetIsLeftToSearches() throws Exception {
+        github.add(repository(1, "2025-03-01T10:00:00Z"));
+        for (int i = 0; i < 25; i++) {
+            budget.reserve(Duration.ofSeconds(10));
+        }
+
+        CompletableFuture<Void> sync = underTest.syncAll().toFuture();
+
+        assertThat(requests).isEmpty();
+
+        clock.advance(Duration.ofMinutes(1));
+        sync.get(10, TimeUnit.SECONDS);
+
+        assertThat(index.covers(JAVA_SEARCH)).isTrue();
+    }
+
+    private static Repository repository(long id, String createdAt) {
+        return new Repository(id, "repo" + id, "owner/repo" + id, "https://github.com/owner/repo" + id, null,
+            Instant.parse(createdAt), Instant.parse(createdAt), "Java", 10, 1);
+    }
+}
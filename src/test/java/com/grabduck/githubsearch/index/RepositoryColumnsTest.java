@@ -0,0 +1,87 @@
+package com.grabduck.githubsearch.index;
+
+import com.grabduck.githubsearch.domain.model.Repository;
+import com.grabduck.githubsearch.domain.model.SearchRequest;
+import com.grabduck.githubsearch.domain.model.SearchResults;
+import com.grabduck.githubsearch.domain.model.SortDirection;
+import com.grabduck.githubsearch.domain.model.SortField;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RepositoryColumnsTest {
+
+    private static final List<String> LANGUAGES = List.of("Java", "Python", "Go");
+
+    private final Random random = new Random(42);
+    private final List<Repository> repositories = IntStream.range(0, 2000)
+        .mapToObj(i -> new Repository(
+            (long) random.nextInt(1_000_000_000), "repo" + i, "owner/repo" + i, "https://github.com/owner/repo" + i, null,
+            Instant.parse("2015-01-01T00:00:00Z").plusSeconds(random.nextInt(300_000_000)),
+            Instant.parse("2025-01-01T00:00:00Z").plusSeconds(random.nextInt(10_000_000)),
+            i % 50 == 0 ? null : LANGUAGES.get(random.nextInt(LANGUAGES.size())),
+            random.nextInt(100),
+            i % 70 == 0 ? null : random.nextInt(100)
+        ))
+        .toList();
+
+    private final RepositoryColumns underTest = RepositoryColumns.of(repositories);
+
+    @Test
+    void searchesLikeFilteringAndSortingTheList() {
+        for (SortField sort : List.of(SortField.STARS, SortField.FORKS, SortField.UPDATED)) {
+            for (SortDirection direction : SortDirection.values()) {
+                for (String createdSince : List.of("2008-04-01", "2020-06-15", "2030-01-01")) {
+                    for (int page : List.of(1, 3, 40)) {
+                        SearchRequest request =
+                            new SearchRequest("java", LocalDate.parse(createdSince), sort, direction, page, 25);
+
+                        assertThat(underTest.search(request)).as(request.toString()).isEqualTo(searchList(request));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void matchesLanguageCaseInsensitively() {
+        SearchRequest request = new SearchRequest("PYTHON", LocalDate.of(2008, 4, 1), SortField.STARS, SortDirection.DESC, 1, 10);
+
+        assertThat(underTest.search(request).items()).isNotEmpty()
+            .allSatisfy(repository -> assertThat(repository.language()).isEqualTo("Python"));
+    }
+
+    @Test
+    void findsNothingForUnknownLanguage() {
+        SearchRequest request = new SearchRequest("cobol", null, SortField.STARS, SortDirection.DESC, 1, 10);
+
+        assertThat(underTest.search(request)).isEqualTo(new SearchResults(0, List.of()));
+    }
+
+    private SearchResults searchList(SearchRequest request) {
+        Instant createdSince = request.createdSince().atStartOfDay(ZoneOffset.UTC).toInstant();
+        Function<Repository, Long> key = switch (request.sort()) {
+            case FORKS -> repository -> repository.forksCount() != null ? (long) repository.forksCount() : Integer.MIN_VALUE;
+            case UPDATED -> repository -> repository.updatedAt().getEpochSecond();
+            default -> repository -> (long) repository.stargazersCount();
+        };
+        Comparator<Repository> order = Comparator.comparing(key).thenComparing(Repository::id);
+
+        List<Repository> matching = repositories.stream()
+            .filter(repository -> "java".equalsIgnoreCase(repository.language()))
+            .filter(repository -> !repository.createdAt().isBefore(createdSince))
+            .sorted(request.direction() == SortDirection.DESC ? order.reversed() : order)
+            .toList();
+        int from = Math.min(matching.size(), (request.page() - 1) * request.size());
+        return new SearchResults(matching.size(), matching.subList(from, Math.min(matching.size(), from + request.size())));
+    }
+}
@@ -0,0 +1,178 @@
+package com.grabduck.githubsearch.index;
+
+import com.grabduck.githubsearch.domain.model.CreatedRange;
+import com.grabduck.githubsearch.domain.model.Repository;
+import com.grabduck.githubsearch.domain.model.SearchRequest;
+import com.grabduck.githubsearch.domain.model.SearchResults;
+import com.grabduck.githubsearch.domain.model.SortDirection;
+import com.grabduck.githubsearch.domain.model.SortField;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RepositoryIndexTest {
+
+    private static final LocalDate CREATED_SINCE = LocalDate.of(2024, 1, 1);
+    private static final Instant CHECKPOINT = Instant.parse("2025-07-01T00:00:00Z");
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void searchesLikeGitHub() {
+        RepositoryIndex index = RepositoryIndex.open(directory, CREATED_SINCE, 8);
+        index.add("java", List.of(
+            repository(1, "Java", "2024-02-01T10:00:00Z", 300, 5),
+            repository(2, "Java", "2024-03-01T10:00:00Z", 100, 50),
+            repository(3, "Java", "2024-04-01T10:00:00Z", 200, 20),
+            repository(4, "Kotlin", "2024-04-01T10:00:00Z", 900, 90)
+        ), CHECKPOINT);
+        index.publish();
+
+        assertThat(ids(index.search(request("java", "2024-01-01", SortField.STARS, SortDirection.DESC, 1, 10))))
+            .containsExactly(1L, 3L, 2L);
+        assertThat(ids(index.search(request("JAVA", "2024-01-01", SortField.FORKS, SortDirection.ASC, 1, 10))))
+            .containsExactly(1L, 3L, 2L);
+
+        SearchResults filtered = index.search(request("java", "2024-03-01", SortField.STARS, SortDirection.DESC, 2, 1));
+        assertThat(filtered.total()).isEqualTo(2);
+        assertThat(ids(filtered)).containsExactly(2L);
+    }
+
+    @Test
+    void readsRepositoriesBackFromSegments() {
+        Repository repository = new Repository(42L, "name", "owner/name", "https://github.com/owner/name",
+            "Ünïcode description", Instant.parse("2024-05-01T10:00:00Z"), null, "Java", 7, null);
+
+        RepositoryIndex index = RepositoryIndex.open(directory, CREATED_SINCE, 8);
+        index.add("java", List.of(repository), CHECKPOINT);
+        index.publish();
+
+        assertThat(index.search(request("java", "2024-01-01", SortField.STARS, SortDirection.DESC, 1, 10)).items())
+            .containsExactly(repository);
+    }
+
+    @Test
+    void servesAddedRepositoriesOncePublished() {
+        RepositoryIndex index = RepositoryIndex.open(directory, CREATED_SINCE, 8);
+        index.add("java", List.of(repository(1, "Java", "2024-02-01T10:00:00Z", 300, 5)), CHECKPOINT);
+        index.add("java", List.of(repository(2, "Java", "2024-03-01T10:00:00Z", 100, 50)), CHECKPOINT);
+
+        assertThat(index.size()).isZero();
+
+        index.publish();
+
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void survivesRestart() {
+        RepositoryIndex index = RepositoryIndex.open(directory, CREATED_SINCE, 8);
+        index.add("java", List.of(repository(1, "Java", "2024-02-01T10:00:00Z", 300, 5)), CHECKPOINT);
+        index.completeSync("java");
+
+        RepositoryIndex reopened = RepositoryIndex.open(directory, CREATED_SINCE, 8);
+
+        assertThat(reopened.size()).isEqualTo(1);
+        assertThat(reopened.syncState("java").checkpoint()).isEqualTo(CHECKPOINT);
+        assertThat(reopened.covers(request("java", "2024-01-01", SortField.STARS, SortDirection.DESC, 1, 10))).isTrue();
+    }
+
+    @Test
+    void keepsLatestCopyOfRepositoryThroughCompaction() throws Exception {
+        RepositoryIndex index = RepositoryIndex.open(directory, CREATED_SINCE, 2);
+        for (int stars = 1; stars <= 5; stars++) {
+            index.add("java", List.of(
+                repository(1, "Java", "2024-02-01T10:00:00Z", stars, 0),
+                repository(10 + stars, "Java", "2024-02-01T10:00:00Z", 0, 0)
+            ), CHECKPOINT);
+        }
+        index.publish();
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files.filter(file -> file.toString().endsWith(".seg"))).hasSizeLessThanOrEqualTo(2);
+        }
+        RepositoryIndex reopened = RepositoryIndex.open(directory, CREATED_SINCE, 2);
+        SearchResults results = reopened.search(request("java", "2024-01-01", SortField.STARS, SortDirection.DESC, 1, 10));
+        assertThat(results.total()).isEqualTo(6);
+        assertThat(results.items().get(0).stargazersCount()).isEqualTo(5);
+    }
+
+    @Test
+    void dropsRepositoriesFullSyncDidNotSee() {
+        RepositoryIndex index = RepositoryIndex.open(directory, CREATED_SINCE, 8);
+        index.add("java", List.of(
+            repository(1, "Java", "2024-02-01T10:00:00Z", 300, 5),
+            repository(2, "Java", "2024-03-01T10:00:00Z", 100, 50),
+            repository(3, "Kotlin", "2024-04-01T10:00:00Z", 900, 90)
+        ), CHECKPOINT);
+        index.completeSync("java");
+
+        index.startFullSync("java", CHECKPOINT);
+        index.add("java", List.of(repository(1, "Java", "2024-02-01T10:00:00Z", 310, 5)), CHECKPOINT);
+        index.completeSync("java");
+
+        assertThat(ids(index.search(request("java", "2024-01-01", SortField.STARS, SortDirection.DESC, 1, 10))))
+            .containsExactly(1L);
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(RepositoryIndex.open(directory, CREATED_SINCE, 8).size()).isEqualTo(2);
+    }
+
+    @Test
+    void answersSearchesOfLanguageSyncedUnderAlias() {
+        RepositoryIndex index = RepositoryIndex.open(directory, CREATED_SINCE, 8);
+        index.add("csharp", List.of(
+            repository(1, "C#", "2024-02-01T10:00:00Z", 300, 5),
+            repository(2, "C#", "2024-03-01T10:00:00Z", 100, 50)
+        ), CHECKPOINT);
+        index.completeSync("csharp");
+
+        index.startFullSync("csharp", CHECKPOINT);
+        index.add("csharp", List.of(repository(1, "C#", "2024-02-01T10:00:00Z", 310, 5)), CHECKPOINT);
+        index.completeSync("csharp");
+
+        SearchRequest search = request("csharp", "2024-01-01", SortField.STARS, SortDirection.DESC, 1, 10);
+        assertThat(index.covers(search)).isTrue();
+        assertThat(ids(index.search(search))).containsExactly(1L);
+        assertThat(ids(RepositoryIndex.open(directory, CREATED_SINCE, 8).search(search))).containsExactly(1L);
+    }
+
+    @Test
+    void coversOnlySearchesOfCompletelySyncedLanguagesWithinItsDates() {
+        RepositoryIndex index = RepositoryIndex.open(directory, CREATED_SINCE, 8);
+        index.add("java", List.of(repository(1, "Java", "2024-02-01T10:00:00Z", 300, 5)), CHECKPOINT);
+
+        assertThat(index.covers(request("java", "2024-01-01", SortField.STARS, SortDirection.DESC, 1, 10))).isFalse();
+
+        index.completeSync("java");
+
+        assertThat(index.covers(request("java", "2024-01-01", SortField.STARS, SortDirection.DESC, 1, 10))).isTrue();
+        assertThat(index.covers(request("go", "2024-01-01", SortField.STARS, SortDirection.DESC, 1, 10))).isFalse();
+        assertThat(index.covers(request(null, "2024-01-01", SortField.STARS, SortDirection.DESC, 1, 10))).isFalse();
+        assertThat(index.covers(request("java", "2008-04-01", SortField.STARS, SortDirection.DESC, 1, 10))).isFalse();
+        assertThat(index.covers(new SearchRequest("java", LocalDate.of(2024, 1, 1), SortField.STARS, SortDirection.DESC, 1, 10,
+            CreatedRange.ofDays(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31))))).isFalse();
+    }
+
+    private static SearchRequest request(String language, String createdSince, SortField sort, SortDirection direction,
+                                         int page, int size) {
+        return new SearchRequest(language, LocalDate.parse(createdSince), sort, direction, page, size);
+    }
+
+    private static Repository repository(long id, String language, String createdAt, int stars, int forks) {
+        return new Repository(id, "repo" + id, "owner/repo" + id, "https://github.com/owner/repo" + id, null,
+            Instant.parse(createdAt), Instant.parse(createdAt), language, stars, forks);
+    }
+
+    private static List<Long> ids(SearchResults results) {
+        return results.items().stream().map(Repository::id).toList();
+    }
+}